@@ -0,0 +1,256 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal;
+
+import static dagger.internal.DaggerCollections.hashTableLength;
+import static dagger.internal.DaggerCollections.hashTableSlot;
+import static dagger.internal.DaggerCollections.seededHashTableSlot;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An immutable {@link Map} whose iteration order is the order in which its keys were given. Keys
+ * and values are stored in parallel arrays, and the keys are indexed by an open-addressed hash
+ * table of {@code int}s, so unlike {@link java.util.LinkedHashMap} no objects are allocated per
+ * entry until the entries are iterated.
+ */
+final class ArrayMap<K, V> extends AbstractMap<K, V> {
+  /** The factor by which a dispatch table may be larger than an ordinary hash table. */
+  private static final int MAX_DISPATCH_TABLE_GROWTH = 2;
+
+  /** The number of dispatch table slots per bucket of keys that share a seed. */
+  private static final int DISPATCH_TABLE_SLOTS_PER_BUCKET = 4;
+
+  /** The number of seeds to try for each bucket of a dispatch table before giving up. */
+  private static final int MAX_BUCKET_SEED = 1024;
+
+  private final Object[] keys;
+  private final Object[] values;
+  private final int size;
+  private final int[] table;
+
+  /**
+   * If {@link #table} is a dispatch table, the seed of each bucket of keys, which selects the slot
+   * of {@link #table} that each of them occupies. {@code null} if {@link #table} resolves
+   * collisions by linear probing.
+   */
+  private final int[] seeds;
+
+  /**
+   * Returns a map of the first {@code count} keys of {@code keys} to the corresponding elements of
+   * {@code values}. If a key appears more than once, it keeps the position of its first appearance
+   * and the value of its last. {@code keys} must not contain {@code null}. Both arrays are used as
+   * the backing arrays of the map, so they must not be modified afterwards.
+   */
+  static <K, V> ArrayMap<K, V> create(Object[] keys, Object[] values, int count) {
+    int[] table = new int[hashTableLength(count)];
+    int size = 0;
+    for (int i = 0; i < count; i++) {
+      Object key = keys[i];
+      int slot = hashTableSlot(keys, table, key);
+      if (table[slot] == 0) {
+        keys[size] = key;
+        values[size] = values[i];
+        table[slot] = ++size;
+      } else {
+        values[table[slot] - 1] = values[i];
+      }
+    }
+    return new ArrayMap<K, V>(keys, values, size, table, null);
+  }
+
+  /**
+   * Returns a map like {@link #create(Object[], Object[], int)}, but whose keys are laid out in a
+   * dispatch table: a hash table without collisions, so that any lookup, whether or not the key is
+   * present, examines exactly one slot. The keys are split into buckets by hash code, and each
+   * bucket is given a seed that places all of its keys in free slots. Building the table costs more
+   * than {@link #create(Object[], Object[], int)}, so this is meant for maps that are built once
+   * and then queried many times. If no dispatch table of reasonable size is found, the returned map
+   * uses an ordinary hash table instead.
+   */
+  static <K, V> ArrayMap<K, V> createDispatchTable(Object[] keys, Object[] values, int count) {
+    ArrayMap<K, V> map = create(keys, values, count);
+    int minLength = hashTableLength(map.size);
+    for (int length = minLength; length <= MAX_DISPATCH_TABLE_GROWTH * minLength; length <<= 1) {
+      int[] seeds = new int[Math.max(1, length / DISPATCH_TABLE_SLOTS_PER_BUCKET)];
+      int[] table = dispatchTable(map.keys, map.size, seeds, length);
+      if (table != null) {
+        return new ArrayMap<K, V>(map.keys, map.values, map.size, table, seeds);
+      }
+    }
+    return map;
+  }
+
+  /**
+   * Returns a table of {@code length} slots in which each of the first {@code size} {@code keys}
+   * occupies the slot selected by the seed of its bucket, filling in {@code seeds} with the seed of
+   * each bucket. Returns {@code null} if some bucket has no such seed.
+   */
+  private static int[] dispatchTable(Object[] keys, int size, int[] seeds, int length) {
+    // Chain the keys of each bucket together through 1-based indices, so that buckets can be
+    // placed largest first, while the table has the most free slots.
+    int[] bucketHeads = new int[seeds.length];
+    int[] bucketSizes = new int[seeds.length];
+    int[] nextInBucket = new int[size];
+    int maxBucketSize = 0;
+    for (int i = 0; i < size; i++) {
+      int bucket = seededHashTableSlot(keys[i].hashCode(), 0, seeds.length);
+      nextInBucket[i] = bucketHeads[bucket];
+      bucketHeads[bucket] = i + 1;
+      maxBucketSize = Math.max(maxBucketSize, ++bucketSizes[bucket]);
+    }
+    int[] table = new int[length];
+    for (int bucketSize = maxBucketSize; bucketSize > 0; bucketSize--) {
+      for (int bucket = 0; bucket < seeds.length; bucket++) {
+        if (bucketSizes[bucket] == bucketSize) {
+          int seed = 1;
+          while (!placeBucket(keys, bucketHeads[bucket], nextInBucket, table, seed)) {
+            if (++seed > MAX_BUCKET_SEED) {
+              return null;
+            }
+          }
+          seeds[bucket] = seed;
+        }
+      }
+    }
+    return table;
+  }
+
+  /**
+   * Places the bucket of keys starting at {@code head} in the slots of {@code table} that {@code
+   * seed} selects. Returns {@code false}, leaving {@code table} unchanged, if any of those slots is
+   * already taken.
+   */
+  private static boolean placeBucket(
+      Object[] keys, int head, int[] nextInBucket, int[] table, int seed) {
+    for (int i = head; i != 0; i = nextInBucket[i - 1]) {
+      int slot = seededHashTableSlot(keys[i - 1].hashCode(), seed, table.length);
+      if (table[slot] != 0) {
+        for (int j = head; j != i; j = nextInBucket[j - 1]) {
+          table[seededHashTableSlot(keys[j - 1].hashCode(), seed, table.length)] = 0;
+        }
+        return false;
+      }
+      table[slot] = i;
+    }
+    return true;
+  }
+
+  private ArrayMap(Object[] keys, Object[] values, int size, int[] table, int[] seeds) {
+    this.keys = keys;
+    this.values = values;
+    this.size = size;
+    this.table = table;
+    this.seeds = seeds;
+  }
+
+  /** Returns the index of the entry for {@code key}, or {@code -1} if there is none. */
+  int indexOf(Object key) {
+    if (key == null) {
+      return -1;
+    }
+    if (seeds == null) {
+      return table[hashTableSlot(keys, table, key)] - 1;
+    }
+    int hashCode = key.hashCode();
+    int seed = seeds[seededHashTableSlot(hashCode, 0, seeds.length)];
+    int entry = table[seededHashTableSlot(hashCode, seed, table.length)];
+    if (entry == 0) {
+      return -1;
+    }
+    Object candidate = keys[entry - 1];
+    return candidate == key || key.equals(candidate) ? entry - 1 : -1;
+  }
+
+  /** Returns the key of the {@code index}th entry of this map. */
+  @SuppressWarnings("unchecked") // only Ks are stored in keys
+  K keyAt(int index) {
+    return (K) keys[index];
+  }
+
+  /** Returns the value of the {@code index}th entry of this map. */
+  @SuppressWarnings("unchecked") // only Vs are stored in values
+  V valueAt(int index) {
+    return (V) values[index];
+  }
+
+  /**
+   * Returns a map with the same keys as this one, in the same order, where the {@code index}th key
+   * maps to {@code values[index]}. The key array and hash table are shared with this map.
+   */
+  <W> ArrayMap<K, W> withValues(Object[] values) {
+    return new ArrayMap<K, W>(keys, values, size, table, seeds);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return indexOf(key) >= 0;
+  }
+
+  @Override
+  public V get(Object key) {
+    int index = indexOf(key);
+    return index < 0 ? null : valueAt(index);
+  }
+
+  @Override
+  public Set<Entry<K, V>> entrySet() {
+    return new AbstractSet<Entry<K, V>>() {
+      @Override
+      public int size() {
+        return size;
+      }
+
+      @Override
+      public Iterator<Entry<K, V>> iterator() {
+        return new Iterator<Entry<K, V>>() {
+          private int index;
+
+          @Override
+          public boolean hasNext() {
+            return index < size;
+          }
+
+          @Override
+          public Entry<K, V> next() {
+            if (index >= size) {
+              throw new NoSuchElementException();
+            }
+            Entry<K, V> entry = new SimpleImmutableEntry<K, V>(keyAt(index), valueAt(index));
+            index++;
+            return entry;
+          }
+
+          @Override
+          public void remove() {
+            throw new UnsupportedOperationException();
+          }
+        };
+      }
+    };
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal;
+
+import static dagger.internal.DaggerCollections.hashTableLength;
+import static dagger.internal.DaggerCollections.hashTableSlot;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An immutable {@link Set} whose iteration order is the order in which its elements were given.
+ * The elements are stored in a single array and indexed by an open-addressed hash table of {@code
+ * int}s, so unlike {@link java.util.HashSet} no objects are allocated per element.
+ */
+final class ArraySet<E> extends AbstractSet<E> {
+  private final Object[] elements;
+  private final int size;
+  private final int[] table;
+
+  /**
+   * Returns a set of the distinct elements among the first {@code count} elements of {@code
+   * elements}, in the order in which each first appears. {@code elements} must not contain {@code
+   * null}, and is used as the backing array of the set, so it must not be modified afterwards.
+   */
+  static <E> Set<E> create(Object[] elements, int count) {
+    int[] table = new int[hashTableLength(count)];
+    int size = 0;
+    for (int i = 0; i < count; i++) {
+      Object element = elements[i];
+      int slot = hashTableSlot(elements, table, element);
+      if (table[slot] == 0) {
+        elements[size] = element;
+        table[slot] = ++size;
+      }
+    }
+    return new ArraySet<E>(elements, size, table);
+  }
+
+  private ArraySet(Object[] elements, int size, int[] table) {
+    this.elements = elements;
+    this.size = size;
+    this.table = table;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    return o != null && table[hashTableSlot(elements, table, o)] != 0;
+  }
+
+  @Override
+  public Iterator<E> iterator() {
+    return new Iterator<E>() {
+      private int index;
+
+      @Override
+      public boolean hasNext() {
+        return index < size;
+      }
+
+      @SuppressWarnings("unchecked") // only Es are stored in elements
+      @Override
+      public E next() {
+        if (index >= size) {
+          throw new NoSuchElementException();
+        }
+        return (E) elements[index++];
+      }
+
+      @Override
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+    };
+  }
+}
@@ -58,14 +58,6 @@ public final class DaggerCollections {
     return list.size() != asSet.size();
   }
 
-  /**
-   * Creates a {@link HashSet} instance, with a high enough "intial capcity" that it <em>should</em>
-   * hold {@code expectedSize} elements without growth.
-   */
-  static <T> HashSet<T> newHashSetWithExpectedSize(int expectedSize) {
-    return new HashSet<T>(calculateInitialCapacity(expectedSize));
-  }
-
   /**
    * Creates a {@link LinkedHashMap} instance, with a high enough "initial capacity" that it
    * <em>should</em> hold {@code expectedSize} elements without growth.
@@ -74,6 +66,84 @@ public final class DaggerCollections {
     return new LinkedHashMap<K, V>(calculateInitialCapacity(expectedSize));
   }
 
+  /**
+   * Returns the length of an open-addressed hash table that indexes {@code size} elements with a
+   * load factor of at most one half. The length is always a power of two.
+   */
+  static int hashTableLength(int size) {
+    return size == 0 ? 1 : Integer.highestOneBit(size * 2 - 1) << 1;
+  }
+
+  /**
+   * Returns the slot of {@code table} that holds the index of the element of {@code elements} that
+   * is equal to {@code o}, or the empty slot at which that index should be stored if there is none.
+   *
+   * <p>Each nonzero slot of {@code table} holds one more than an index into {@code elements}, and
+   * collisions are resolved by linear probing. {@code table} must have at least one empty slot.
+   */
+  static int hashTableSlot(Object[] elements, int[] table, Object o) {
+    int mask = table.length - 1;
+    for (int slot = smear(o.hashCode()) & mask; ; slot = (slot + 1) & mask) {
+      int entry = table[slot];
+      if (entry == 0) {
+        return slot;
+      }
+      Object element = elements[entry - 1];
+      if (element == o || o.equals(element)) {
+        return slot;
+      }
+    }
+  }
+
+  /**
+   * Returns the slot of {@code table} that holds the index of {@code key} in {@code keys}, or the
+   * empty slot at which that index should be stored if there is none. {@code table} has the same
+   * layout as in {@link #hashTableSlot(Object[], int[], Object)}.
+   */
+  static int hashTableSlot(int[] keys, int[] table, int key) {
+    int mask = table.length - 1;
+    for (int slot = smear(key) & mask; ; slot = (slot + 1) & mask) {
+      int entry = table[slot];
+      if (entry == 0 || keys[entry - 1] == key) {
+        return slot;
+      }
+    }
+  }
+
+  /**
+   * Returns the slot of {@code table} that holds the index of {@code key} in {@code keys}, or the
+   * empty slot at which that index should be stored if there is none. {@code table} has the same
+   * layout as in {@link #hashTableSlot(Object[], int[], Object)}.
+   */
+  static int hashTableSlot(long[] keys, int[] table, long key) {
+    int mask = table.length - 1;
+    for (int slot = smear((int) (key ^ (key >>> 32))) & mask; ; slot = (slot + 1) & mask) {
+      int entry = table[slot];
+      if (entry == 0 || keys[entry - 1] == key) {
+        return slot;
+      }
+    }
+  }
+
+  /**
+   * Returns the slot of a hash table of length {@code length} that an element with {@code
+   * hashCode} occupies when the table is laid out with {@code seed}. Different seeds spread the
+   * same elements differently, so that a layout without collisions can be searched for.
+   */
+  static int seededHashTableSlot(int hashCode, int seed, int length) {
+    // Unlike smear(), this mixes every bit of its input into every bit of its output, so that two
+    // elements that share a slot under one seed are unlikely to share a slot under another.
+    int h = hashCode ^ (seed * 0x9e3779b9);
+    h = (h ^ (h >>> 16)) * 0x85ebca6b;
+    h = (h ^ (h >>> 13)) * 0xc2b2ae35;
+    return (h ^ (h >>> 16)) & (length - 1);
+  }
+
+  /** Spreads the bits of {@code hashCode} so that the low bits can index a hash table. */
+  private static int smear(int hashCode) {
+    return 0x1b873593 * Integer.rotateLeft(hashCode * 0xcc9e2d51, 15);
+  }
+
   private static int calculateInitialCapacity(int expectedSize) {
     if (expectedSize < 3) {
       return expectedSize + 1;
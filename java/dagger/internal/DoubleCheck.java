@@ -25,7 +25,7 @@ import javax.inject.Provider;
  * A {@link Lazy} and {@link Provider} implementation that memoizes the value returned from a
  * delegate using the double-check idiom described in Item 71 of <i>Effective Java 2</i>.
  */
-public final class DoubleCheck<T> implements Provider<T>, Lazy<T> {
+public final class DoubleCheck<T> implements MemoizingProvider<T>, Lazy<T> {
   private static final Object UNINITIALIZED = new Object();
 
   private volatile Provider<T> provider;
@@ -67,7 +67,7 @@ public final class DoubleCheck<T> implements Provider<T>, Lazy<T> {
   /** Returns a {@link Provider} that caches the value from the given delegate provider. */
   public static <T> Provider<T> provider(Provider<T> delegate) {
     checkNotNull(delegate);
-    if (delegate instanceof DoubleCheck) {
+    if (delegate instanceof MemoizingProvider) {
       /* This should be a rare case, but if we have a scoped @Binds that delegates to a scoped
        * binding, we shouldn't cache the value again. */
       return delegate;
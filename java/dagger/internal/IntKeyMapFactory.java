@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal;
+
+import static dagger.internal.Preconditions.checkNotNull;
+
+import java.util.Arrays;
+import java.util.Map;
+import javax.inject.Provider;
+
+/**
+ * A {@link Factory} implementation used to implement {@code Map<Integer, V>} and {@code
+ * Map<Integer, Provider<V>>} bindings. It is a specialization of {@link MapFactory} and {@link
+ * MapProviderFactory} whose maps are {@link IntKeyMap}s, which store their keys unboxed.
+ */
+public final class IntKeyMapFactory<V> implements Factory<Map<Integer, V>> {
+  private final IntKeyMap<Provider<V>> contributingMap;
+
+  /** Returns a new {@link Builder}. */
+  public static <V> Builder<V> builder(int size) {
+    return new Builder<V>(size);
+  }
+
+  private IntKeyMapFactory(IntKeyMap<Provider<V>> contributingMap) {
+    this.contributingMap = contributingMap;
+  }
+
+  /**
+   * Returns a {@code Map<Integer, V>} whose iteration order is that of the elements given by each
+   * of the providers, which are invoked in the order given at creation.
+   */
+  @Override
+  public IntKeyMap<V> get() {
+    Object[] values = new Object[contributingMap.size()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = contributingMap.valueAt(i).get();
+    }
+    return contributingMap.withValues(values);
+  }
+
+  /** A builder for {@link IntKeyMapFactory}. */
+  public static final class Builder<V> {
+    private int[] keys;
+    private Object[] providers;
+    private int size;
+
+    private Builder(int size) {
+      this.keys = new int[size];
+      this.providers = new Object[size];
+    }
+
+    /** Associates {@code key} with {@code providerOfValue}. */
+    public Builder<V> put(int key, Provider<V> providerOfValue) {
+      if (size == keys.length) {
+        keys = Arrays.copyOf(keys, Math.max(2 * size, 1));
+        providers = Arrays.copyOf(providers, keys.length);
+      }
+      keys[size] = key;
+      providers[size] = checkNotNull(providerOfValue, "provider");
+      size++;
+      return this;
+    }
+
+    /** Returns a new {@link IntKeyMapFactory}. */
+    public IntKeyMapFactory<V> build() {
+      return new IntKeyMapFactory<V>(IntKeyMap.<Provider<V>>create(keys, providers, size));
+    }
+
+    /**
+     * Returns a factory that always returns the same {@code Map<Integer, Provider<V>>}, for use
+     * in place of {@link MapProviderFactory}.
+     */
+    public Factory<Map<Integer, Provider<V>>> buildProviderMapFactory() {
+      Map<Integer, Provider<V>> map = IntKeyMap.<Provider<V>>create(keys, providers, size);
+      return InstanceFactory.create(map);
+    }
+  }
+}
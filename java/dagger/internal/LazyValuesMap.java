@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import javax.inject.Provider;
+
+/**
+ * An immutable {@link Map} view of a map of {@link Provider}s that calls each provider only when
+ * its value is first needed, by a lookup of its key or by iteration, and then memoizes that value
+ * for the lifetime of this map. Iteration order is that of the underlying map.
+ *
+ * <p>Reading a value that has already been resolved doesn't lock. Only resolving a value does, so
+ * that each provider is called at most once.
+ */
+final class LazyValuesMap<K, V> extends AbstractMap<K, V> {
+  private static final Object UNRESOLVED = new Object();
+
+  private final ArrayMap<K, Provider<V>> providers;
+  private final AtomicReferenceArray<Object> values;
+
+  LazyValuesMap(ArrayMap<K, Provider<V>> providers) {
+    this.providers = providers;
+    Object[] values = new Object[providers.size()];
+    Arrays.fill(values, UNRESOLVED);
+    this.values = new AtomicReferenceArray<Object>(values);
+  }
+
+  @SuppressWarnings("unchecked") // only Vs are memoized in values
+  private V valueAt(int index) {
+    Object value = values.get(index);
+    if (value == UNRESOLVED) {
+      value = resolve(index);
+    }
+    return (V) value;
+  }
+
+  private synchronized Object resolve(int index) {
+    Object value = values.get(index);
+    if (value == UNRESOLVED) {
+      value = providers.valueAt(index).get();
+      values.set(index, value);
+    }
+    return value;
+  }
+
+  @Override
+  public int size() {
+    return values.length();
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return providers.indexOf(key) >= 0;
+  }
+
+  @Override
+  public V get(Object key) {
+    int index = providers.indexOf(key);
+    return index < 0 ? null : valueAt(index);
+  }
+
+  @Override
+  public Set<K> keySet() {
+    return providers.keySet();
+  }
+
+  @Override
+  public Set<Entry<K, V>> entrySet() {
+    return new AbstractSet<Entry<K, V>>() {
+      @Override
+      public int size() {
+        return values.length();
+      }
+
+      @Override
+      public Iterator<Entry<K, V>> iterator() {
+        return new Iterator<Entry<K, V>>() {
+          private int index;
+
+          @Override
+          public boolean hasNext() {
+            return index < values.length();
+          }
+
+          @Override
+          public Entry<K, V> next() {
+            if (index >= values.length()) {
+              throw new NoSuchElementException();
+            }
+            Entry<K, V> entry =
+                new SimpleImmutableEntry<K, V>(providers.keyAt(index), valueAt(index));
+            index++;
+            return entry;
+          }
+
+          @Override
+          public void remove() {
+            throw new UnsupportedOperationException();
+          }
+        };
+      }
+    };
+  }
+}
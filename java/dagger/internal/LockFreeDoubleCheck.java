@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal;
+
+import static dagger.internal.Preconditions.checkNotNull;
+
+import dagger.Lazy;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import javax.inject.Provider;
+
+/**
+ * A {@link Lazy} and {@link Provider} implementation that memoizes the value returned from a
+ * delegate without ever blocking. Unlike {@link DoubleCheck}, threads that race to initialize the
+ * value each call the delegate, and the first result to be published with a compare-and-set is
+ * returned to all of them. The losing results are discarded.
+ *
+ * <p>This trades the guarantee that the delegate is called only once for the absence of a monitor,
+ * which keeps threads from queueing behind the first access to a hot scoped binding. Once the value
+ * is published, {@link #get()} is a single volatile read.
+ */
+@GwtIncompatible
+public final class LockFreeDoubleCheck<T> implements MemoizingProvider<T>, Lazy<T> {
+  private static final Object UNINITIALIZED = new Object();
+
+  @SuppressWarnings("rawtypes") // field updaters can't be created for a parameterized class
+  private static final AtomicReferenceFieldUpdater<LockFreeDoubleCheck, Object> INSTANCE_UPDATER =
+      AtomicReferenceFieldUpdater.newUpdater(LockFreeDoubleCheck.class, Object.class, "instance");
+
+  private volatile Provider<T> provider;
+  private volatile Object instance = UNINITIALIZED;
+  /**
+   * The {@linkplain Thread#getId() id} of the thread whose result was published. Only used to tell
+   * a recursive call on the same thread apart from a race with another thread.
+   */
+  private volatile long publishingThreadId;
+
+  private LockFreeDoubleCheck(Provider<T> provider) {
+    assert provider != null;
+    this.provider = provider;
+  }
+
+  @SuppressWarnings("unchecked") // cast only happens when result comes from the provider
+  @Override
+  public T get() {
+    Object result = instance;
+    if (result == UNINITIALIZED) {
+      result = initialize();
+    }
+    return (T) result;
+  }
+
+  private Object initialize() {
+    Provider<T> provider = this.provider;
+    if (provider == null) {
+      /* The provider is only released after the instance has been published, so the instance is
+       * guaranteed to be visible here. */
+      return instance;
+    }
+    Object result = provider.get();
+    long currentThreadId = Thread.currentThread().getId();
+    if (INSTANCE_UPDATER.compareAndSet(this, UNINITIALIZED, result)) {
+      publishingThreadId = currentThreadId;
+      /* Null out the reference to the provider. We are never going to need it again, so we can
+       * make it eligible for GC. */
+      this.provider = null;
+      return result;
+    }
+    /* Another result was published first. If it was published by this thread, then the call to
+     * provider.get() has resulted in a recursive call. If it returned the same instance, we'll allow
+     * it, but if the instances differ, throw. Results published by other threads simply win. */
+    Object currentInstance = instance;
+    if (publishingThreadId == currentThreadId && currentInstance != result) {
+      throw new IllegalStateException("Scoped provider was invoked recursively returning "
+          + "different results: " + currentInstance + " & " + result + ". This is likely "
+          + "due to a circular dependency.");
+    }
+    return currentInstance;
+  }
+
+  /** Returns a {@link Provider} that caches the value from the given delegate provider. */
+  public static <T> Provider<T> provider(Provider<T> delegate) {
+    checkNotNull(delegate);
+    if (delegate instanceof MemoizingProvider) {
+      /* This should be a rare case, but if we have a scoped @Binds that delegates to a scoped
+       * binding, we shouldn't cache the value again. */
+      return delegate;
+    }
+    return new LockFreeDoubleCheck<T>(delegate);
+  }
+
+  /** Returns a {@link Lazy} that caches the value from the given provider. */
+  public static <T> Lazy<T> lazy(Provider<T> provider) {
+    if (provider instanceof Lazy) {
+      @SuppressWarnings("unchecked")
+      final Lazy<T> lazy = (Lazy<T>) provider;
+      // Avoids memoizing a value that is already memoized. See DoubleCheck.lazy().
+      return lazy;
+    }
+    return new LockFreeDoubleCheck<T>(checkNotNull(provider));
+  }
+}
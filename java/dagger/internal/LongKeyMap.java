@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal;
+
+import static dagger.internal.DaggerCollections.hashTableLength;
+import static dagger.internal.DaggerCollections.hashTableSlot;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An immutable {@code Map<Long, V>} used for multibound maps with {@code long} keys, such as
+ * those declared with {@link dagger.multibindings.LongKey}. Keys are stored unboxed in an array
+ * and indexed by an open-addressed hash table, so {@link #get(long)} and {@link
+ * #containsKey(long)} look up keys without boxing them. Iteration order is the order in which
+ * the keys were given.
+ *
+ * <p>Like the rest of {@code dagger.internal}, this class is not supported API. An injected map
+ * isn't guaranteed to be a {@code LongKeyMap}, so code outside of Dagger shouldn't cast to it to use
+ * the primitive accessors.
+ */
+public final class LongKeyMap<V> extends AbstractMap<Long, V> {
+  private final long[] keys;
+  private final Object[] values;
+  private final int size;
+  private final int[] table;
+
+  /**
+   * Returns a map of the first {@code count} keys of {@code keys} to the corresponding elements of
+   * {@code values}. If a key appears more than once, it keeps the position of its first appearance
+   * and the value of its last. Both arrays are used as the backing arrays of the map, so they must
+   * not be modified afterwards.
+   */
+  static <V> LongKeyMap<V> create(long[] keys, Object[] values, int count) {
+    int[] table = new int[hashTableLength(count)];
+    int size = 0;
+    for (int i = 0; i < count; i++) {
+      long key = keys[i];
+      int slot = hashTableSlot(keys, table, key);
+      if (table[slot] == 0) {
+        keys[size] = key;
+        values[size] = values[i];
+        table[slot] = ++size;
+      } else {
+        values[table[slot] - 1] = values[i];
+      }
+    }
+    return new LongKeyMap<V>(keys, values, size, table);
+  }
+
+  private LongKeyMap(long[] keys, Object[] values, int size, int[] table) {
+    this.keys = keys;
+    this.values = values;
+    this.size = size;
+    this.table = table;
+  }
+
+  /** Returns the value of the {@code index}th entry of this map. */
+  @SuppressWarnings("unchecked") // only Vs are stored in values
+  V valueAt(int index) {
+    return (V) values[index];
+  }
+
+  /**
+   * Returns a map with the same keys as this one, in the same order, where the {@code index}th key
+   * maps to {@code values[index]}. The key array and hash table are shared with this map.
+   */
+  <W> LongKeyMap<W> withValues(Object[] values) {
+    return new LongKeyMap<W>(keys, values, size, table);
+  }
+
+  /** Returns the value for {@code key}, or {@code null} if there is none. */
+  public V get(long key) {
+    int entry = table[hashTableSlot(keys, table, key)];
+    return entry == 0 ? null : valueAt(entry - 1);
+  }
+
+  /** Returns true if this map contains {@code key}. */
+  public boolean containsKey(long key) {
+    return table[hashTableSlot(keys, table, key)] != 0;
+  }
+
+  @Override
+  public V get(Object key) {
+    return key instanceof Long ? get(((Long) key).longValue()) : null;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return key instanceof Long && containsKey(((Long) key).longValue());
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public Set<Entry<Long, V>> entrySet() {
+    return new AbstractSet<Entry<Long, V>>() {
+      @Override
+      public int size() {
+        return size;
+      }
+
+      @Override
+      public Iterator<Entry<Long, V>> iterator() {
+        return new Iterator<Entry<Long, V>>() {
+          private int index;
+
+          @Override
+          public boolean hasNext() {
+            return index < size;
+          }
+
+          @Override
+          public Entry<Long, V> next() {
+            if (index >= size) {
+              throw new NoSuchElementException();
+            }
+            Entry<Long, V> entry =
+                new SimpleImmutableEntry<Long, V>(keys[index], valueAt(index));
+            index++;
+            return entry;
+          }
+
+          @Override
+          public void remove() {
+            throw new UnsupportedOperationException();
+          }
+        };
+      }
+    };
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal;
+
+import static dagger.internal.Preconditions.checkNotNull;
+
+import java.util.Arrays;
+import java.util.Map;
+import javax.inject.Provider;
+
+/**
+ * A {@link Factory} implementation used to implement {@code Map<Long, V>} and {@code
+ * Map<Long, Provider<V>>} bindings. It is a specialization of {@link MapFactory} and {@link
+ * MapProviderFactory} whose maps are {@link LongKeyMap}s, which store their keys unboxed.
+ */
+public final class LongKeyMapFactory<V> implements Factory<Map<Long, V>> {
+  private final LongKeyMap<Provider<V>> contributingMap;
+
+  /** Returns a new {@link Builder}. */
+  public static <V> Builder<V> builder(int size) {
+    return new Builder<V>(size);
+  }
+
+  private LongKeyMapFactory(LongKeyMap<Provider<V>> contributingMap) {
+    this.contributingMap = contributingMap;
+  }
+
+  /**
+   * Returns a {@code Map<Long, V>} whose iteration order is that of the elements given by each
+   * of the providers, which are invoked in the order given at creation.
+   */
+  @Override
+  public LongKeyMap<V> get() {
+    Object[] values = new Object[contributingMap.size()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = contributingMap.valueAt(i).get();
+    }
+    return contributingMap.withValues(values);
+  }
+
+  /** A builder for {@link LongKeyMapFactory}. */
+  public static final class Builder<V> {
+    private long[] keys;
+    private Object[] providers;
+    private int size;
+
+    private Builder(int size) {
+      this.keys = new long[size];
+      this.providers = new Object[size];
+    }
+
+    /** Associates {@code key} with {@code providerOfValue}. */
+    public Builder<V> put(long key, Provider<V> providerOfValue) {
+      if (size == keys.length) {
+        keys = Arrays.copyOf(keys, Math.max(2 * size, 1));
+        providers = Arrays.copyOf(providers, keys.length);
+      }
+      keys[size] = key;
+      providers[size] = checkNotNull(providerOfValue, "provider");
+      size++;
+      return this;
+    }
+
+    /** Returns a new {@link LongKeyMapFactory}. */
+    public LongKeyMapFactory<V> build() {
+      return new LongKeyMapFactory<V>(LongKeyMap.<Provider<V>>create(keys, providers, size));
+    }
+
+    /**
+     * Returns a factory that always returns the same {@code Map<Long, Provider<V>>}, for use
+     * in place of {@link MapProviderFactory}.
+     */
+    public Factory<Map<Long, Provider<V>>> buildProviderMapFactory() {
+      Map<Long, Provider<V>> map = LongKeyMap.<Provider<V>>create(keys, providers, size);
+      return InstanceFactory.create(map);
+    }
+  }
+}
@@ -16,8 +16,9 @@
 
 package dagger.internal;
 
-import static dagger.internal.DaggerCollections.newLinkedHashMapWithExpectedSize;
+import static dagger.internal.Preconditions.checkNotNull;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Map;
 
@@ -26,10 +27,13 @@ import java.util.Map;
  * must be created in one fluent statement for inlined request fulfillments.
  */
 public final class MapBuilder<K, V> {
-  private final Map<K, V> contributions;
+  private Object[] keys;
+  private Object[] values;
+  private int size;
 
   private MapBuilder(int size) {
-    contributions = newLinkedHashMapWithExpectedSize(size);
+    keys = new Object[size];
+    values = new Object[size];
   }
 
   /**
@@ -40,16 +44,22 @@ public final class MapBuilder<K, V> {
   }
 
   public MapBuilder<K, V> put(K key, V value) {
-    contributions.put(key, value);
+    if (size == keys.length) {
+      keys = Arrays.copyOf(keys, Math.max(2 * size, 1));
+      values = Arrays.copyOf(values, keys.length);
+    }
+    keys[size] = checkNotNull(key, "key");
+    values[size] = value;
+    size++;
     return this;
   }
 
   public Map<K, V> build() {
-    switch (contributions.size()) {
+    switch (size) {
       case 0:
         return Collections.emptyMap();
       default:
-        return Collections.unmodifiableMap(contributions);
+        return ArrayMap.create(keys, values, size);
     }
   }
 }
@@ -18,7 +18,6 @@ package dagger.internal;
 
 import static dagger.internal.DaggerCollections.newLinkedHashMapWithExpectedSize;
 import static dagger.internal.Preconditions.checkNotNull;
-import static java.util.Collections.unmodifiableMap;
 
 import java.util.Collections;
 import java.util.LinkedHashMap;
@@ -38,7 +37,8 @@ public final class MapFactory<K, V> implements Factory<Map<K, V>> {
   private static final Provider<Map<Object, Object>> EMPTY =
       InstanceFactory.create(Collections.emptyMap());
 
-  private final Map<K, Provider<V>> contributingMap;
+  private final ArrayMap<K, Provider<V>> contributingMap;
+  private final boolean lazy;
 
   /**
    * Returns a new {@link Builder}
@@ -55,21 +55,38 @@ public final class MapFactory<K, V> implements Factory<Map<K, V>> {
     return (Provider<Map<K, V>>) (Provider) EMPTY;
   }
 
-  private MapFactory(Map<K, Provider<V>> map) {
-    this.contributingMap = unmodifiableMap(map);
+  private MapFactory(Map<K, Provider<V>> map, boolean lazy) {
+    int size = map.size();
+    Object[] keys = new Object[size];
+    Object[] providers = new Object[size];
+    int i = 0;
+    for (Entry<K, Provider<V>> entry : map.entrySet()) {
+      keys[i] = entry.getKey();
+      providers[i] = entry.getValue();
+      i++;
+    }
+    this.contributingMap = ArrayMap.create(keys, providers, size);
+    this.lazy = lazy;
   }
 
   /**
    * Returns a {@code Map<K, V>} whose iteration order is that of the elements
    * given by each of the providers, which are invoked in the order given at creation.
+   *
+   * <p>If this factory was created by {@link Builder#buildLazy()}, each provider is instead invoked
+   * the first time the returned map needs its value, and that value is reused for the rest of the
+   * map's lifetime.
    */
   @Override
   public Map<K, V> get() {
-    Map<K, V> result = newLinkedHashMapWithExpectedSize(contributingMap.size());
-    for (Entry<K, Provider<V>> entry: contributingMap.entrySet()) {
-      result.put(entry.getKey(), entry.getValue().get());
+    if (lazy) {
+      return new LazyValuesMap<K, V>(contributingMap);
+    }
+    Object[] values = new Object[contributingMap.size()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = contributingMap.valueAt(i).get();
     }
-    return unmodifiableMap(result);
+    return contributingMap.withValues(values);
   }
 
   // TODO(ronshapiro): can we merge the builders? Or maybe just use a (Immutable)MapBuilder?
@@ -89,7 +106,15 @@ public final class MapFactory<K, V> implements Factory<Map<K, V>> {
 
     /** Returns a new {@link MapProviderFactory}. */
     public MapFactory<K, V> build() {
-      return new MapFactory<>(map);
+      return new MapFactory<>(map, false);
+    }
+
+    /**
+     * Returns a new {@link MapFactory} whose maps call each value's provider only when that value
+     * is first looked up or iterated over.
+     */
+    public MapFactory<K, V> buildLazy() {
+      return new MapFactory<>(map, true);
     }
   }
 }
@@ -18,11 +18,11 @@ package dagger.internal;
 
 import static dagger.internal.DaggerCollections.newLinkedHashMapWithExpectedSize;
 import static dagger.internal.Preconditions.checkNotNull;
-import static java.util.Collections.unmodifiableMap;
 
 import dagger.Lazy;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Map.Entry;
 import javax.inject.Provider;
 
 /**
@@ -43,14 +43,28 @@ public final class MapProviderFactory<K, V>
     return new Builder<>(size);
   }
 
-  private MapProviderFactory(Map<K, Provider<V>> contributingMap) {
-    this.contributingMap = unmodifiableMap(contributingMap);
+  private MapProviderFactory(Map<K, Provider<V>> map, boolean dispatchTable) {
+    int size = map.size();
+    Object[] keys = new Object[size];
+    Object[] providers = new Object[size];
+    int i = 0;
+    for (Entry<K, Provider<V>> entry : map.entrySet()) {
+      keys[i] = entry.getKey();
+      providers[i] = entry.getValue();
+      i++;
+    }
+    this.contributingMap =
+        dispatchTable
+            ? ArrayMap.<K, Provider<V>>createDispatchTable(keys, providers, size)
+            : ArrayMap.<K, Provider<V>>create(keys, providers, size);
   }
 
   /**
    * Returns a {@code Map<K, Provider<V>>} whose iteration order is that of the elements
    * given by each of the providers, which are invoked in the order given at creation.
    *
+   * <p>If this factory was created by {@link Builder#buildDispatchTable()}, the map is a dispatch
+   * table in which looking up a key examines a single slot, whether or not the key is present.
    */
   @Override
   public Map<K, Provider<V>> get() {
@@ -73,7 +87,16 @@ public final class MapProviderFactory<K, V>
 
     /** Returns a new {@link MapProviderFactory}. */
     public MapProviderFactory<K, V> build() {
-      return new MapProviderFactory<>(map);
+      return new MapProviderFactory<>(map, false);
+    }
+
+    /**
+     * Returns a new {@link MapProviderFactory} whose map's keys are laid out in a dispatch table.
+     * The table takes longer to build, so this is only used with {@code
+     * -Adagger.dispatchTableMaps}.
+     */
+    public MapProviderFactory<K, V> buildDispatchTable() {
+      return new MapProviderFactory<>(map, true);
     }
   }
 }
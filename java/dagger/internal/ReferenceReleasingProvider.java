@@ -18,12 +18,18 @@ package dagger.internal;
 
 import static dagger.internal.Preconditions.checkNotNull;
 
+import dagger.releasablereferences.ReferenceRetention;
+import java.lang.ref.Reference;
+import java.lang.ref.SoftReference;
 import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import javax.inject.Provider;
 
 /**
  * A {@link Provider} implementation that can exchange its strong reference to the stored object for
- * a {@link WeakReference}.
+ * a {@link WeakReference}, or a {@link SoftReference} if its manager's {@linkplain
+ * ReferenceReleasingProviderManager#retention() retention} is {@link ReferenceRetention#SOFT}.
+ * Below, "weak reference" stands for either kind.
  *
  * <p>The provider can be in any one of four states at a time:
  *
@@ -52,6 +58,10 @@ import javax.inject.Provider;
  * <p>If garbage collection clears the weak reference while in <b>weak-reference</b> state, the
  * provider transitions to <b>cleared</b> state.
  *
+ * <p>Only {@link #get()} takes a lock, and only to compute the value in <b>uninitialized</b> or
+ * <b>cleared</b> state. The other transitions are lock-free, and releasing a value that was
+ * released and restored before reuses the same weak reference.
+ *
  * <p><img src="doc-files/ReferenceReleasingProvider-statemachine.png">
  *
  * @see <a href="https://google.github.io/dagger/users-guide.html#releasable-references">Releasable references</a>
@@ -60,13 +70,45 @@ import javax.inject.Provider;
 public final class ReferenceReleasingProvider<T> implements Provider<T> {
   private static final Object NULL = new Object(); // sentinel used when provider.get() returns null
 
+  @SuppressWarnings("rawtypes") // field updaters can't be created for parameterized types
+  private static final AtomicReferenceFieldUpdater<ReferenceReleasingProvider, Object> REFERENCE =
+      AtomicReferenceFieldUpdater.newUpdater(
+          ReferenceReleasingProvider.class, Object.class, "reference");
+
   private final Provider<T> provider;
-  private volatile Object strongReference;
-  private volatile WeakReference<T> weakReference;
+  private final boolean soft;
+
+  /** The manager whose access clock stamps {@link #lastAccess}, or {@code null} if not tracked. */
+  private final ReferenceReleasingProviderManager accessClock;
+
+  /**
+   * {@code null} in <b>uninitialized</b> state, a {@link WeakReleasedReference} or {@link
+   * SoftReleasedReference} in <b>weak-reference</b> or <b>cleared</b> state, and the stored value
+   * (or {@link #NULL}) in <b>strong-reference</b> state. Holding every state in one field lets
+   * {@link #releaseStrongReference()} and {@link #restoreStrongReference()} change state with a
+   * single compare-and-set instead of a lock.
+   */
+  private volatile Object reference;
 
-  private ReferenceReleasingProvider(Provider<T> provider) {
+  /**
+   * The most recently created released reference, which is reused when the same value is released
+   * again after being restored.
+   */
+  private volatile Reference<Object> released;
+
+  /**
+   * The value of the manager's access clock the last time {@link #get()} was called. Written
+   * without synchronization, since an approximate order is good enough to choose which providers
+   * keep their strong references.
+   */
+  private int lastAccess;
+
+  private ReferenceReleasingProvider(
+      Provider<T> provider, ReferenceReleasingProviderManager manager) {
     assert provider != null;
     this.provider = provider;
+    this.soft = manager.retention().equals(ReferenceRetention.SOFT);
+    this.accessClock = manager.retainedStrongReferences() > 0 ? manager : null;
   }
 
   /**
@@ -74,14 +116,16 @@ public final class ReferenceReleasingProvider<T> implements Provider<T> {
    * a {@link WeakReference} to that object, unless the stored value is {@code null}.
    */
   public void releaseStrongReference() {
-    Object value = strongReference;
-    if (value != null && value != NULL) {
-      synchronized (this) {
-        @SuppressWarnings("unchecked") // values other than NULL come from the provider
-        T storedValue = (T) value;
-        weakReference = new WeakReference<T>(storedValue);
-        strongReference = null;
-      }
+    Object value = reference;
+    if (value == null || value == NULL || asReleased(value) != null) {
+      return;
+    }
+    Reference<Object> released = this.released;
+    if (released == null || released.get() != value) {
+      released = soft ? new SoftReleasedReference(value) : new WeakReleasedReference(value);
+    }
+    if (REFERENCE.compareAndSet(this, value, released)) {
+      this.released = released;
     }
   }
 
@@ -90,21 +134,27 @@ public final class ReferenceReleasingProvider<T> implements Provider<T> {
    * released} if the {@link WeakReference} has not yet been cleared during garbage collection.
    */
   public void restoreStrongReference() {
-    Object value = strongReference;
-    if (weakReference != null && value == null) {
-      synchronized (this) {
-        value = strongReference;
-        if (weakReference != null && value == null) {
-          value = weakReference.get();
-          if (value != null) {
-            strongReference = value;
-            weakReference = null;
-          }
-        }
+    Object value = reference;
+    Reference<?> released = asReleased(value);
+    if (released != null) {
+      Object referent = released.get();
+      if (referent != null) {
+        REFERENCE.compareAndSet(this, value, referent);
       }
     }
   }
 
+  /** Returns {@code true} if this provider is in <b>strong-reference</b> state. */
+  boolean holdsStrongReference() {
+    Object value = reference;
+    return value != null && asReleased(value) == null;
+  }
+
+  /** Returns the value of the manager's access clock the last time {@link #get()} was called. */
+  int lastAccess() {
+    return lastAccess;
+  }
+
   /**
    * Returns the result of calling {@link Provider#get()} on the underlying {@link Provider}.
    *
@@ -121,6 +171,9 @@ public final class ReferenceReleasingProvider<T> implements Provider<T> {
   @SuppressWarnings("unchecked") // cast only happens when result comes from the provider
   @Override
   public T get() {
+    if (accessClock != null) {
+      lastAccess = accessClock.tickAccessClock();
+    }
     Object value = currentValue();
     if (value == null) {
       synchronized (this) {
@@ -130,7 +183,7 @@ public final class ReferenceReleasingProvider<T> implements Provider<T> {
           if (value == null) {
             value = NULL;
           }
-          strongReference = value;
+          reference = value;
         }
       }
     }
@@ -138,14 +191,19 @@ public final class ReferenceReleasingProvider<T> implements Provider<T> {
   }
 
   private Object currentValue() {
-    Object value = strongReference;
-    if (value != null) {
-      return value;
-    }
-    if (weakReference != null) {
-      return weakReference.get();
-    }
-    return null;
+    Object value = reference;
+    Reference<?> released = asReleased(value);
+    return released == null ? value : released.get();
+  }
+
+  /**
+   * Returns {@code value} if it is a released reference created by this class, or {@code null} if
+   * it is a stored value.
+   */
+  private static Reference<?> asReleased(Object value) {
+    return value instanceof WeakReleasedReference || value instanceof SoftReleasedReference
+        ? (Reference<?>) value
+        : null;
   }
 
   /**
@@ -155,8 +213,25 @@ public final class ReferenceReleasingProvider<T> implements Provider<T> {
   public static <T> ReferenceReleasingProvider<T> create(
       Provider<T> delegate, ReferenceReleasingProviderManager references) {
     ReferenceReleasingProvider<T> provider =
-        new ReferenceReleasingProvider<T>(checkNotNull(delegate));
+        new ReferenceReleasingProvider<T>(checkNotNull(delegate), references);
     references.addProvider(provider);
     return provider;
   }
+
+  /*
+   * The references held in weak-reference and cleared states. Private types are used so that they
+   * can't be confused with a stored value that is itself a Reference.
+   */
+
+  private static final class WeakReleasedReference extends WeakReference<Object> {
+    WeakReleasedReference(Object referent) {
+      super(referent);
+    }
+  }
+
+  private static final class SoftReleasedReference extends SoftReference<Object> {
+    SoftReleasedReference(Object referent) {
+      super(referent);
+    }
+  }
 }
@@ -18,35 +18,95 @@ package dagger.internal;
 
 import static dagger.internal.Preconditions.checkNotNull;
 
+import dagger.releasablereferences.ReferenceRetention;
 import dagger.releasablereferences.ReleasableReferenceManager;
 import java.lang.annotation.Annotation;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
-import java.util.Iterator;
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * A {@link ReleasableReferenceManager} that forwards calls to a dynamic set of weakly-referenced
  * {@link ReferenceReleasingProvider}s.
  *
+ * <p>The weak references are stored in fixed-size array segments, which are the units of work
+ * when releasing or restoring on an {@link Executor}. References whose providers have been
+ * garbage collected are found through a {@link ReferenceQueue}, and their slots are reused.
+ *
+ * <p>If the manager {@linkplain #retainedStrongReferences() retains strong references}, each
+ * provider records the manager's access clock whenever it is called, and releasing skips the
+ * providers that were called most recently.
+ *
  * @see <a href="https://google.github.io/dagger/users-guide.html#releasable-references">Releasable references</a>
  */
 @GwtIncompatible
 public final class ReferenceReleasingProviderManager implements ReleasableReferenceManager {
+  private static final int SEGMENT_SHIFT = 10;
+  private static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+  private static final int INITIAL_SEGMENT_SIZE = 16;
 
   private final Class<? extends Annotation> scope;
-  private final Queue<WeakReference<ReferenceReleasingProvider<?>>> providers =
-      new ConcurrentLinkedQueue<WeakReference<ReferenceReleasingProvider<?>>>();
+  private final ReferenceRetention retention;
+  private final int retainedStrongReferences;
+  private final ReferenceQueue<ReferenceReleasingProvider<?>> queue =
+      new ReferenceQueue<ReferenceReleasingProvider<?>>();
+
+  // The following fields are guarded by this. Every segment but the last has SEGMENT_SIZE slots.
+  private ProviderReference[][] segments = new ProviderReference[0][];
+  private int size;
+  private int[] freeSlots = new int[0];
+  private int freeSlotCount;
+
+  /**
+   * Incremented without synchronization by providers when they are called. Lost increments only
+   * make the order of calls less precise.
+   */
+  private int accessClock;
 
   public ReferenceReleasingProviderManager(Class<? extends Annotation> scope) {
+    this(scope, ReferenceRetention.WEAK, 0);
+  }
+
+  /**
+   * Creates a manager whose providers keep a {@code retention} reference to their values after
+   * they are released, and whose {@code retainedStrongReferences} most recently called providers
+   * are not released at all.
+   */
+  public ReferenceReleasingProviderManager(
+      Class<? extends Annotation> scope,
+      ReferenceRetention retention,
+      int retainedStrongReferences) {
+    if (retainedStrongReferences < 0) {
+      throw new IllegalArgumentException(
+          "retainedStrongReferences must not be negative: " + retainedStrongReferences);
+    }
     this.scope = checkNotNull(scope);
+    this.retention = checkNotNull(retention);
+    this.retainedStrongReferences = retainedStrongReferences;
   }
 
   /**
    * Adds a weak reference to {@code provider}.
    */
   public void addProvider(ReferenceReleasingProvider<?> provider) {
-    providers.add(new WeakReference<ReferenceReleasingProvider<?>>(provider));
+    synchronized (this) {
+      expungeStaleReferences();
+      int index = freeSlotCount > 0 ? freeSlots[--freeSlotCount] : size++;
+      int segment = index >>> SEGMENT_SHIFT;
+      int slot = index & (SEGMENT_SIZE - 1);
+      if (segment == segments.length) {
+        segments = Arrays.copyOf(segments, segment + 1);
+        segments[segment] = new ProviderReference[INITIAL_SEGMENT_SIZE];
+      } else if (slot == segments[segment].length) {
+        segments[segment] = Arrays.copyOf(segments[segment], 2 * slot);
+      }
+      segments[segment][slot] = new ProviderReference(provider, queue, index);
+    }
   }
 
   @Override
@@ -54,14 +114,40 @@ public final class ReferenceReleasingProviderManager implements ReleasableRefere
     return scope;
   }
 
+  /** The kind of reference that released providers keep to their values. */
+  public ReferenceRetention retention() {
+    return retention;
+  }
+
+  /** The number of most recently called providers that keep their strong references. */
+  public int retainedStrongReferences() {
+    return retainedStrongReferences;
+  }
+
+  /** Advances the access clock, returning its new value. */
+  int tickAccessClock() {
+    return ++accessClock;
+  }
+
   /**
    * {@inheritDoc} Calls {@link ReferenceReleasingProvider#releaseStrongReference()} on all
    * providers that have been {@linkplain #addProvider(ReferenceReleasingProvider) added} and that
-   * are still weakly referenced.
+   * are still weakly referenced, except the {@link #retainedStrongReferences()} most recently
+   * called ones.
    */
   @Override
   public void releaseStrongReferences() {
-    execute(Operation.RELEASE);
+    execute(true, null);
+  }
+
+  /**
+   * {@inheritDoc} Calls {@link ReferenceReleasingProvider#releaseStrongReference()} on all
+   * providers that have been {@linkplain #addProvider(ReferenceReleasingProvider) added} and that
+   * are still weakly referenced, one segment of providers per task.
+   */
+  @Override
+  public void releaseStrongReferences(Executor executor) {
+    execute(true, checkNotNull(executor));
   }
 
   /**
@@ -71,36 +157,212 @@ public final class ReferenceReleasingProviderManager implements ReleasableRefere
    */
   @Override
   public void restoreStrongReferences() {
-    execute(Operation.RESTORE);
+    execute(false, null);
+  }
+
+  /**
+   * {@inheritDoc} Calls {@link ReferenceReleasingProvider#restoreStrongReference()} on all
+   * providers that have been {@linkplain #addProvider(ReferenceReleasingProvider) added} and that
+   * are still weakly referenced, one segment of providers per task.
+   */
+  @Override
+  public void restoreStrongReferences(Executor executor) {
+    execute(false, checkNotNull(executor));
+  }
+
+  private void execute(boolean release, Executor executor) {
+    ProviderReference[][] segments;
+    synchronized (this) {
+      expungeStaleReferences();
+      // Copy each segment, since addProvider() and expungeStaleReferences() write to them in place
+      // while the tasks below read them without the lock.
+      segments = new ProviderReference[this.segments.length][];
+      for (int i = 0; i < segments.length; i++) {
+        segments[i] = this.segments[i].clone();
+      }
+    }
+    Operation operation = release ? releaseOperation(segments) : Operation.RESTORE;
+    if (executor == null || segments.length < 2) {
+      for (ProviderReference[] segment : segments) {
+        operation.execute(segment);
+      }
+      return;
+    }
+
+    CountDownLatch done = new CountDownLatch(segments.length - 1);
+    for (int i = 1; i < segments.length; i++) {
+      SegmentTask task = new SegmentTask(operation, segments[i], done);
+      try {
+        executor.execute(task);
+      } catch (RejectedExecutionException e) {
+        task.run();
+      }
+    }
+    operation.execute(segments[0]);
+    awaitUninterruptibly(done);
+  }
+
+  /**
+   * Returns the operation that releases every provider in {@code segments} except the {@link
+   * #retainedStrongReferences} most recently called ones that hold strong references.
+   */
+  private Operation releaseOperation(ProviderReference[][] segments) {
+    if (retainedStrongReferences == 0) {
+      return Operation.RELEASE;
+    }
+    // Ages are measured back from the current clock, so that they stay ordered if it overflows.
+    int clock = accessClock;
+    int[] ages = new int[INITIAL_SEGMENT_SIZE];
+    int count = 0;
+    for (ProviderReference[] segment : segments) {
+      for (ProviderReference reference : segment) {
+        ReferenceReleasingProvider<?> provider = reference == null ? null : reference.get();
+        if (provider != null && provider.holdsStrongReference()) {
+          if (count == ages.length) {
+            ages = Arrays.copyOf(ages, 2 * count);
+          }
+          ages[count++] = clock - provider.lastAccess();
+        }
+      }
+    }
+    if (count <= retainedStrongReferences) {
+      return Operation.NONE;
+    }
+    Arrays.sort(ages, 0, count);
+    int maxRetainedAge = ages[retainedStrongReferences - 1];
+    int retainedAtMaxAge = 0;
+    for (int i = retainedStrongReferences - 1; i >= 0 && ages[i] == maxRetainedAge; i--) {
+      retainedAtMaxAge++;
+    }
+    return new ReleaseLeastRecentlyCalled(clock, maxRetainedAge, retainedAtMaxAge);
   }
 
-  private void execute(Operation operation) {
-    Iterator<WeakReference<ReferenceReleasingProvider<?>>> iterator = providers.iterator();
-    while (iterator.hasNext()) {
-      ReferenceReleasingProvider<?> provider = iterator.next().get();
-      if (provider == null) {
-        iterator.remove();
-      } else {
-        operation.execute(provider);
+  /** Clears the slots of references whose providers have been garbage collected. */
+  private void expungeStaleReferences() {
+    for (Reference<?> reference = queue.poll(); reference != null; reference = queue.poll()) {
+      int index = ((ProviderReference) reference).index;
+      segments[index >>> SEGMENT_SHIFT][index & (SEGMENT_SIZE - 1)] = null;
+      if (freeSlotCount == freeSlots.length) {
+        freeSlots = Arrays.copyOf(freeSlots, Math.max(INITIAL_SEGMENT_SIZE, 2 * freeSlotCount));
       }
+      freeSlots[freeSlotCount++] = index;
     }
   }
 
-  private enum Operation {
-    RELEASE {
-      @Override
-      void execute(ReferenceReleasingProvider<?> provider) {
-        provider.releaseStrongReference();
+  private static void awaitUninterruptibly(CountDownLatch latch) {
+    boolean interrupted = false;
+    try {
+      while (true) {
+        try {
+          latch.await();
+          return;
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+    } finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
       }
-    },
-    RESTORE {
-      @Override
-      void execute(ReferenceReleasingProvider<?> provider) {
-        provider.restoreStrongReference();
+    }
+  }
+
+  /** A weak reference to a provider that knows its slot in the manager's segments. */
+  private static final class ProviderReference
+      extends WeakReference<ReferenceReleasingProvider<?>> {
+    final int index;
+
+    ProviderReference(
+        ReferenceReleasingProvider<?> provider,
+        ReferenceQueue<ReferenceReleasingProvider<?>> queue,
+        int index) {
+      super(provider, queue);
+      this.index = index;
+    }
+  }
+
+  /** Executes an operation on one segment and then counts down a latch. */
+  private static final class SegmentTask implements Runnable {
+    private final Operation operation;
+    private final ProviderReference[] segment;
+    private final CountDownLatch done;
+
+    SegmentTask(Operation operation, ProviderReference[] segment, CountDownLatch done) {
+      this.operation = operation;
+      this.segment = segment;
+      this.done = done;
+    }
+
+    @Override
+    public void run() {
+      try {
+        operation.execute(segment);
+      } finally {
+        done.countDown();
       }
-    },
-    ;
+    }
+  }
+
+  private abstract static class Operation {
+    static final Operation RELEASE =
+        new Operation() {
+          @Override
+          void execute(ReferenceReleasingProvider<?> provider) {
+            provider.releaseStrongReference();
+          }
+        };
+
+    static final Operation RESTORE =
+        new Operation() {
+          @Override
+          void execute(ReferenceReleasingProvider<?> provider) {
+            provider.restoreStrongReference();
+          }
+        };
+
+    static final Operation NONE =
+        new Operation() {
+          @Override
+          void execute(ReferenceReleasingProvider<?> provider) {}
+        };
 
     abstract void execute(ReferenceReleasingProvider<?> provider);
+
+    void execute(ProviderReference[] segment) {
+      for (ProviderReference reference : segment) {
+        if (reference != null) {
+          ReferenceReleasingProvider<?> provider = reference.get();
+          if (provider != null) {
+            execute(provider);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Releases the providers that were last called longer ago than {@code maxRetainedAge} ticks of
+   * the access clock, and all but {@code retainedAtMaxAge} of those called exactly that long ago.
+   */
+  private static final class ReleaseLeastRecentlyCalled extends Operation {
+    private final int clock;
+    private final int maxRetainedAge;
+    private final AtomicInteger retainedAtMaxAge;
+
+    ReleaseLeastRecentlyCalled(int clock, int maxRetainedAge, int retainedAtMaxAge) {
+      this.clock = clock;
+      this.maxRetainedAge = maxRetainedAge;
+      this.retainedAtMaxAge = new AtomicInteger(retainedAtMaxAge);
+    }
+
+    @Override
+    void execute(ReferenceReleasingProvider<?> provider) {
+      int age = clock - provider.lastAccess();
+      if (age < maxRetainedAge
+          || (age == maxRetainedAge && retainedAtMaxAge.getAndDecrement() > 0)) {
+        return;
+      }
+      provider.releaseStrongReference();
+    }
   }
 }
@@ -21,7 +21,6 @@ import static dagger.internal.Preconditions.checkNotNull;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -67,7 +66,7 @@ public final class SetBuilder<T> {
       case 1:
         return Collections.singleton(contributions.get(0));
       default:
-        return Collections.unmodifiableSet(new HashSet<>(contributions));
+        return ArraySet.create(contributions.toArray(), contributions.size());
     }
   }
 }
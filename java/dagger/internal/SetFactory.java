@@ -17,11 +17,9 @@
 package dagger.internal;
 
 import static dagger.internal.DaggerCollections.hasDuplicates;
-import static dagger.internal.DaggerCollections.newHashSetWithExpectedSize;
 import static dagger.internal.DaggerCollections.presizedList;
 import static dagger.internal.Preconditions.checkNotNull;
 import static java.util.Collections.emptySet;
-import static java.util.Collections.unmodifiableSet;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -92,6 +90,15 @@ public final class SetFactory<T> implements Factory<Set<T>> {
 
       return new SetFactory<T>(individualProviders, collectionProviders);
     }
+
+    /**
+     * Returns a {@link Provider} that computes the {@link Set} once and returns that same instance
+     * on every subsequent call. This is only safe when every contributing provider always returns
+     * the same value, e.g. because each one is scoped.
+     */
+    public Provider<Set<T>> buildMemoized() {
+      return SingleCheck.provider(build());
+    }
   }
 
   private final List<Provider<T>> individualProviders;
@@ -125,16 +132,17 @@ public final class SetFactory<T> implements Factory<Set<T>> {
       providedCollections.add(providedCollection);
     }
 
-    Set<T> providedValues = newHashSetWithExpectedSize(size);
+    Object[] providedValues = new Object[size];
+    int count = 0;
     for (int i = 0, c = individualProviders.size(); i < c; i++) {
-      providedValues.add(checkNotNull(individualProviders.get(i).get()));
+      providedValues[count++] = checkNotNull(individualProviders.get(i).get());
     }
     for (int i = 0, c = providedCollections.size(); i < c; i++) {
       for (T element : providedCollections.get(i)) {
-        providedValues.add(checkNotNull(element));
+        providedValues[count++] = checkNotNull(element);
       }
     }
 
-    return unmodifiableSet(providedValues);
+    return ArraySet.create(providedValues, count);
   }
 }
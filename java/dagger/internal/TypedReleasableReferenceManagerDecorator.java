@@ -21,6 +21,7 @@ import static dagger.internal.Preconditions.checkNotNull;
 import dagger.releasablereferences.ReleasableReferenceManager;
 import dagger.releasablereferences.TypedReleasableReferenceManager;
 import java.lang.annotation.Annotation;
+import java.util.concurrent.Executor;
 
 /**
  * A {@link TypedReleasableReferenceManager} that decorates another {@link
@@ -64,8 +65,18 @@ public final class TypedReleasableReferenceManagerDecorator<M extends Annotation
     delegate.releaseStrongReferences();
   }
 
+  @Override
+  public void releaseStrongReferences(Executor executor) {
+    delegate.releaseStrongReferences(executor);
+  }
+
   @Override
   public void restoreStrongReferences() {
     delegate.restoreStrongReferences();
   }
+
+  @Override
+  public void restoreStrongReferences(Executor executor) {
+    delegate.restoreStrongReferences(executor);
+  }
 }
@@ -23,6 +23,7 @@ import static com.google.common.collect.Iterables.isEmpty;
 import static dagger.internal.codegen.ComponentDescriptor.Kind.PRODUCTION_COMPONENT;
 import static dagger.internal.codegen.ComponentDescriptor.isComponentContributionMethod;
 import static dagger.internal.codegen.ComponentDescriptor.isComponentProductionMethod;
+import static dagger.internal.codegen.ContributionBinding.Kind.SYNTHETIC_DELEGATE_BINDING;
 import static dagger.internal.codegen.ContributionBinding.Kind.SYNTHETIC_MULTIBOUND_KINDS;
 import static dagger.internal.codegen.ContributionBinding.Kind.SYNTHETIC_OPTIONAL_BINDING;
 import static dagger.internal.codegen.DaggerStreams.toImmutableSet;
@@ -56,7 +57,6 @@ import dagger.producers.Producer;
 import dagger.releasablereferences.CanReleaseReferences;
 import dagger.releasablereferences.ReleasableReferenceManager;
 import java.util.ArrayDeque;
-import java.util.Collection;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -73,6 +73,8 @@ import javax.inject.Provider;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
 import javax.lang.model.util.ElementFilter;
 import javax.lang.model.util.Elements;
 
@@ -118,6 +120,32 @@ abstract class BindingGraph {
                             dependencyRequest.bindingKey(), componentDescriptor())))
         .collect(toImmutableSet());
   }
+
+  /**
+   * Returns {@code true} if {@code multibinding} has contributions and each of them always provides
+   * the same instance for the lifetime of the component, so that the multibound value itself can be
+   * computed once. This holds for contributions that are scoped to a scope that cannot release its
+   * references, and for delegates to such bindings.
+   */
+  boolean hasOnlyMemoizedContributions(ContributionBinding multibinding) {
+    checkArgument(SYNTHETIC_MULTIBOUND_KINDS.contains(multibinding.bindingKind()), multibinding);
+    return multibinding.bindingType().equals(BindingType.PROVISION)
+        && !multibinding.dependencies().isEmpty()
+        && resolvedDependencies(multibinding).stream().allMatch(this::isMemoized);
+  }
+
+  private boolean isMemoized(ResolvedBindings resolvedBindings) {
+    if (resolvedBindings.contributionBindings().size() != 1) {
+      return false;
+    }
+    ContributionBinding binding = resolvedBindings.contributionBinding();
+    if (binding.scope().isPresent()) {
+      return !binding.scope().get().canReleaseReferences();
+    }
+    return binding.bindingKind().equals(SYNTHETIC_DELEGATE_BINDING)
+        && resolvedDependencies(binding).stream().allMatch(this::isMemoized);
+  }
+
   /**
    * The type that defines the component for this graph.
    *
@@ -141,6 +169,49 @@ abstract class BindingGraph {
     return FluentIterable.from(ownedModules()).transform(ModuleDescriptor::moduleElement).toSet();
   }
 
+  /**
+   * The types that this graph and its subgraphs were resolved from: the components and their
+   * supertypes, which declare the entry points, their dependencies and modules, and the types that
+   * declare the bindings that they use.
+   */
+  @Memoized
+  ImmutableSet<TypeElement> contributingTypes() {
+    ImmutableSet.Builder<TypeElement> contributingTypes = ImmutableSet.builder();
+    for (BindingGraph graph : SUBGRAPH_TRAVERSER.preOrderTraversal(this)) {
+      contributingTypes.add(graph.componentType());
+      addSupertypes(graph.componentType(), contributingTypes);
+      contributingTypes.addAll(graph.componentDescriptor().dependencies());
+      for (ModuleDescriptor module : graph.componentDescriptor().transitiveModules()) {
+        contributingTypes.add(module.moduleElement());
+      }
+      for (ResolvedBindings resolvedBindings : graph.resolvedBindings().values()) {
+        for (Binding binding : resolvedBindings.bindings()) {
+          binding.bindingTypeElement().ifPresent(contributingTypes::add);
+        }
+      }
+    }
+    return contributingTypes.build();
+  }
+  /**
+   * Adds the classes and interfaces that {@code type} extends or implements, transitively, other
+   * than {@link Object}.
+   */
+  private static void addSupertypes(
+      TypeElement type, ImmutableSet.Builder<TypeElement> supertypes) {
+    List<TypeMirror> directSupertypes = Lists.newArrayList(type.getInterfaces());
+    directSupertypes.add(type.getSuperclass());
+    for (TypeMirror directSupertype : directSupertypes) {
+      if (directSupertype.getKind().equals(TypeKind.DECLARED)) {
+        TypeElement supertype = MoreTypes.asTypeElement(directSupertype);
+        if (!supertype.getQualifiedName().contentEquals(Object.class.getCanonicalName())) {
+          supertypes.add(supertype);
+          addSupertypes(supertype, supertypes);
+        }
+      }
+    }
+  }
+
+
   private static final TreeTraverser<BindingGraph> SUBGRAPH_TRAVERSER =
       new TreeTraverser<BindingGraph>() {
         @Override
@@ -997,31 +1068,41 @@ abstract class BindingGraph {
         }
       }
 
+      /**
+       * Returns the bindings resolved in this component, followed by those that it inherits: the
+       * bindings resolved in each ancestor, nearest first, whose keys weren't already resolved in a
+       * nearer component.
+       *
+       * <p>This walks up the ancestors once, instead of rebuilding each ancestor's full map and
+       * comparing it with this one, so that it takes time in proportion to the size of the result
+       * no matter how deep the component is.
+       */
       ImmutableMap<BindingKey, ResolvedBindings> getResolvedBindings() {
-        ImmutableMap.Builder<BindingKey, ResolvedBindings> resolvedBindingsBuilder =
-            ImmutableMap.builder();
-        resolvedBindingsBuilder.putAll(resolvedBindings);
-        if (parentResolver.isPresent()) {
-          Collection<ResolvedBindings> bindingsResolvedInParent =
-              Maps.difference(parentResolver.get().getResolvedBindings(), resolvedBindings)
-                  .entriesOnlyOnLeft()
-                  .values();
-          for (ResolvedBindings resolvedInParent : bindingsResolvedInParent) {
-            resolvedBindingsBuilder.put(
-                resolvedInParent.bindingKey(),
-                resolvedInParent.asInheritedIn(componentDescriptor));
+        Map<BindingKey, ResolvedBindings> allResolvedBindings =
+            Maps.newLinkedHashMap(resolvedBindings);
+        for (Optional<Resolver> ancestor = parentResolver;
+            ancestor.isPresent();
+            ancestor = ancestor.get().parentResolver) {
+          for (ResolvedBindings resolvedInAncestor : ancestor.get().resolvedBindings.values()) {
+            if (!allResolvedBindings.containsKey(resolvedInAncestor.bindingKey())) {
+              allResolvedBindings.put(
+                  resolvedInAncestor.bindingKey(),
+                  resolvedInAncestor.asInheritedIn(componentDescriptor));
+            }
           }
         }
-        return resolvedBindingsBuilder.build();
+        return ImmutableMap.copyOf(allResolvedBindings);
       }
 
+      /** Returns the modules of all of this component's ancestors. */
       ImmutableSet<ModuleDescriptor> getInheritedModules() {
-        return parentResolver.isPresent()
-            ? Sets.union(
-                    parentResolver.get().getInheritedModules(),
-                    parentResolver.get().componentDescriptor.transitiveModules())
-                .immutableCopy()
-            : ImmutableSet.<ModuleDescriptor>of();
+        ImmutableSet.Builder<ModuleDescriptor> inheritedModules = ImmutableSet.builder();
+        for (Optional<Resolver> ancestor = parentResolver;
+            ancestor.isPresent();
+            ancestor = ancestor.get().parentResolver) {
+          inheritedModules.addAll(ancestor.get().componentDescriptor.transitiveModules());
+        }
+        return inheritedModules.build();
       }
 
       ImmutableSet<ModuleDescriptor> getOwnedModules() {
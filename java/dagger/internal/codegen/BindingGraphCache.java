@@ -0,0 +1,268 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.squareup.javapoet.ClassName;
+import dagger.internal.codegen.ComponentDescriptor.ComponentMethodDescriptor;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.CodeSource;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+
+/**
+ * A cache, kept across compilations in the directory set by {@code
+ * -Adagger.bindingGraphCacheDirectory}, of the binding graphs that {@link BindingGraphValidator}
+ * found no errors or warnings in, so that unchanged components aren't validated again.
+ *
+ * <p>A graph is identified by a fingerprint of its bindings, the signatures of the types that
+ * contribute to it, the compiler options and the processor itself. Graphs can't be stored across
+ * compilations, since they are made of the compiler's elements, so a graph is still resolved and
+ * generated in each compilation; only its validation is skipped.
+ *
+ * <p>Each component's fingerprint is stored in a small binary file named after the component. The
+ * directory can be deleted at any time; a file that can't be read or written is treated as a miss.
+ */
+final class BindingGraphCache {
+  private static final int MAGIC = 0xDA66E2C4;
+  private static final int FORMAT_VERSION = 1;
+
+  private final Optional<Path> directory;
+  private final String environment;
+  private final ProcessingProfiler profiler;
+
+  BindingGraphCache(CompilerOptions compilerOptions, ProcessingProfiler profiler) {
+    Optional<String> processor = processorFingerprint();
+    this.directory =
+        processor.isPresent() ? compilerOptions.bindingGraphCacheDirectory() : Optional.empty();
+    this.environment = processor.orElse("") + compilerOptions;
+    this.profiler = profiler;
+  }
+
+  /**
+   * Returns the report of validating {@code graph} with {@code validator}, or an empty report
+   * without calling it if the same graph was validated without any messages before.
+   */
+  ValidationReport<TypeElement> validate(
+      BindingGraph graph, Function<BindingGraph, ValidationReport<TypeElement>> validator) {
+    if (!directory.isPresent()) {
+      return validator.apply(graph);
+    }
+    Path file = directory.get().resolve(ClassName.get(graph.componentType()).reflectionName());
+    HashCode fingerprint =
+        profiler.time("BindingGraphCache", graph.componentType(), () -> fingerprint(graph));
+    if (fingerprint.equals(read(file).orElse(null))) {
+      profiler.count("bindingGraphCacheHits", 1);
+      return ValidationReport.about(graph.componentType()).build();
+    }
+    profiler.count("bindingGraphCacheMisses", 1);
+    ValidationReport<TypeElement> report = validator.apply(graph);
+    if (hasNoMessages(report)) {
+      write(file, fingerprint);
+    }
+    return report;
+  }
+
+  private static boolean hasNoMessages(ValidationReport<?> report) {
+    return report.items().isEmpty()
+        && report.subreports().stream().allMatch(BindingGraphCache::hasNoMessages);
+  }
+
+  private HashCode fingerprint(BindingGraph graph) {
+    Hasher hasher = Hashing.sha256().newHasher();
+    putString(hasher, environment);
+    for (TypeElement type : graph.contributingTypes()) {
+      putTypeSignature(hasher, type);
+    }
+    putBindings(hasher, graph);
+    return hasher.hash();
+  }
+
+  private static void putBindings(Hasher hasher, BindingGraph graph) {
+    putString(hasher, graph.componentType().getQualifiedName());
+    // Entry points may be inherited, so they aren't all covered by the component's signature.
+    for (ComponentMethodDescriptor componentMethod :
+        graph.componentDescriptor().componentMethods()) {
+      putString(hasher, componentMethod.kind());
+      putString(hasher, componentMethod.methodElement().getEnclosingElement());
+      putString(hasher, componentMethod.methodElement());
+      if (componentMethod.dependencyRequest().isPresent()) {
+        putDependencyRequest(hasher, componentMethod.dependencyRequest().get());
+      }
+    }
+    for (ResolvedBindings resolvedBindings : graph.resolvedBindings().values()) {
+      putString(hasher, resolvedBindings.bindingKey());
+      putString(hasher, resolvedBindings.owningComponent().componentDefinitionType());
+      for (Binding binding : resolvedBindings.bindings()) {
+        putString(hasher, binding.bindingType());
+        putString(hasher, binding.key());
+        putString(hasher, binding.bindingElement().map(Object::toString).orElse(""));
+        putString(hasher, binding.contributingModule().map(Object::toString).orElse(""));
+        if (binding instanceof ContributionBinding) {
+          putString(hasher, ((ContributionBinding) binding).bindingKind());
+        }
+        for (DependencyRequest dependency : binding.dependencies()) {
+          putDependencyRequest(hasher, dependency);
+        }
+        putDeclarationModifiers(hasher, binding.key());
+      }
+    }
+    for (BindingGraph subgraph : graph.subgraphs()) {
+      putBindings(hasher, subgraph);
+    }
+  }
+
+  private static void putDependencyRequest(Hasher hasher, DependencyRequest request) {
+    putString(hasher, request.kind());
+    putString(hasher, request.key());
+    putString(hasher, request.isNullable());
+  }
+
+  /**
+   * Puts the modifiers of the type of {@code key} and of the types that enclose it, which decide
+   * whether the component can refer to it.
+   */
+  private static void putDeclarationModifiers(Hasher hasher, Key key) {
+    if (key.type().getKind().equals(TypeKind.DECLARED)) {
+      for (Element element = ((DeclaredType) key.type()).asElement();
+          element instanceof TypeElement;
+          element = element.getEnclosingElement()) {
+        putString(hasher, element.getModifiers());
+      }
+    }
+  }
+
+  /** Puts everything about {@code type} that resolving and validating a graph can depend on. */
+  private static void putTypeSignature(Hasher hasher, TypeElement type) {
+    putString(hasher, type.getQualifiedName());
+    putString(hasher, type.getKind());
+    putString(hasher, type.getModifiers());
+    putAnnotations(hasher, type.getAnnotationMirrors());
+    putString(hasher, type.getSuperclass());
+    putString(hasher, type.getInterfaces());
+    putString(hasher, type.getTypeParameters());
+    for (Element enclosed : type.getEnclosedElements()) {
+      putString(hasher, enclosed.getKind());
+      putString(hasher, enclosed.getSimpleName());
+      putString(hasher, enclosed.getModifiers());
+      putString(hasher, enclosed.asType());
+      putAnnotations(hasher, enclosed.getAnnotationMirrors());
+      if (enclosed instanceof ExecutableElement) {
+        for (VariableElement parameter : ((ExecutableElement) enclosed).getParameters()) {
+          putAnnotations(hasher, parameter.getAnnotationMirrors());
+        }
+      }
+    }
+  }
+
+  private static void putAnnotations(
+      Hasher hasher, List<? extends AnnotationMirror> annotationMirrors) {
+    hasher.putInt(annotationMirrors.size());
+    for (AnnotationMirror annotationMirror : annotationMirrors) {
+      putString(hasher, annotationMirror);
+    }
+  }
+
+  private static void putString(Hasher hasher, Object value) {
+    // Prefix each string with its length so that adjacent strings can't run together.
+    String string = String.valueOf(value);
+    hasher.putInt(string.length()).putString(string, UTF_8);
+  }
+
+  private static Optional<HashCode> read(Path file) {
+    try {
+      DataInputStream input =
+          new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(file)));
+      if (input.readInt() != MAGIC || input.readInt() != FORMAT_VERSION) {
+        return Optional.empty();
+      }
+      byte[] fingerprint = new byte[input.readUnsignedByte()];
+      input.readFully(fingerprint);
+      return Optional.of(HashCode.fromBytes(fingerprint));
+    } catch (IOException | IllegalArgumentException e) {
+      // A missing, corrupt or unreadable file is a miss, and is replaced if the graph validates
+      // without messages.
+      return Optional.empty();
+    }
+  }
+
+  private static void write(Path file, HashCode fingerprint) {
+    try {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      DataOutputStream output = new DataOutputStream(bytes);
+      output.writeInt(MAGIC);
+      output.writeInt(FORMAT_VERSION);
+      byte[] fingerprintBytes = fingerprint.asBytes();
+      output.writeByte(fingerprintBytes.length);
+      output.write(fingerprintBytes);
+      output.flush();
+
+      Files.createDirectories(file.getParent());
+      // Write to a temporary file first, so that a concurrent build never reads a partial file.
+      Path temporary =
+          Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+      try {
+        Files.write(temporary, bytes.toByteArray());
+        Files.move(temporary, file, ATOMIC_MOVE, REPLACE_EXISTING);
+      } finally {
+        Files.deleteIfExists(temporary);
+      }
+    } catch (IOException | RuntimeException e) {
+      // The cache is only an optimization, so failing to update it isn't an error.
+    }
+  }
+
+  /**
+   * Returns a fingerprint of the processor's own code, so that graphs validated by a different
+   * version of Dagger aren't trusted, or empty if it can't be determined. This is the location and
+   * modification time of the jar or directory that the processor was loaded from.
+   */
+  private static Optional<String> processorFingerprint() {
+    try {
+      CodeSource codeSource = BindingGraphCache.class.getProtectionDomain().getCodeSource();
+      if (codeSource == null || codeSource.getLocation() == null) {
+        return Optional.empty();
+      }
+      Path location = Paths.get(codeSource.getLocation().toURI());
+      return Optional.of(location + "@" + Files.getLastModifiedTime(location).toMillis());
+    } catch (IOException | URISyntaxException | RuntimeException e) {
+      return Optional.empty();
+    }
+  }
+}
@@ -19,12 +19,14 @@ package dagger.internal.codegen;
 import static com.google.auto.common.AnnotationMirrors.getAnnotationValue;
 import static dagger.internal.codegen.DaggerElements.getAnnotationMirror;
 import static dagger.internal.codegen.ErrorMessages.CAN_RELEASE_REFERENCES_ANNOTATIONS_MUST_NOT_HAVE_SOURCE_RETENTION;
+import static dagger.internal.codegen.ErrorMessages.CAN_RELEASE_REFERENCES_RETAINED_STRONG_REFERENCES_MUST_NOT_BE_NEGATIVE;
 import static java.lang.annotation.RetentionPolicy.SOURCE;
 
 import dagger.releasablereferences.CanReleaseReferences;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.VariableElement;
 import javax.lang.model.util.SimpleAnnotationValueVisitor7;
@@ -32,16 +34,33 @@ import javax.lang.model.util.SimpleAnnotationValueVisitor7;
 /**
  * Validates that {@link CanReleaseReferences} are applied only to valid annotations.
  *
- * <p>They must not annotate annotations that have {@link RetentionPolicy#SOURCE}-level retention.
+ * <p>They must not annotate annotations that have {@link RetentionPolicy#SOURCE}-level retention,
+ * and their {@link CanReleaseReferences#retainedStrongReferences()} must not be negative.
  */
 final class CanReleaseReferencesValidator {
 
   ValidationReport<TypeElement> validate(TypeElement annotatedElement) {
     ValidationReport.Builder<TypeElement> report = ValidationReport.about(annotatedElement);
     checkNoSourceRetention(annotatedElement, report);
+    checkRetainedStrongReferences(annotatedElement, report);
     return report.build();
   }
 
+  private void checkRetainedStrongReferences(
+      TypeElement annotatedElement, ValidationReport.Builder<TypeElement> report) {
+    AnnotationMirror canReleaseReferences =
+        getAnnotationMirror(annotatedElement, CanReleaseReferences.class).get();
+    AnnotationValue retainedStrongReferences =
+        getAnnotationValue(canReleaseReferences, "retainedStrongReferences");
+    if ((Integer) retainedStrongReferences.getValue() < 0) {
+      report.addError(
+          CAN_RELEASE_REFERENCES_RETAINED_STRONG_REFERENCES_MUST_NOT_BE_NEGATIVE,
+          report.getSubject(),
+          canReleaseReferences,
+          retainedStrongReferences);
+    }
+  }
+
   private void checkNoSourceRetention(
       TypeElement annotatedElement, ValidationReport.Builder<TypeElement> report) {
     getAnnotationMirror(annotatedElement, Retention.class)
@@ -20,8 +20,11 @@ import com.google.auto.value.AutoValue;
 import com.google.common.base.Ascii;
 import com.google.common.collect.ImmutableSet;
 import dagger.producers.Produces;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.EnumSet;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.lang.model.util.Elements;
@@ -62,8 +65,83 @@ abstract class CompilerOptions {
   abstract boolean warnIfInjectionFactoryNotGeneratedUpstream();
   abstract boolean headerCompilation();
 
+  /**
+   * Returns true if scoped providers held in component fields should publish their instances with a
+   * compare-and-set instead of taking a lock, using {@link dagger.internal.LockFreeDoubleCheck}.
+   *
+   * <p>Threads that race to initialize such a binding may each invoke its factory, but all of them
+   * will receive the same instance.
+   */
+  abstract boolean lockFreeScoping();
+
+  /**
+   * Returns true if {@link javax.inject.Singleton @Singleton} bindings in a {@link
+   * dagger.Component @Component} that need nothing from the component instance to be created should
+   * be memoized in a static field of a nested holder class instead of in a scoped provider.
+   * Production components and subcomponents always use scoped providers.
+   *
+   * <p>The holder's instance is shared by every instance of the generated component, so this should
+   * only be enabled when each component is created at most once per class loader, as is typical for
+   * application-wide components.
+   *
+   * <p>The instance is created in the holder's static initializer, so a failure to create it is
+   * permanent. If the {@code @Inject} constructor or {@code @Provides} method throws, that request
+   * throws an {@link ExceptionInInitializerError}, and every later request throws a {@link
+   * NoClassDefFoundError} for the life of the class loader. A scoped provider would instead try to
+   * create the instance again. This should only be enabled when creating these bindings can't fail.
+   */
+  abstract boolean staticHolderScoping();
+
+  /**
+   * Returns true if multibound {@code Map<K, V>}s should call each value's provider only when that
+   * value is first looked up or iterated over, instead of calling every provider when the map is
+   * requested.
+   */
+  abstract boolean lazyMapValues();
+
+  /**
+   * Returns true if requests for multibound {@code Map<K, Provider<V>>}s keyed by {@link Class},
+   * {@link String} or an enum should share one map per component, whose keys are laid out in a
+   * dispatch table built when the component is created, instead of building a new map for each
+   * request.
+   */
+  abstract boolean dispatchTableMaps();
+
+  /**
+   * Returns true if the processor should time its processing steps and the phases of processing
+   * each component, and write them to a report. See {@link ProcessingProfiler}.
+   */
+  abstract boolean profiling();
+
+  /**
+   * Returns how the processor supports incremental annotation processing. See {@link
+   * IncrementalProcessingMode}.
+   */
+  abstract IncrementalProcessingMode incrementalProcessingMode();
+
+  /**
+   * Returns the directory in which to cache the fingerprints of binding graphs that were validated
+   * in earlier compilations, if set. See {@link BindingGraphCache}.
+   */
+  abstract Optional<Path> bindingGraphCacheDirectory();
+
+  /**
+   * Returns true if generated components should be formatted on other threads while the processor
+   * goes on to resolve and validate the next component. See {@link ConcurrentSourceFileWriter}.
+   */
+  abstract boolean concurrentSourceFormatting();
+
   static Builder builder() {
-    return new AutoValue_CompilerOptions.Builder().headerCompilation(false);
+    return new AutoValue_CompilerOptions.Builder()
+        .headerCompilation(false)
+        .lockFreeScoping(false)
+        .staticHolderScoping(false)
+        .lazyMapValues(false)
+        .dispatchTableMaps(false)
+        .profiling(false)
+        .incrementalProcessingMode(IncrementalProcessingMode.DISABLED)
+        .bindingGraphCacheDirectory(Optional.empty())
+        .concurrentSourceFormatting(false);
   }
 
   static CompilerOptions create(ProcessingEnvironment processingEnv, Elements elements) {
@@ -85,6 +163,17 @@ abstract class CompilerOptions {
         .scopeCycleValidationType(scopeValidationType(processingEnv))
         .warnIfInjectionFactoryNotGeneratedUpstream(
             warnIfInjectionFactoryNotGeneratedUpstream(processingEnv).equals(FeatureStatus.ENABLED))
+        .lockFreeScoping(lockFreeScoping(processingEnv).equals(FeatureStatus.ENABLED))
+        .staticHolderScoping(staticHolderScoping(processingEnv).equals(FeatureStatus.ENABLED))
+        .lazyMapValues(lazyMapValues(processingEnv).equals(FeatureStatus.ENABLED))
+        .dispatchTableMaps(dispatchTableMaps(processingEnv).equals(FeatureStatus.ENABLED))
+        .profiling(profiling(processingEnv).equals(FeatureStatus.ENABLED))
+        .incrementalProcessingMode(incrementalProcessingMode(processingEnv))
+        .bindingGraphCacheDirectory(
+            Optional.ofNullable(processingEnv.getOptions().get(BINDING_GRAPH_CACHE_DIRECTORY_KEY))
+                .map(Paths::get))
+        .concurrentSourceFormatting(
+            concurrentSourceFormatting(processingEnv).equals(FeatureStatus.ENABLED))
         .build();
   }
 
@@ -102,6 +191,14 @@ abstract class CompilerOptions {
     Builder scopeCycleValidationType(ValidationType type);
     Builder warnIfInjectionFactoryNotGeneratedUpstream(
         boolean warnIfInjectionFactoryNotGeneratedUpstream);
+    Builder lockFreeScoping(boolean lockFreeScoping);
+    Builder staticHolderScoping(boolean staticHolderScoping);
+    Builder lazyMapValues(boolean lazyMapValues);
+    Builder dispatchTableMaps(boolean dispatchTableMaps);
+    Builder profiling(boolean profiling);
+    Builder incrementalProcessingMode(IncrementalProcessingMode incrementalProcessingMode);
+    Builder bindingGraphCacheDirectory(Optional<Path> bindingGraphCacheDirectory);
+    Builder concurrentSourceFormatting(boolean concurrentSourceFormatting);
     CompilerOptions build();
   }
 
@@ -123,6 +220,22 @@ abstract class CompilerOptions {
   static final String WARN_IF_INJECTION_FACTORY_NOT_GENERATED_UPSTREAM_KEY =
       "dagger.warnIfInjectionFactoryNotGeneratedUpstream";
 
+  static final String LOCK_FREE_SCOPING_KEY = "dagger.lockFreeScoping";
+
+  static final String STATIC_HOLDER_SCOPING_KEY = "dagger.staticHolderScoping";
+
+  static final String LAZY_MAP_VALUES_KEY = "dagger.lazyMapValues";
+
+  static final String DISPATCH_TABLE_MAPS_KEY = "dagger.dispatchTableMaps";
+
+  static final String PROFILING_KEY = "dagger.profiling";
+
+  static final String INCREMENTAL_PROCESSING_KEY = "dagger.incrementalProcessing";
+
+  static final String BINDING_GRAPH_CACHE_DIRECTORY_KEY = "dagger.bindingGraphCacheDirectory";
+
+  static final String CONCURRENT_SOURCE_FORMATTING_KEY = "dagger.concurrentSourceFormatting";
+
   /**
    * If true, Dagger will generate factories and components even if some members-injected types
    * have private or static {@code @Inject}-annotated members.
@@ -143,7 +256,15 @@ abstract class CompilerOptions {
           PRIVATE_MEMBER_VALIDATION_TYPE_KEY,
           STATIC_MEMBER_VALIDATION_TYPE_KEY,
           WARN_IF_INJECTION_FACTORY_NOT_GENERATED_UPSTREAM_KEY,
-          IGNORE_PRIVATE_AND_STATIC_INJECTION_FOR_COMPONENT);
+          IGNORE_PRIVATE_AND_STATIC_INJECTION_FOR_COMPONENT,
+          LOCK_FREE_SCOPING_KEY,
+          STATIC_HOLDER_SCOPING_KEY,
+          LAZY_MAP_VALUES_KEY,
+          DISPATCH_TABLE_MAPS_KEY,
+          PROFILING_KEY,
+          INCREMENTAL_PROCESSING_KEY,
+          BINDING_GRAPH_CACHE_DIRECTORY_KEY,
+          CONCURRENT_SOURCE_FORMATTING_KEY);
 
   private static FeatureStatus experimentalAndroidMode(ProcessingEnvironment processingEnv) {
     return valueOf(
@@ -211,6 +332,60 @@ abstract class CompilerOptions {
         EnumSet.allOf(FeatureStatus.class));
   }
 
+  private static FeatureStatus lockFreeScoping(ProcessingEnvironment processingEnv) {
+    return valueOf(
+        processingEnv,
+        LOCK_FREE_SCOPING_KEY,
+        FeatureStatus.DISABLED,
+        EnumSet.allOf(FeatureStatus.class));
+  }
+
+  private static FeatureStatus staticHolderScoping(ProcessingEnvironment processingEnv) {
+    return valueOf(
+        processingEnv,
+        STATIC_HOLDER_SCOPING_KEY,
+        FeatureStatus.DISABLED,
+        EnumSet.allOf(FeatureStatus.class));
+  }
+
+  private static FeatureStatus lazyMapValues(ProcessingEnvironment processingEnv) {
+    return valueOf(
+        processingEnv,
+        LAZY_MAP_VALUES_KEY,
+        FeatureStatus.DISABLED,
+        EnumSet.allOf(FeatureStatus.class));
+  }
+
+  private static FeatureStatus dispatchTableMaps(ProcessingEnvironment processingEnv) {
+    return valueOf(
+        processingEnv,
+        DISPATCH_TABLE_MAPS_KEY,
+        FeatureStatus.DISABLED,
+        EnumSet.allOf(FeatureStatus.class));
+  }
+
+  private static FeatureStatus profiling(ProcessingEnvironment processingEnv) {
+    return valueOf(
+        processingEnv, PROFILING_KEY, FeatureStatus.DISABLED, EnumSet.allOf(FeatureStatus.class));
+  }
+
+  private static FeatureStatus concurrentSourceFormatting(ProcessingEnvironment processingEnv) {
+    return valueOf(
+        processingEnv,
+        CONCURRENT_SOURCE_FORMATTING_KEY,
+        FeatureStatus.DISABLED,
+        EnumSet.allOf(FeatureStatus.class));
+  }
+
+  private static IncrementalProcessingMode incrementalProcessingMode(
+      ProcessingEnvironment processingEnv) {
+    return valueOf(
+        processingEnv,
+        INCREMENTAL_PROCESSING_KEY,
+        IncrementalProcessingMode.DISABLED,
+        EnumSet.allOf(IncrementalProcessingMode.class));
+  }
+
   private static <T extends Enum<T>> T valueOf(
       ProcessingEnvironment processingEnv, String key, T defaultValue, Set<T> validValues) {
     Map<String, String> options = processingEnv.getOptions();
@@ -23,6 +23,8 @@ import static dagger.internal.codegen.ContributionBinding.Kind.INJECTION;
 import static dagger.internal.codegen.ContributionBinding.Kind.PROVISION;
 import static dagger.internal.codegen.ContributionBinding.Kind.SYNTHETIC_MULTIBOUND_MAP;
 import static dagger.internal.codegen.ContributionBinding.Kind.SYNTHETIC_MULTIBOUND_SET;
+import static dagger.internal.codegen.Scope.singletonScope;
+import static dagger.internal.codegen.SourceFiles.primitiveKeyMapFactoryClassName;
 
 import com.google.common.collect.ImmutableSet;
 import com.squareup.javapoet.ClassName;
@@ -32,6 +34,7 @@ import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import javax.inject.Provider;
 import javax.lang.model.type.TypeMirror;
 import javax.lang.model.util.Elements;
 
@@ -306,6 +309,23 @@ final class ComponentBindingExpressions {
               providerBindingExpression,
               producerBindingExpression);
 
+      if (NoOpMonitorBindingExpression.isNoOpMonitor(
+          resolvedBindings.contributionBinding(), graph)) {
+        return new NoOpMonitorBindingExpression(bindingExpression, types);
+      }
+
+      if (useStaticHolder(resolvedBindings.contributionBinding())) {
+        return new StaticHolderBindingExpression(
+            resolvedBindings.contributionBinding(),
+            generatedComponentModel,
+            newSimpleMethodBindingExpression(bindingExpression),
+            types);
+      }
+
+      if (useFrameworkInstanceForInstanceRequests(resolvedBindings.contributionBinding())) {
+        return bindingExpression;
+      }
+
       BindingExpression inlineBindingExpression =
           inlineProvisionBindingExpression(bindingExpression);
 
@@ -392,15 +412,7 @@ final class ComponentBindingExpressions {
         case INJECTION:
         case PROVISION:
           if (canUseSimpleMethod(provisionBinding)) {
-            return new SimpleMethodBindingExpression(
-                compilerOptions,
-                provisionBinding,
-                bindingExpression,
-                componentBindingExpressions,
-                membersInjectionMethods,
-                componentRequirementFields,
-                types,
-                elements);
+            return newSimpleMethodBindingExpression(bindingExpression);
           }
           // fall through
 
@@ -409,6 +421,73 @@ final class ComponentBindingExpressions {
       }
     }
 
+    private SimpleMethodBindingExpression newSimpleMethodBindingExpression(
+        BindingExpression bindingExpression) {
+      return new SimpleMethodBindingExpression(
+          compilerOptions,
+          (ProvisionBinding) bindingExpression.resolvedBindings().contributionBinding(),
+          bindingExpression,
+          componentBindingExpressions,
+          membersInjectionMethods,
+          componentRequirementFields,
+          types,
+          elements);
+    }
+
+    /**
+     * Returns true if a scoped binding can be memoized in a {@linkplain
+     * StaticHolderBindingExpression static holder class}, which requires that creating it needs
+     * nothing from the component instance: no dependencies, no members injection and no module
+     * instance. Only {@link javax.inject.Singleton @Singleton} bindings owned by a root {@link
+     * dagger.Component @Component} are eligible, since subcomponents are expected to have many
+     * instances, and production components are typically created once per request.
+     */
+    private boolean useStaticHolder(ContributionBinding binding) {
+      if (!compilerOptions.staticHolderScoping()
+          || !graph.componentDescriptor().kind().equals(ComponentDescriptor.Kind.COMPONENT)
+          || !binding.scope().isPresent()
+          || !binding.scope().get().equals(singletonScope(elements))) {
+        return false;
+      }
+      switch (binding.bindingKind()) {
+        case INJECTION:
+        case PROVISION:
+          return binding.dependencies().isEmpty()
+              && ((ProvisionBinding) binding).injectionSites().isEmpty()
+              && !binding.requiresModuleInstance()
+              && isTypeAccessibleFrom(
+                  binding.contributedType(), generatedComponentModel.name().packageName());
+        default:
+          return false;
+      }
+    }
+
+    /**
+     * Returns true if instance requests for {@code binding} should be satisfied by its framework
+     * instance rather than by an inlined expression, because the framework instance memoizes a
+     * multibound set, lazily computes the values of a multibound map, or holds a prebuilt map of
+     * providers with {@code int} or {@code long} keys or a dispatch table.
+     */
+    private boolean useFrameworkInstanceForInstanceRequests(ContributionBinding binding) {
+      switch (binding.bindingKind()) {
+        case SYNTHETIC_MULTIBOUND_SET:
+          return graph.hasOnlyMemoizedContributions(binding);
+        case SYNTHETIC_MULTIBOUND_MAP:
+          if (binding.dependencies().isEmpty()) {
+            return false;
+          }
+          MapType mapType = MapType.from(binding.key());
+          if (!mapType.valuesAreFrameworkType()) {
+            return compilerOptions.lazyMapValues();
+          }
+          return mapType.valuesAreTypeOf(Provider.class)
+              && (primitiveKeyMapFactoryClassName(binding).isPresent()
+                  || (compilerOptions.dispatchTableMaps() && mapType.isDispatchTable()));
+        default:
+          return false;
+      }
+    }
+
     private boolean usePrivateMethod(ContributionBinding binding) {
       return (!binding.scope().isPresent() || compilerOptions.experimentalAndroidMode())
           && PRIVATE_METHOD_KINDS.contains(binding.bindingKind());
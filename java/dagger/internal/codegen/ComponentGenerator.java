@@ -18,6 +18,7 @@ package dagger.internal.codegen;
 
 import static dagger.internal.codegen.SourceFiles.classFileName;
 
+import com.google.common.collect.ImmutableSet;
 import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.TypeSpec;
 import dagger.Component;
@@ -67,6 +68,11 @@ final class ComponentGenerator extends SourceFileGenerator<BindingGraph> {
     return Optional.of(input.componentType());
   }
 
+  @Override
+  ImmutableSet<TypeElement> originatingElements(BindingGraph input) {
+    return input.contributingTypes();
+  }
+
   @Override
   Optional<TypeSpec.Builder> write(ClassName componentName, BindingGraph input) {
     return Optional.of(
@@ -33,6 +33,7 @@ import dagger.producers.ProductionComponent;
 import dagger.producers.ProductionSubcomponent;
 import java.lang.annotation.Annotation;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import javax.annotation.processing.Messager;
 import javax.lang.model.element.Element;
@@ -51,10 +52,13 @@ final class ComponentProcessingStep implements ProcessingStep {
   private final BuilderValidator builderValidator;
   private final ComponentHierarchyValidator componentHierarchyValidator;
   private final BindingGraphValidator bindingGraphValidator;
+  private final BindingGraphCache bindingGraphCache;
   private final ComponentDescriptor.Factory componentDescriptorFactory;
   private final BindingGraph.Factory bindingGraphFactory;
   private final ComponentGenerator componentGenerator;
+  private final Optional<ConcurrentSourceFileWriter> concurrentSourceFileWriter;
   private final ImmutableList<BindingGraphPlugin> bindingGraphPlugins;
+  private final ProcessingProfiler profiler;
 
   ComponentProcessingStep(
       Messager messager,
@@ -63,20 +67,26 @@ final class ComponentProcessingStep implements ProcessingStep {
       BuilderValidator builderValidator,
       ComponentHierarchyValidator componentHierarchyValidator,
       BindingGraphValidator bindingGraphValidator,
+      BindingGraphCache bindingGraphCache,
       ComponentDescriptor.Factory componentDescriptorFactory,
       BindingGraph.Factory bindingGraphFactory,
       ComponentGenerator componentGenerator,
-      Iterable<BindingGraphPlugin> bindingGraphPlugins) {
+      Optional<ConcurrentSourceFileWriter> concurrentSourceFileWriter,
+      Iterable<BindingGraphPlugin> bindingGraphPlugins,
+      ProcessingProfiler profiler) {
     this.messager = messager;
     this.componentValidator = componentValidator;
     this.subcomponentValidator = subcomponentValidator;
     this.builderValidator = builderValidator;
     this.componentHierarchyValidator = componentHierarchyValidator;
     this.bindingGraphValidator = bindingGraphValidator;
+    this.bindingGraphCache = bindingGraphCache;
     this.componentDescriptorFactory = componentDescriptorFactory;
     this.bindingGraphFactory = bindingGraphFactory;
     this.componentGenerator = componentGenerator;
+    this.concurrentSourceFileWriter = concurrentSourceFileWriter;
     this.bindingGraphPlugins = ImmutableList.copyOf(bindingGraphPlugins);
+    this.profiler = profiler;
   }
 
   @Override
@@ -121,8 +131,12 @@ final class ComponentProcessingStep implements ProcessingStep {
     for (TypeElement componentTypeElement : typesIn(componentElements)) {
       try {
         ComponentValidationReport validationReport =
-            componentValidator.validate(
-                componentTypeElement, subcomponentElements, subcomponentBuilderElements);
+            profiler.time(
+                "ComponentValidator",
+                componentTypeElement,
+                () ->
+                    componentValidator.validate(
+                        componentTypeElement, subcomponentElements, subcomponentBuilderElements));
         validationReport.report().printMessagesTo(messager);
         if (isClean(
             validationReport,
@@ -130,21 +144,42 @@ final class ComponentProcessingStep implements ProcessingStep {
             reportsBySubcomponent,
             builderReportsBySubcomponent)) {
           ComponentDescriptor componentDescriptor =
-              componentDescriptorFactory.forComponent(componentTypeElement);
+              profiler.time(
+                  "ComponentDescriptor.Factory",
+                  componentTypeElement,
+                  () -> componentDescriptorFactory.forComponent(componentTypeElement));
           ValidationReport<TypeElement> hierarchyReport =
-              componentHierarchyValidator.validate(componentDescriptor);
+              profiler.time(
+                  "ComponentHierarchyValidator",
+                  componentTypeElement,
+                  () -> componentHierarchyValidator.validate(componentDescriptor));
           hierarchyReport.printMessagesTo(messager);
           if (hierarchyReport.isClean()) {
-            BindingGraph bindingGraph = bindingGraphFactory.create(componentDescriptor);
+            BindingGraph bindingGraph =
+                profiler.time(
+                    "BindingGraph.Factory",
+                    componentTypeElement,
+                    () -> bindingGraphFactory.create(componentDescriptor));
+            countResolvedKeys(bindingGraph);
             ValidationReport<TypeElement> graphReport =
-                bindingGraphValidator.validate(bindingGraph);
+                profiler.time(
+                    "BindingGraphValidator",
+                    componentTypeElement,
+                    () ->
+                        bindingGraphCache.validate(bindingGraph, bindingGraphValidator::validate));
             graphReport.printMessagesTo(messager);
             if (graphReport.isClean()) {
               if (!bindingGraphPlugins.isEmpty()) {
-                BindingNetwork bindingNetwork = BindingNetwork.create(bindingGraph);
-                bindingGraphPlugins.forEach(plugin -> plugin.visitGraph(bindingNetwork));
+                try (ProcessingProfiler.Phase phase =
+                    profiler.start("BindingGraphPlugins", componentTypeElement)) {
+                  BindingNetwork bindingNetwork = BindingNetwork.create(bindingGraph);
+                  bindingGraphPlugins.forEach(plugin -> plugin.visitGraph(bindingNetwork));
+                }
+              }
+              try (ProcessingProfiler.Phase phase =
+                  profiler.start("ComponentGenerator", componentTypeElement)) {
+                generateComponent(bindingGraph);
               }
-              generateComponent(bindingGraph);
             }
           }
         }
@@ -152,11 +187,29 @@ final class ComponentProcessingStep implements ProcessingStep {
         rejectedElements.add(componentTypeElement);
       }
     }
+    if (concurrentSourceFileWriter.isPresent()) {
+      try (ProcessingProfiler.Phase phase = profiler.start("ConcurrentSourceFileWriter")) {
+        concurrentSourceFileWriter.get().flush();
+      }
+    }
     return rejectedElements.build();
   }
 
   private void generateComponent(BindingGraph bindingGraph) {
-    componentGenerator.generate(bindingGraph, messager);
+    if (concurrentSourceFileWriter.isPresent()) {
+      // The component is formatted while the next one is resolved and validated, and written when
+      // the next one is generated, or at the end of the step.
+      concurrentSourceFileWriter.get().submit(componentGenerator, bindingGraph);
+    } else {
+      componentGenerator.generate(bindingGraph, messager);
+    }
+  }
+
+  /** Counts the keys that were resolved for {@code bindingGraph} and its subgraphs. */
+  private void countResolvedKeys(BindingGraph bindingGraph) {
+    profiler.count("components", 1);
+    profiler.count("keysResolved", bindingGraph.resolvedBindings().size());
+    bindingGraph.subgraphs().forEach(this::countResolvedKeys);
   }
 
   static ImmutableSet<Element> getElementsFromAnnotations(
@@ -16,6 +16,7 @@
 
 package dagger.internal.codegen;
 
+import static dagger.internal.codegen.DaggerStreams.toImmutableList;
 import static dagger.internal.codegen.ModuleProcessingStep.moduleProcessingStep;
 import static dagger.internal.codegen.ModuleProcessingStep.producerModuleProcessingStep;
 
@@ -25,6 +26,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
 import com.google.googlejavaformat.java.filer.FormattingFiler;
+import java.util.Optional;
 import java.util.ServiceLoader;
 import java.util.Set;
 import javax.annotation.processing.Filer;
@@ -48,6 +50,8 @@ public final class ComponentProcessor extends BasicAnnotationProcessor {
   private FactoryGenerator factoryGenerator;
   private MembersInjectorGenerator membersInjectorGenerator;
   private ImmutableList<BindingGraphPlugin> bindingGraphPlugins;
+  private ProcessingProfiler profiler;
+  private IncrementalProcessingMode incrementalProcessingMode;
 
   @Override
   public SourceVersion getSupportedSourceVersion() {
@@ -61,6 +65,7 @@ public final class ComponentProcessor extends BasicAnnotationProcessor {
     for (BindingGraphPlugin plugin : bindingGraphPlugins) {
       options.addAll(plugin.getSupportedOptions());
     }
+    incrementalProcessingMode.gradleOption().ifPresent(options::add);
     return options.build();
   }
 
@@ -70,6 +75,8 @@ public final class ComponentProcessor extends BasicAnnotationProcessor {
     DaggerTypes types = new DaggerTypes(processingEnv);
     DaggerElements elements = new DaggerElements(processingEnv);
     CompilerOptions compilerOptions = CompilerOptions.create(processingEnv, elements);
+    this.profiler = new ProcessingProfiler(compilerOptions);
+    this.incrementalProcessingMode = compilerOptions.incrementalProcessingMode();
 
     Filer filer;
     if (compilerOptions.headerCompilation()) {
@@ -118,7 +125,8 @@ public final class ComponentProcessor extends BasicAnnotationProcessor {
             types,
             elements,
             anyBindingMethodValidator,
-            methodSignatureFormatter);
+            methodSignatureFormatter,
+            profiler);
     BuilderValidator builderValidator = new BuilderValidator(elements, types);
     ComponentValidator subcomponentValidator =
         ComponentValidator.createForSubcomponent(
@@ -221,10 +229,17 @@ public final class ComponentProcessor extends BasicAnnotationProcessor {
                 builderValidator,
                 componentHierarchyValidator,
                 bindingGraphValidator,
+                new BindingGraphCache(compilerOptions, profiler),
                 componentDescriptorFactory,
                 bindingGraphFactory,
                 componentGenerator,
-                bindingGraphPlugins);
+                compilerOptions.concurrentSourceFormatting()
+                    ? Optional.of(
+                        new ConcurrentSourceFileWriter(
+                            processingEnv.getFiler(), messager, profiler))
+                    : Optional.empty(),
+                bindingGraphPlugins,
+                profiler);
     return ImmutableList.of(
         new MapKeyProcessingStep(
             messager, types, mapKeyValidator, annotationCreatorGenerator, unwrappedMapKeyGenerator),
@@ -245,18 +260,23 @@ public final class ComponentProcessor extends BasicAnnotationProcessor {
             productionBindingFactory,
             producerFactoryGenerator),
         componentProcessingStep,
-        new BindingMethodProcessingStep(messager, anyBindingMethodValidator));
+        new BindingMethodProcessingStep(messager, anyBindingMethodValidator))
+        .stream()
+        .map(profiler::timed)
+        .collect(toImmutableList());
   }
 
   @Override
   protected void postRound(RoundEnvironment roundEnv) {
     if (!roundEnv.processingOver()) {
-      try {
+      try (ProcessingProfiler.Phase phase = profiler.start("InjectBindingRegistry")) {
         injectBindingRegistry.generateSourcesForRequiredBindings(
             factoryGenerator, membersInjectorGenerator);
       } catch (SourceFileGenerationException e) {
         e.printMessageTo(processingEnv.getMessager());
       }
+    } else {
+      profiler.writeReport(processingEnv.getFiler(), processingEnv.getMessager());
     }
   }
 }
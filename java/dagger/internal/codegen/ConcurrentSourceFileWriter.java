@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen;
+
+import static javax.tools.Diagnostic.Kind.NOTE;
+
+import com.google.googlejavaformat.java.Formatter;
+import com.google.googlejavaformat.java.FormatterException;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.JavaFile;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.lang.model.element.Element;
+
+/**
+ * Writes generated source files through a {@link Filer}, formatting each one on the common {@link
+ * ForkJoinPool} while the processor goes on to process the next element, when enabled with {@code
+ * -Adagger.concurrentSourceFormatting=enabled}.
+ *
+ * <p>Only formatting, which works on the source text alone, is done on other threads: the
+ * compiler's elements and types aren't thread-safe, so files are generated from them, and written
+ * to the {@link Filer}, on the processing thread. Each file is written, and any errors reported,
+ * when the next file is {@linkplain #submit submitted} or {@link #flush()} is called, so files are
+ * written in the order they were submitted, at most one file behind. The output is the same as when
+ * formatting with a {@link com.google.googlejavaformat.java.filer.FormattingFiler}.
+ */
+final class ConcurrentSourceFileWriter {
+  private final Filer filer;
+  private final Messager messager;
+  private final ProcessingProfiler profiler;
+  private Optional<PendingFile> pendingFile = Optional.empty();
+
+  /** Creates a writer for {@code filer}, which shouldn't format the files itself. */
+  ConcurrentSourceFileWriter(Filer filer, Messager messager, ProcessingProfiler profiler) {
+    this.filer = filer;
+    this.messager = messager;
+    this.profiler = profiler;
+  }
+
+  /**
+   * Generates the source file for {@code input} with {@code generator}, writes the previously
+   * submitted file, and starts formatting the new one. Writes any generation exception to the
+   * messager and does not throw.
+   */
+  <T> void submit(SourceFileGenerator<T> generator, T input) {
+    Optional<JavaFile> javaFile;
+    try {
+      javaFile = generator.javaFile(input);
+    } catch (SourceFileGenerationException e) {
+      e.printMessageTo(messager);
+      return;
+    }
+    if (javaFile.isPresent()) {
+      // The previous file was formatted while this one's input was processed.
+      flush();
+      // Render the file here, since code blocks may refer to elements or types by their toString().
+      String source = javaFile.get().toString();
+      pendingFile =
+          Optional.of(
+              new PendingFile(
+                  javaFile.get(),
+                  source,
+                  generator.getElementForErrorReporting(input),
+                  CompletableFuture.supplyAsync(() -> format(source))));
+    }
+  }
+
+  private Optional<String> format(String source) {
+    try (ProcessingProfiler.Phase phase = profiler.start("SourceFormatting")) {
+      return Optional.of(new Formatter().formatSource(source));
+    } catch (FormatterException e) {
+      return Optional.empty();
+    }
+  }
+
+  /** Writes the last submitted file, if it hasn't been written yet. */
+  void flush() {
+    if (pendingFile.isPresent()) {
+      PendingFile file = pendingFile.get();
+      pendingFile = Optional.empty();
+      file.write();
+    }
+  }
+
+  private final class PendingFile {
+    final JavaFile javaFile;
+    final String source;
+    final Optional<? extends Element> elementForErrorReporting;
+    final CompletableFuture<Optional<String>> formattedSource;
+
+    PendingFile(
+        JavaFile javaFile,
+        String source,
+        Optional<? extends Element> elementForErrorReporting,
+        CompletableFuture<Optional<String>> formattedSource) {
+      this.javaFile = javaFile;
+      this.source = source;
+      this.elementForErrorReporting = elementForErrorReporting;
+      this.formattedSource = formattedSource;
+    }
+
+    void write() {
+      ClassName className = ClassName.get(javaFile.packageName, javaFile.typeSpec.name);
+      Optional<String> formatted = formattedSource.join();
+      if (!formatted.isPresent()) {
+        // The file is still written unformatted, so that any problem in it is reported by javac.
+        messager.printMessage(NOTE, "Error formatting " + className);
+      }
+      Element[] originatingElements =
+          javaFile.typeSpec.originatingElements.toArray(new Element[0]);
+      try (Writer writer =
+          filer.createSourceFile(className.toString(), originatingElements).openWriter()) {
+        writer.write(formatted.orElse(source));
+      } catch (IOException e) {
+        new SourceFileGenerationException(Optional.of(className), e, elementForErrorReporting)
+            .printMessageTo(messager);
+      }
+    }
+  }
+}
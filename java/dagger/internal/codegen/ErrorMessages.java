@@ -350,6 +350,9 @@ final class ErrorMessages {
   static final String CAN_RELEASE_REFERENCES_ANNOTATIONS_MUST_NOT_HAVE_SOURCE_RETENTION =
       "@CanReleaseReferences annotations must not have SOURCE retention";
 
+  static final String CAN_RELEASE_REFERENCES_RETAINED_STRONG_REFERENCES_MUST_NOT_BE_NEGATIVE =
+      "@CanReleaseReferences.retainedStrongReferences() must not be negative";
+
   static String forReleasableReferencesValueNotAScope(TypeElement scopeType) {
     return forReleasableReferencesValueNeedsAnnotation(
         scopeType,
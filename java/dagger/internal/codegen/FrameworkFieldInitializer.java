@@ -37,10 +37,14 @@ import static dagger.internal.codegen.MoreAnnotationMirrors.getTypeValue;
 import static dagger.internal.codegen.SourceFiles.generatedClassNameForBinding;
 import static dagger.internal.codegen.SourceFiles.mapFactoryClassName;
 import static dagger.internal.codegen.SourceFiles.membersInjectorNameForType;
+import static dagger.internal.codegen.SourceFiles.primitiveKeyMapFactoryClassName;
 import static dagger.internal.codegen.SourceFiles.setFactoryClassName;
 import static dagger.internal.codegen.SourceFiles.simpleVariableName;
 import static dagger.internal.codegen.TypeNames.DOUBLE_CHECK;
 import static dagger.internal.codegen.TypeNames.INSTANCE_FACTORY;
+import static dagger.internal.codegen.TypeNames.LOCK_FREE_DOUBLE_CHECK;
+import static dagger.internal.codegen.TypeNames.MAP_FACTORY;
+import static dagger.internal.codegen.TypeNames.MAP_PROVIDER_FACTORY;
 import static dagger.internal.codegen.TypeNames.REFERENCE_RELEASING_PROVIDER;
 import static dagger.internal.codegen.TypeNames.SINGLE_CHECK;
 import static dagger.internal.codegen.TypeNames.TYPED_RELEASABLE_REFERENCE_MANAGER_DECORATOR;
@@ -464,9 +468,13 @@ final class FrameworkFieldInitializer {
           REFERENCE_RELEASING_PROVIDER,
           factoryCreate,
           referenceReleasingManagerFields.getExpression(scope, generatedComponentModel.name()));
+    } else if (scope.isReusable()) {
+      return CodeBlock.of("$T.provider($L)", SINGLE_CHECK, factoryCreate);
     } else {
       return CodeBlock.of(
-          "$T.provider($L)", scope.isReusable() ? SINGLE_CHECK : DOUBLE_CHECK, factoryCreate);
+          "$T.provider($L)",
+          compilerOptions.lockFreeScoping() ? LOCK_FREE_DOUBLE_CHECK : DOUBLE_CHECK,
+          factoryCreate);
     }
   }
 
@@ -516,7 +524,9 @@ final class FrameworkFieldInitializer {
     }
     builder.add("builder($L, $L)", individualProviders, setProviders);
     builder.add(builderMethodCalls.build());
-    return builder.add(".build()").build();
+    return builder
+        .add(graph.hasOnlyMemoizedContributions(binding) ? ".buildMemoized()" : ".build()")
+        .build();
   }
 
   private CodeBlock factoryForMapMultibindingInitialization(ContributionBinding binding) {
@@ -524,7 +534,13 @@ final class FrameworkFieldInitializer {
 
     ImmutableList.Builder<CodeBlock> codeBlocks = ImmutableList.builder();
     MapType mapType = MapType.from(binding.key().type());
-    CodeBlock.Builder builderCall = CodeBlock.builder().add("$T.", mapFactoryClassName(binding));
+    boolean lazyValues =
+        compilerOptions.lazyMapValues() && mapFactoryClassName(binding).equals(MAP_FACTORY);
+    Optional<ClassName> primitiveKeyMapFactory =
+        lazyValues ? Optional.empty() : primitiveKeyMapFactoryClassName(binding);
+    CodeBlock.Builder builderCall =
+        CodeBlock.builder()
+            .add("$T.", primitiveKeyMapFactory.orElse(mapFactoryClassName(binding)));
     boolean useRawTypes = useRawType();
     if (!useRawTypes) {
       // TODO(ronshapiro): either inline this into mapFactoryClassName, or add a
@@ -537,7 +553,11 @@ final class FrameworkFieldInitializer {
           break;
         }
       }
-      builderCall.add("<$T, $T>", mapType.keyType(), valueType);
+      if (primitiveKeyMapFactory.isPresent()) {
+        builderCall.add("<$T>", valueType);
+      } else {
+        builderCall.add("<$T, $T>", mapType.keyType(), valueType);
+      }
     }
 
     if (binding.bindingType().equals(BindingType.PROVISION)) {
@@ -562,7 +582,18 @@ final class FrameworkFieldInitializer {
               getMapKeyExpression(contributionBinding, generatedComponentModel.name()),
               value));
     }
-    codeBlocks.add(CodeBlock.of(".build()"));
+    if (lazyValues) {
+      codeBlocks.add(CodeBlock.of(".buildLazy()"));
+    } else if (primitiveKeyMapFactory.isPresent()
+        && mapFactoryClassName(binding).equals(MAP_PROVIDER_FACTORY)) {
+      codeBlocks.add(CodeBlock.of(".buildProviderMapFactory()"));
+    } else if (compilerOptions.dispatchTableMaps()
+        && mapType.isDispatchTable()
+        && mapFactoryClassName(binding).equals(MAP_PROVIDER_FACTORY)) {
+      codeBlocks.add(CodeBlock.of(".buildDispatchTable()"));
+    } else {
+      codeBlocks.add(CodeBlock.of(".build()"));
+    }
 
     return CodeBlocks.concat(codeBlocks.build());
   }
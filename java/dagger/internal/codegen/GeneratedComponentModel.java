@@ -99,7 +99,10 @@ final class GeneratedComponentModel {
     COMPONENT_PROVISION_FACTORY,
 
     /** A class for the subcomponent or subcomponent builder. */
-    SUBCOMPONENT
+    SUBCOMPONENT,
+
+    /** A class that holds the instance of a {@link StaticHolderBindingExpression} binding. */
+    SCOPED_INSTANCE_HOLDER
   }
 
   private final ClassName name;
@@ -107,6 +110,7 @@ final class GeneratedComponentModel {
   private final TypeSpec.Builder component;
   private final UniqueNameSet componentFieldNames = new UniqueNameSet();
   private final UniqueNameSet componentMethodNames = new UniqueNameSet();
+  private final UniqueNameSet componentClassNames = new UniqueNameSet();
   private final List<CodeBlock> initializations = new ArrayList<>();
   private final ListMultimap<FieldSpecKind, FieldSpec> fieldSpecsMap =
       MultimapBuilder.enumKeys(FieldSpecKind.class).arrayListValues().build();
@@ -185,6 +189,11 @@ final class GeneratedComponentModel {
     return componentMethodNames.getUniqueName(name);
   }
 
+  /** Returns a new, unique nested class name for the component based on the given name. */
+  String getUniqueClassName(String name) {
+    return componentClassNames.getUniqueName(name);
+  }
+
   /** Claims a new method name for the component. Does nothing if method name already exists. */
   void claimMethodName(Name name) {
     componentMethodNames.claim(name);
@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen;
+
+import java.util.Optional;
+
+/**
+ * How the processor supports incremental annotation processing by build tools, as set by {@code
+ * -Adagger.incrementalProcessing}.
+ *
+ * <p>Every generated file declares the elements it was generated from as its originating elements,
+ * so that a build tool can tell which generated files are affected when a source file changes. A
+ * component declares its supertypes, its modules, its dependencies, its subcomponents and the
+ * types of all of the bindings that it uses, since its implementation depends on all of them. The
+ * processor is therefore only ever an aggregating one: a component can't be generated from its own
+ * type alone.
+ */
+enum IncrementalProcessingMode {
+  DISABLED,
+  AGGREGATING;
+
+  /**
+   * The option that the processor supports to tell Gradle that it is an incremental processor of
+   * this kind, if any.
+   */
+  Optional<String> gradleOption() {
+    switch (this) {
+      case AGGREGATING:
+        return Optional.of("org.gradle.annotation.processing.aggregating");
+      default:
+        return Optional.empty();
+    }
+  }
+}
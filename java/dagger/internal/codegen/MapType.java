@@ -23,7 +23,10 @@ import com.google.auto.common.MoreTypes;
 import com.google.auto.value.AutoValue;
 import com.google.common.base.Equivalence;
 import java.util.Map;
+import javax.inject.Provider;
+import javax.lang.model.element.ElementKind;
 import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 
 /**
@@ -71,6 +74,38 @@ abstract class MapType {
     return declaredMapType().getTypeArguments().get(1);
   }
 
+  /**
+   * {@code true} if {@link #keyType()} is a {@code clazz}.
+   *
+   * @throws IllegalStateException if {@link #isRawType()} is true.
+   */
+  boolean keysAreTypeOf(Class<?> clazz) {
+    return MoreTypes.isType(keyType()) && MoreTypes.isTypeOf(clazz, keyType());
+  }
+
+  /**
+   * {@code true} if {@link #keyType()} is an enum type.
+   *
+   * @throws IllegalStateException if {@link #isRawType()} is true.
+   */
+  boolean keysAreEnumType() {
+    return MoreTypes.isType(keyType())
+        && keyType().getKind().equals(TypeKind.DECLARED)
+        && MoreTypes.asElement(keyType()).getKind().equals(ElementKind.ENUM);
+  }
+
+  /**
+   * {@code true} if this maps {@link Class}, {@link String} or enum keys to {@link Provider}s.
+   * Such maps are typically used to dispatch on their keys, as in {@code
+   * DispatchingAndroidInjector}, so their keys can be laid out in a dispatch table.
+   *
+   * @throws IllegalStateException if {@link #isRawType()} is true.
+   */
+  boolean isDispatchTable() {
+    return valuesAreTypeOf(Provider.class)
+        && (keysAreTypeOf(Class.class) || keysAreTypeOf(String.class) || keysAreEnumType());
+  }
+
   /**
    * {@code true} if {@link #valueType()} is a {@code clazz}.
    * 
@@ -114,6 +114,7 @@ final class ModuleValidator {
   private final Elements elements;
   private final AnyBindingMethodValidator anyBindingMethodValidator;
   private final MethodSignatureFormatter methodSignatureFormatter;
+  private final ProcessingProfiler profiler;
   private final Map<TypeElement, ValidationReport<TypeElement>> cache = new HashMap<>();
   private final Set<TypeElement> knownModules = new HashSet<>();
 
@@ -121,11 +122,13 @@ final class ModuleValidator {
       Types types,
       Elements elements,
       AnyBindingMethodValidator anyBindingMethodValidator,
-      MethodSignatureFormatter methodSignatureFormatter) {
+      MethodSignatureFormatter methodSignatureFormatter,
+      ProcessingProfiler profiler) {
     this.types = types;
     this.elements = elements;
     this.anyBindingMethodValidator = anyBindingMethodValidator;
     this.methodSignatureFormatter = methodSignatureFormatter;
+    this.profiler = profiler;
   }
 
   /**
@@ -144,7 +147,12 @@ final class ModuleValidator {
 
   /** Returns a validation report for a module type. */
   ValidationReport<TypeElement> validate(TypeElement module) {
-    return reentrantComputeIfAbsent(cache, module, this::validateUncached);
+    return reentrantComputeIfAbsent(cache, module, this::profiledValidateUncached);
+  }
+
+  private ValidationReport<TypeElement> profiledValidateUncached(TypeElement module) {
+    profiler.count("modulesValidated", 1);
+    return profiler.time("ModuleValidator", module, () -> validateUncached(module));
   }
 
   private ValidationReport<TypeElement> validateUncached(TypeElement module) {
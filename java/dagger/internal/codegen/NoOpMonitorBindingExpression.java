@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen;
+
+import static dagger.internal.codegen.SourceFiles.generatedMonitoringModuleName;
+
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import dagger.producers.monitoring.ProductionComponentMonitor;
+import dagger.producers.monitoring.internal.Monitors;
+import java.util.Optional;
+import javax.inject.Provider;
+
+/**
+ * A binding expression for the {@link ProductionComponentMonitor} of a production component that
+ * has no {@linkplain ProductionComponentMonitor.Factory monitor factories}. Instead of building the
+ * empty set of factories and a monitor from it for each component instance, it uses the shared
+ * no-op monitor, which lets producers skip monitoring altogether.
+ */
+final class NoOpMonitorBindingExpression extends BindingExpression {
+  private final BindingExpression delegate;
+  private final DaggerTypes types;
+
+  NoOpMonitorBindingExpression(BindingExpression delegate, DaggerTypes types) {
+    super(delegate.resolvedBindings());
+    this.delegate = delegate;
+    this.types = types;
+  }
+
+  /**
+   * Returns true if {@code binding} is the component monitor binding from the generated monitoring
+   * module of {@code graph}'s component, and no monitor factories are bound in the graph.
+   */
+  static boolean isNoOpMonitor(ContributionBinding binding, BindingGraph graph) {
+    ClassName monitoringModule =
+        generatedMonitoringModuleName(graph.componentDescriptor().componentDefinitionType());
+    if (!binding.contributingModule().map(ClassName::get).equals(Optional.of(monitoringModule))) {
+      return false;
+    }
+    for (DependencyRequest dependency : binding.dependencies()) {
+      if (SetType.isSet(dependency.key())) {
+        ResolvedBindings factories = graph.resolvedBindings().get(dependency.bindingKey());
+        return factories != null
+            && factories.contributionBindings().size() == 1
+            && factories.contributionBinding().dependencies().isEmpty();
+      }
+    }
+    return false;
+  }
+
+  @Override
+  Expression getDependencyExpression(
+      DependencyRequest.Kind requestKind, ClassName requestingClass) {
+    switch (requestKind) {
+      case INSTANCE:
+        return Expression.create(
+            resolvedBindings().key().type(),
+            CodeBlock.of("$T.noOp()", ProductionComponentMonitor.class));
+      case PROVIDER:
+        return Expression.create(
+            types.wrapType(resolvedBindings().key().type(), Provider.class),
+            CodeBlock.of("$T.noOpProductionComponentMonitorProvider()", Monitors.class));
+      default:
+        return delegate.getDependencyExpression(requestKind, requestingClass);
+    }
+  }
+}
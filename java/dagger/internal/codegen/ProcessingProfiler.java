@@ -0,0 +1,255 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import com.google.auto.common.BasicAnnotationProcessor.ProcessingStep;
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.SetMultimap;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.annotation.Annotation;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.lang.model.element.Element;
+import javax.tools.Diagnostic;
+import javax.tools.StandardLocation;
+
+/**
+ * Times the phases of annotation processing and counts the work that they do, when enabled with
+ * {@code -Adagger.profiling=enabled}. The timings and counts are written to {@value #REPORT_NAME}
+ * in the source output directory, in the <a
+ * href="https://github.com/catapult-project/catapult/tree/master/tracing">Trace Event Format</a>,
+ * which can be loaded in {@code chrome://tracing}.
+ *
+ * <p>Each phase is a complete event, whose {@code element} argument names the component or module
+ * that it was for. The total time and number of calls of each phase, and the counters, are in the
+ * report's {@code otherData}. A phase that is nested within a call of itself, as when validating a
+ * module validates the modules that it includes, only counts towards its total once.
+ */
+final class ProcessingProfiler {
+  static final String REPORT_NAME = "dagger-processing-profile.json";
+
+  /** A phase that has started, which ends when it is closed. */
+  interface Phase extends AutoCloseable {
+    @Override
+    void close();
+  }
+
+  private static final Phase NO_OP_PHASE = () -> {};
+
+  private final boolean enabled;
+  private final Ticker ticker;
+  private final long startNanos;
+  private final List<Event> events = new ArrayList<>();
+  private final Map<String, PhaseTotal> phaseTotals = new TreeMap<>();
+  private final Map<String, Long> counters = new TreeMap<>();
+  private final ThreadLocal<Deque<String>> activePhases = ThreadLocal.withInitial(ArrayDeque::new);
+
+  ProcessingProfiler(CompilerOptions compilerOptions) {
+    this(compilerOptions.profiling(), Ticker.systemTicker());
+  }
+
+  ProcessingProfiler(boolean enabled, Ticker ticker) {
+    this.enabled = enabled;
+    this.ticker = ticker;
+    this.startNanos = ticker.read();
+  }
+
+  /** Starts a phase that isn't for any particular element. */
+  Phase start(String name) {
+    return start(name, null);
+  }
+
+  /** Starts a phase for {@code element}, which should be closed when the phase ends. */
+  Phase start(String name, Element element) {
+    if (!enabled) {
+      return NO_OP_PHASE;
+    }
+    Deque<String> active = activePhases.get();
+    boolean outermost = !active.contains(name);
+    active.push(name);
+    long phaseStartNanos = ticker.read();
+    return () -> {
+      long durationNanos = ticker.read() - phaseStartNanos;
+      active.pop();
+      synchronized (this) {
+        events.add(
+            new Event(
+                name,
+                element == null ? null : element.toString(),
+                phaseStartNanos - startNanos,
+                durationNanos,
+                Thread.currentThread().getId()));
+        if (outermost) {
+          phaseTotals.computeIfAbsent(name, unused -> new PhaseTotal()).add(durationNanos);
+        }
+      }
+    };
+  }
+
+  /** Returns the result of {@code work}, timed as a phase for {@code element}. */
+  <T> T time(String name, Element element, Supplier<T> work) {
+    try (Phase phase = start(name, element)) {
+      return work.get();
+    }
+  }
+
+  /** Adds {@code delta} to the counter named {@code name}. */
+  void count(String name, long delta) {
+    if (enabled) {
+      synchronized (this) {
+        counters.merge(name, delta, Long::sum);
+      }
+    }
+  }
+
+  /**
+   * Returns a step that times each round of {@code step} as a phase named after it, and counts the
+   * elements that it processes.
+   */
+  ProcessingStep timed(ProcessingStep step) {
+    if (!enabled) {
+      return step;
+    }
+    String name = step.getClass().getSimpleName();
+    return new ProcessingStep() {
+      @Override
+      public Set<? extends Class<? extends Annotation>> annotations() {
+        return step.annotations();
+      }
+
+      @Override
+      public Set<Element> process(
+          SetMultimap<Class<? extends Annotation>, Element> elementsByAnnotation) {
+        count(name + ".elements", ImmutableSet.copyOf(elementsByAnnotation.values()).size());
+        try (Phase phase = start(name)) {
+          return step.process(elementsByAnnotation);
+        }
+      }
+    };
+  }
+
+  /** Writes the report, if profiling is enabled. */
+  void writeReport(Filer filer, Messager messager) {
+    if (!enabled) {
+      return;
+    }
+    try (Writer writer =
+        filer.createResource(StandardLocation.SOURCE_OUTPUT, "", REPORT_NAME).openWriter()) {
+      writer.write(toJson());
+    } catch (IOException e) {
+      messager.printMessage(
+          Diagnostic.Kind.WARNING, "Could not write the Dagger processing profile: " + e);
+    }
+  }
+
+  /** Returns the report in the Trace Event Format. */
+  synchronized String toJson() {
+    StringBuilder json = new StringBuilder("{\"traceEvents\":[");
+    String separator = "";
+    for (Event event : events) {
+      json.append(separator).append("{\"name\":");
+      separator = ",";
+      appendString(json, event.name);
+      json.append(",\"cat\":\"dagger\",\"ph\":\"X\",\"ts\":")
+          .append(NANOSECONDS.toMicros(event.startNanos))
+          .append(",\"dur\":")
+          .append(NANOSECONDS.toMicros(event.durationNanos))
+          .append(",\"pid\":1,\"tid\":")
+          .append(event.threadId);
+      if (event.element != null) {
+        json.append(",\"args\":{\"element\":");
+        appendString(json, event.element);
+        json.append('}');
+      }
+      json.append('}');
+    }
+    json.append("],\"displayTimeUnit\":\"ms\",\"otherData\":{\"phases\":{");
+    separator = "";
+    for (Map.Entry<String, PhaseTotal> phase : phaseTotals.entrySet()) {
+      json.append(separator);
+      separator = ",";
+      appendString(json, phase.getKey());
+      json.append(":{\"count\":")
+          .append(phase.getValue().count)
+          .append(",\"totalMicros\":")
+          .append(NANOSECONDS.toMicros(phase.getValue().totalNanos))
+          .append('}');
+    }
+    json.append("},\"counters\":{");
+    separator = "";
+    for (Map.Entry<String, Long> counter : counters.entrySet()) {
+      json.append(separator);
+      separator = ",";
+      appendString(json, counter.getKey());
+      json.append(':').append(counter.getValue());
+    }
+    return json.append("}}}").toString();
+  }
+
+  private static void appendString(StringBuilder json, String value) {
+    json.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '"' || c == '\\') {
+        json.append('\\').append(c);
+      } else if (c < 0x20) {
+        json.append(String.format("\\u%04x", (int) c));
+      } else {
+        json.append(c);
+      }
+    }
+    json.append('"');
+  }
+
+  private static final class Event {
+    final String name;
+    final String element;
+    final long startNanos;
+    final long durationNanos;
+    final long threadId;
+
+    Event(String name, String element, long startNanos, long durationNanos, long threadId) {
+      this.name = name;
+      this.element = element;
+      this.startNanos = startNanos;
+      this.durationNanos = durationNanos;
+      this.threadId = threadId;
+    }
+  }
+
+  private static final class PhaseTotal {
+    long count;
+    long totalNanos;
+
+    void add(long durationNanos) {
+      count++;
+      totalNanos += durationNanos;
+    }
+  }
+}
@@ -44,6 +44,7 @@ import static javax.lang.model.element.Modifier.FINAL;
 import static javax.lang.model.element.Modifier.PRIVATE;
 import static javax.lang.model.element.Modifier.PROTECTED;
 import static javax.lang.model.element.Modifier.PUBLIC;
+import static javax.lang.model.element.Modifier.STATIC;
 
 import com.google.common.base.Joiner;
 import com.google.common.collect.FluentIterable;
@@ -105,6 +106,14 @@ final class ProducerFactoryGenerator extends SourceFileGenerator<ProductionBindi
             .addModifiers(PUBLIC, FINAL)
             .superclass(abstractProducerOf(providedTypeName));
 
+    // The token is shared by every instance of the factory, so that creating a component doesn't
+    // create a token for each of its producers.
+    FieldSpec tokenField =
+        FieldSpec.builder(PRODUCER_TOKEN, "TOKEN", PRIVATE, STATIC, FINAL)
+            .initializer(producerTokenConstruction(generatedTypeName, binding))
+            .build();
+    factoryBuilder.addField(tokenField);
+
     UniqueNameSet uniqueFieldNames = new UniqueNameSet();
     ImmutableMap.Builder<BindingKey, FieldSpec> fieldsBuilder = ImmutableMap.builder();
 
@@ -135,9 +144,7 @@ final class ProducerFactoryGenerator extends SourceFileGenerator<ProductionBindi
     ImmutableMap<BindingKey, FieldSpec> fields = fieldsBuilder.build();
 
     constructorBuilder.addStatement(
-        "super($N, $L)",
-        fields.get(binding.monitorRequest().get().bindingKey()),
-        producerTokenConstruction(generatedTypeName, binding));
+        "super($N, $N)", fields.get(binding.monitorRequest().get().bindingKey()), tokenField);
 
     if (binding.requiresModuleInstance()) {
       assignField(constructorBuilder, moduleField.get());
@@ -167,10 +174,17 @@ final class ProducerFactoryGenerator extends SourceFileGenerator<ProductionBindi
     }
     FutureTransform futureTransform = FutureTransform.create(fields, binding, asyncDependencies);
 
-    computeMethodBuilder.addStatement(
-        "return $T.transformAsync($L, this, this)",
-        FUTURES,
-        futureTransform.futureCodeBlock());
+    if (binding.executesDirectly()) {
+      computeMethodBuilder.addStatement(
+          "return $T.transformAsyncDirectly($L, this, this)",
+          PRODUCERS,
+          futureTransform.futureCodeBlock());
+    } else {
+      computeMethodBuilder.addStatement(
+          "return $T.transformAsync($L, this, this)",
+          FUTURES,
+          futureTransform.futureCodeBlock());
+    }
 
     factoryBuilder
         .addSuperinterface(
@@ -204,8 +218,13 @@ final class ProducerFactoryGenerator extends SourceFileGenerator<ProductionBindi
             .addAnnotation(Deprecated.class)
             .addAnnotation(Override.class)
             .addParameter(RUNNABLE, "runnable")
-            .addStatement("monitor.ready()")
-            .addStatement("executorProvider.get().execute(runnable)");
+            .addStatement("monitor.ready()");
+    if (binding.executesDirectly()) {
+      executeMethodBuilder.addStatement("runnable.run()");
+    } else {
+      executeMethodBuilder.addStatement(
+          "$N.get().execute(runnable)", fields.get(binding.executorRequest().get().bindingKey()));
+    }
 
     factoryBuilder.addMethod(constructorBuilder.build());
     factoryBuilder.addMethod(computeMethodBuilder.build());
@@ -402,9 +421,8 @@ final class ProducerFactoryGenerator extends SourceFileGenerator<ProductionBindi
     @Override
     CodeBlock futureCodeBlock() {
       return CodeBlock.of(
-          "$T.<$T>allAsList($L)",
-          FUTURES,
-          OBJECT,
+          "$T.allAsList($L)",
+          PRODUCERS,
           asyncDependencies
               .stream()
               .map(ProducerFactoryGenerator::dependencyFutureName)
@@ -31,6 +31,7 @@ import com.google.common.util.concurrent.ListenableFuture;
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
 import com.google.errorprone.annotations.CheckReturnValue;
 import dagger.producers.Producer;
+import dagger.producers.Produces;
 import java.util.Optional;
 import java.util.stream.Stream;
 import javax.lang.model.element.ExecutableElement;
@@ -89,8 +90,8 @@ abstract class ProductionBinding extends ContributionBinding {
 
   /**
    * If this production requires an executor, this will be the corresponding request.  All
-   * production bindings from {@code @Produces} methods will have an executor request, but
-   * synthetic production bindings may not.
+   * production bindings from non-{@linkplain #executesDirectly() direct} {@code @Produces} methods
+   * will have an executor request, but synthetic production bindings may not.
    */
   abstract Optional<DependencyRequest> executorRequest();
 
@@ -100,8 +101,15 @@ abstract class ProductionBinding extends ContributionBinding {
    */
   abstract Optional<DependencyRequest> monitorRequest();
 
+  /**
+   * Returns true if the produces method is {@linkplain Produces#direct() direct}, in which case it
+   * is called on the thread that completes its inputs and has no executor request.
+   */
+  abstract boolean executesDirectly();
+
   private static Builder builder() {
     return new AutoValue_ProductionBinding.Builder()
+        .executesDirectly(false)
         .explicitDependencies(ImmutableList.<DependencyRequest>of())
         .thrownTypes(ImmutableList.<TypeMirror>of());
   }
@@ -121,6 +129,8 @@ abstract class ProductionBinding extends ContributionBinding {
 
     abstract Builder monitorRequest(DependencyRequest monitorRequest);
 
+    abstract Builder executesDirectly(boolean executesDirectly);
+
     @CheckReturnValue
     abstract ProductionBinding build();
   }
@@ -149,8 +159,7 @@ abstract class ProductionBinding extends ContributionBinding {
           dependencyRequestFactory.forRequiredResolvedVariables(
               producesMethod.getParameters(),
               resolvedMethod.getParameterTypes());
-      DependencyRequest executorRequest =
-          dependencyRequestFactory.forProductionImplementationExecutor();
+      boolean executesDirectly = producesMethod.getAnnotation(Produces.class).direct();
       DependencyRequest monitorRequest = dependencyRequestFactory.forProductionComponentMonitor();
       final ProductionKind productionKind;
       if (MoreTypes.isTypeOf(ListenableFuture.class, producesMethod.getReturnType())) {
@@ -163,7 +172,11 @@ abstract class ProductionBinding extends ContributionBinding {
         productionKind = ProductionKind.IMMEDIATE;
       }
       // TODO(beder): Add nullability checking with Java 8.
-      return ProductionBinding.builder()
+      ProductionBinding.Builder builder = ProductionBinding.builder();
+      if (!executesDirectly) {
+        builder.executorRequest(dependencyRequestFactory.forProductionImplementationExecutor());
+      }
+      return builder
           .contributionType(contributionType)
           .bindingElement(producesMethod)
           .contributingModule(contributedBy)
@@ -173,8 +186,8 @@ abstract class ProductionBinding extends ContributionBinding {
           .bindingKind(Kind.PRODUCTION)
           .productionKind(productionKind)
           .thrownTypes(producesMethod.getThrownTypes())
-          .executorRequest(executorRequest)
           .monitorRequest(monitorRequest)
+          .executesDirectly(executesDirectly)
           .build();
     }
 
@@ -30,6 +30,7 @@ import static javax.lang.model.element.Modifier.PRIVATE;
 import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.CodeBlock;
 import com.squareup.javapoet.FieldSpec;
+import dagger.releasablereferences.ReferenceRetention;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -89,13 +90,26 @@ public class ReferenceReleasingManagerFields {
             REFERENCE_RELEASING_PROVIDER_MANAGER,
             generatedComponentModel.getUniqueFieldName(fieldName))
         .addModifiers(PRIVATE, FINAL)
-        .initializer(
-            "new $T($T.class)",
-            REFERENCE_RELEASING_PROVIDER_MANAGER,
-            scope.scopeAnnotationElement())
+        .initializer(managerInitializer(scope))
         .addJavadoc(
             "The manager that releases references for the {@link $T} scope.\n",
             scope.scopeAnnotationElement())
         .build();
   }
+
+  private static CodeBlock managerInitializer(Scope scope) {
+    ReferenceRetention retention = scope.releasedReferenceRetention();
+    int retainedStrongReferences = scope.retainedStrongReferences();
+    if (retention.equals(ReferenceRetention.WEAK) && retainedStrongReferences == 0) {
+      return CodeBlock.of(
+          "new $T($T.class)", REFERENCE_RELEASING_PROVIDER_MANAGER, scope.scopeAnnotationElement());
+    }
+    return CodeBlock.of(
+        "new $T($T.class, $T.$L, $L)",
+        REFERENCE_RELEASING_PROVIDER_MANAGER,
+        scope.scopeAnnotationElement(),
+        ReferenceRetention.class,
+        retention,
+        retainedStrongReferences);
+  }
 }
@@ -17,8 +17,10 @@
 package dagger.internal.codegen;
 
 import static com.google.auto.common.AnnotationMirrors.getAnnotatedAnnotations;
+import static com.google.auto.common.AnnotationMirrors.getAnnotationValue;
 import static com.google.auto.common.MoreElements.isAnnotationPresent;
 import static com.google.common.base.Preconditions.checkArgument;
+import static dagger.internal.codegen.DaggerElements.getAnnotationMirror;
 import static dagger.internal.codegen.ErrorMessages.stripCommonTypePrefixes;
 import static dagger.internal.codegen.InjectionAnnotations.getScopes;
 
@@ -28,17 +30,20 @@ import com.google.auto.common.MoreTypes;
 import com.google.auto.value.AutoValue;
 import com.google.common.base.Equivalence;
 import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import dagger.Reusable;
 import dagger.producers.ProductionScope;
 import dagger.releasablereferences.CanReleaseReferences;
+import dagger.releasablereferences.ReferenceRetention;
 import java.lang.annotation.Annotation;
 import java.util.Optional;
 import javax.inject.Singleton;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
 import javax.lang.model.type.TypeMirror;
 import javax.lang.model.util.Elements;
 
@@ -159,6 +164,50 @@ abstract class Scope {
     return Optional.empty();
   }
 
+  /**
+   * Returns the {@link CanReleaseReferences#retention()} of this scope: {@link
+   * ReferenceRetention#SOFT} if any of its {@link CanReleaseReferences} annotations, direct or
+   * through its {@linkplain #releasableReferencesMetadata() metadata}, asks for it.
+   */
+  ReferenceRetention releasedReferenceRetention() {
+    for (AnnotationMirror canReleaseReferences : canReleaseReferencesAnnotations()) {
+      VariableElement retention =
+          (VariableElement) getAnnotationValue(canReleaseReferences, "retention").getValue();
+      if (retention.getSimpleName().contentEquals(ReferenceRetention.SOFT.name())) {
+        return ReferenceRetention.SOFT;
+      }
+    }
+    return ReferenceRetention.WEAK;
+  }
+
+  /**
+   * Returns the largest {@link CanReleaseReferences#retainedStrongReferences()} of this scope's
+   * {@link CanReleaseReferences} annotations, direct or through its {@linkplain
+   * #releasableReferencesMetadata() metadata}.
+   */
+  int retainedStrongReferences() {
+    int retainedStrongReferences = 0;
+    for (AnnotationMirror canReleaseReferences : canReleaseReferencesAnnotations()) {
+      retainedStrongReferences =
+          Math.max(
+              retainedStrongReferences,
+              (Integer)
+                  getAnnotationValue(canReleaseReferences, "retainedStrongReferences").getValue());
+    }
+    return retainedStrongReferences;
+  }
+
+  private ImmutableList<AnnotationMirror> canReleaseReferencesAnnotations() {
+    ImmutableList.Builder<AnnotationMirror> annotations = ImmutableList.builder();
+    getAnnotationMirror(scopeAnnotationElement(), CanReleaseReferences.class)
+        .ifPresent(annotations::add);
+    for (AnnotationMirror metadata : releasableReferencesMetadata()) {
+      getAnnotationMirror(metadata.getAnnotationType().asElement(), CanReleaseReferences.class)
+          .ifPresent(annotations::add);
+    }
+    return annotations.build();
+  }
+
   /**
    * Returns the readable source representation (name with @ prefix) of the annotation type.
    *
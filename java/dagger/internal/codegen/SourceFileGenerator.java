@@ -19,6 +19,7 @@ package dagger.internal.codegen;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableSet;
 import com.squareup.javapoet.AnnotationSpec;
 import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.JavaFile;
@@ -68,13 +69,33 @@ abstract class SourceFileGenerator<T> {
 
   /** Generates a source file to be compiled for {@code T}. */
   void generate(T input) throws SourceFileGenerationException {
+    Optional<JavaFile> javaFile = javaFile(input);
+    if (!javaFile.isPresent()) {
+      return;
+    }
+    try {
+      javaFile.get().writeTo(filer);
+    } catch (Exception e) {
+      throw new SourceFileGenerationException(
+          Optional.empty(), e, getElementForErrorReporting(input));
+    }
+  }
+
+  /**
+   * Returns the source file to be compiled for {@code T}, without writing it, or {@link
+   * Optional#empty()} if no file should be generated.
+   */
+  Optional<JavaFile> javaFile(T input) throws SourceFileGenerationException {
     ClassName generatedTypeName = nameGeneratedType(input);
     Optional<TypeSpec.Builder> type = write(generatedTypeName, input);
     if (!type.isPresent()) {
-      return;
+      return Optional.empty();
+    }
+    for (Element originatingElement : originatingElements(input)) {
+      type.get().addOriginatingElement(originatingElement);
     }
     try {
-      buildJavaFile(generatedTypeName, type.get()).writeTo(filer);
+      return Optional.of(buildJavaFile(generatedTypeName, type.get()));
     } catch (Exception e) {
       // if the code above threw a SFGE, use that
       Throwables.propagateIfPossible(e, SourceFileGenerationException.class);
@@ -109,6 +130,16 @@ abstract class SourceFileGenerator<T> {
    */
   abstract Optional<? extends Element> getElementForErrorReporting(T input);
 
+  /**
+   * Returns the elements that the source file for {@code input} is generated from, which are
+   * declared to the {@link Filer} as its originating elements. Defaults to the {@linkplain
+   * #getElementForErrorReporting(Object) element for reporting errors}.
+   */
+  ImmutableSet<? extends Element> originatingElements(T input) {
+    Optional<? extends Element> element = getElementForErrorReporting(input);
+    return element.isPresent() ? ImmutableSet.of(element.get()) : ImmutableSet.of();
+  }
+
   /**
    * Returns a {@link TypeSpec.Builder type} to be generated for {@code T}, or {@link
    * Optional#empty()} if no file should be generated.
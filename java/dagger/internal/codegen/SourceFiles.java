@@ -28,6 +28,8 @@ import static dagger.internal.codegen.DaggerStreams.toImmutableList;
 import static dagger.internal.codegen.DaggerStreams.toImmutableSet;
 import static dagger.internal.codegen.Optionals.optionalComparator;
 import static dagger.internal.codegen.TypeNames.DOUBLE_CHECK;
+import static dagger.internal.codegen.TypeNames.INT_KEY_MAP_FACTORY;
+import static dagger.internal.codegen.TypeNames.LONG_KEY_MAP_FACTORY;
 import static dagger.internal.codegen.TypeNames.MAP_FACTORY;
 import static dagger.internal.codegen.TypeNames.MAP_OF_PRODUCED_PRODUCER;
 import static dagger.internal.codegen.TypeNames.MAP_OF_PRODUCER_PRODUCER;
@@ -61,6 +63,7 @@ import dagger.producers.internal.SetProducer;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 import javax.inject.Provider;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.Element;
@@ -282,6 +285,25 @@ class SourceFiles {
     }
   }
 
+  /**
+   * Returns the specialization of {@link #mapFactoryClassName(ContributionBinding)} that stores its
+   * keys unboxed, if {@code binding} is a provision binding for a map with {@link Integer} or {@link
+   * Long} keys.
+   */
+  static Optional<ClassName> primitiveKeyMapFactoryClassName(ContributionBinding binding) {
+    checkState(binding.bindingKind().equals(SYNTHETIC_MULTIBOUND_MAP), binding.bindingKind());
+    MapType mapType = MapType.from(binding.key());
+    if (binding.bindingType().equals(BindingType.PROVISION)) {
+      if (mapType.keysAreTypeOf(Integer.class)) {
+        return Optional.of(INT_KEY_MAP_FACTORY);
+      }
+      if (mapType.keysAreTypeOf(Long.class)) {
+        return Optional.of(LONG_KEY_MAP_FACTORY);
+      }
+    }
+    return Optional.empty();
+  }
+
   private static String factoryPrefix(ContributionBinding binding) {
     switch (binding.bindingKind()) {
       case INJECTION:
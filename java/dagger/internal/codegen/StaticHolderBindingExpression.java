@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen;
+
+import static com.google.common.base.CaseFormat.LOWER_CAMEL;
+import static com.google.common.base.CaseFormat.UPPER_CAMEL;
+import static com.squareup.javapoet.MethodSpec.methodBuilder;
+import static com.squareup.javapoet.TypeSpec.anonymousClassBuilder;
+import static dagger.internal.codegen.GeneratedComponentModel.FieldSpecKind.FRAMEWORK_FIELD;
+import static dagger.internal.codegen.GeneratedComponentModel.TypeSpecKind.SCOPED_INSTANCE_HOLDER;
+import static dagger.internal.codegen.TypeNames.providerOf;
+import static javax.lang.model.element.Modifier.FINAL;
+import static javax.lang.model.element.Modifier.PRIVATE;
+import static javax.lang.model.element.Modifier.PUBLIC;
+import static javax.lang.model.element.Modifier.STATIC;
+
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import javax.inject.Provider;
+
+/**
+ * A binding expression for a scoped binding that is memoized in a static field of a nested holder
+ * class, using the initialization-on-demand holder idiom. The JVM's class initialization lock
+ * guarantees that the instance is created once, and every later request is a plain static field
+ * read.
+ *
+ * <p>Because the field is static, the instance is shared by all instances of the component. This
+ * is only used for bindings whose creation needs nothing from the component instance. If creating
+ * the instance throws, the holder class can never be initialized; see {@link
+ * CompilerOptions#staticHolderScoping()}.
+ */
+final class StaticHolderBindingExpression extends BindingExpression {
+  private final ContributionBinding binding;
+  private final GeneratedComponentModel generatedComponentModel;
+  private final BindingExpression creationExpression;
+  private final DaggerTypes types;
+  private ClassName holderName;
+  private FieldSpec providerField;
+
+  /**
+   * @param creationExpression an expression whose {@link DependencyRequest.Kind#INSTANCE} requests
+   *     create a new, unscoped instance of the binding
+   */
+  StaticHolderBindingExpression(
+      ContributionBinding binding,
+      GeneratedComponentModel generatedComponentModel,
+      BindingExpression creationExpression,
+      DaggerTypes types) {
+    super(creationExpression.resolvedBindings());
+    this.binding = binding;
+    this.generatedComponentModel = generatedComponentModel;
+    this.creationExpression = creationExpression;
+    this.types = types;
+  }
+
+  @Override
+  Expression getDependencyExpression(
+      DependencyRequest.Kind requestKind, ClassName requestingClass) {
+    switch (requestKind) {
+      case INSTANCE:
+        return Expression.create(
+            binding.contributedType(), CodeBlock.of("$T.INSTANCE", holderName()));
+      default:
+        Expression provider =
+            Expression.create(
+                types.wrapType(binding.contributedType(), Provider.class),
+                CodeBlock.of("$T.$N", generatedComponentModel.name(), providerField()));
+        return FrameworkType.PROVIDER.to(requestKind, provider, types);
+    }
+  }
+
+  /** Returns the name of the holder class, adding it to the component the first time. */
+  private ClassName holderName() {
+    if (holderName == null) {
+      holderName =
+          generatedComponentModel
+              .name()
+              .nestedClass(generatedComponentModel.getUniqueClassName(bindingName() + "Holder"));
+      generatedComponentModel.addType(
+          SCOPED_INSTANCE_HOLDER,
+          TypeSpec.classBuilder(holderName)
+              .addModifiers(PRIVATE, STATIC, FINAL)
+              .addField(
+                  FieldSpec.builder(
+                          TypeName.get(binding.contributedType()), "INSTANCE", STATIC, FINAL)
+                      .initializer(
+                          creationExpression
+                              .getDependencyExpression(
+                                  DependencyRequest.Kind.INSTANCE, generatedComponentModel.name())
+                              .codeBlock())
+                      .build())
+              .build());
+    }
+    return holderName;
+  }
+
+  /**
+   * Returns a static {@link Provider} field that reads the holder, adding it to the
+   * component the first time. Initializing the field does not initialize the holder.
+   */
+  private FieldSpec providerField() {
+    if (providerField == null) {
+      TypeName contributedType = TypeName.get(binding.contributedType());
+      providerField =
+          FieldSpec.builder(
+                  providerOf(contributedType),
+                  generatedComponentModel.getUniqueFieldName(
+                      BindingVariableNamer.name(binding) + "Provider"),
+                  PRIVATE,
+                  STATIC,
+                  FINAL)
+              .initializer(
+                  "$L",
+                  anonymousClassBuilder("")
+                      .addSuperinterface(providerOf(contributedType))
+                      .addMethod(
+                          methodBuilder("get")
+                              .addAnnotation(Override.class)
+                              .addModifiers(PUBLIC)
+                              .returns(contributedType)
+                              .addStatement("return $T.INSTANCE", holderName())
+                              .build())
+                      .build())
+              .build();
+      generatedComponentModel.addField(FRAMEWORK_FIELD, providerField);
+    }
+    return providerField;
+  }
+
+  private String bindingName() {
+    return LOWER_CAMEL.to(UPPER_CAMEL, BindingVariableNamer.name(binding));
+  }
+}
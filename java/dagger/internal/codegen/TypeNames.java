@@ -28,6 +28,9 @@ import dagger.internal.DelegateFactory;
 import dagger.internal.DoubleCheck;
 import dagger.internal.Factory;
 import dagger.internal.InstanceFactory;
+import dagger.internal.IntKeyMapFactory;
+import dagger.internal.LockFreeDoubleCheck;
+import dagger.internal.LongKeyMapFactory;
 import dagger.internal.MapFactory;
 import dagger.internal.MapProviderFactory;
 import dagger.internal.MembersInjectors;
@@ -70,9 +73,12 @@ final class TypeNames {
   static final ClassName FUTURES = ClassName.get(Futures.class);
   static final ClassName ILLEGAL_STATE_EXCEPTION = ClassName.get(IllegalStateException.class);
   static final ClassName INSTANCE_FACTORY = ClassName.get(InstanceFactory.class);
+  static final ClassName INT_KEY_MAP_FACTORY = ClassName.get(IntKeyMapFactory.class);
   static final ClassName LAZY = ClassName.get(Lazy.class);
   static final ClassName LIST = ClassName.get(List.class);
   static final ClassName LISTENABLE_FUTURE = ClassName.get(ListenableFuture.class);
+  static final ClassName LOCK_FREE_DOUBLE_CHECK = ClassName.get(LockFreeDoubleCheck.class);
+  static final ClassName LONG_KEY_MAP_FACTORY = ClassName.get(LongKeyMapFactory.class);
   static final ClassName MAP_FACTORY = ClassName.get(MapFactory.class);
   static final ClassName MAP_OF_PRODUCED_PRODUCER = ClassName.get(MapOfProducedProducer.class);
   static final ClassName MAP_OF_PRODUCER_PRODUCER = ClassName.get(MapOfProducerProducer.class);
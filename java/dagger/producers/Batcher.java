@@ -0,0 +1,227 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.producers;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.util.concurrent.Futures.getDone;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import dagger.internal.Beta;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces requests for values by key, from any number of component instances, into bulk calls.
+ *
+ * <p>A {@link Produces @Produces} method that looks up a single key in a backend can instead ask a
+ * batcher that is shared by the components, such as one bound in a singleton-scoped parent
+ * component:
+ *
+ * <pre><code>
+ *   {@literal @}Produces
+ *   static ListenableFuture&lt;User&gt; user(UserId id, Batcher&lt;UserId, User&gt; users) {
+ *     return users.get(id);
+ *   }
+ * </code></pre>
+ *
+ * <p>The batcher collects the keys that are requested until either {@code maxBatchSize} distinct
+ * keys have been requested, or {@code maxDelay} has passed since the first of them was, and then
+ * calls the batch function once with all of them. Each request is fulfilled with the value that
+ * the function returns for its key; a key that is missing from the function's result fails its
+ * requests with a {@link NoSuchElementException}, and a failure of the function fails every
+ * request of the batch.
+ *
+ * <p>Each request gets a future of its own, so cancelling one, for example because the component
+ * that made it was cancelled, doesn't affect the others. Keys whose requests have all been
+ * cancelled by the time the batch is dispatched are left out of it.
+ */
+@Beta
+public final class Batcher<K, V> {
+  private final AsyncFunction<ImmutableSet<K>, ? extends Map<K, V>> batchFunction;
+  private final int maxBatchSize;
+  private final long maxDelayNanos;
+  private final ScheduledExecutorService scheduler;
+
+  // The requests of the batch that hasn't been dispatched yet, guarded by this.
+  private Map<K, List<SettableFuture<V>>> pending = new LinkedHashMap<>();
+  private Future<?> pendingDispatch;
+
+  private Batcher(
+      AsyncFunction<ImmutableSet<K>, ? extends Map<K, V>> batchFunction,
+      int maxBatchSize,
+      long maxDelayNanos,
+      ScheduledExecutorService scheduler) {
+    this.batchFunction = batchFunction;
+    this.maxBatchSize = maxBatchSize;
+    this.maxDelayNanos = maxDelayNanos;
+    this.scheduler = scheduler;
+  }
+
+  /**
+   * Returns a batcher that calls {@code batchFunction} with at most {@code maxBatchSize} keys at a
+   * time, at most {@code maxDelay} after the first of them was requested. Batches are dispatched on
+   * {@code scheduler}, which {@code batchFunction} should not block.
+   */
+  public static <K, V> Batcher<K, V> create(
+      AsyncFunction<ImmutableSet<K>, ? extends Map<K, V>> batchFunction,
+      int maxBatchSize,
+      long maxDelay,
+      TimeUnit unit,
+      ScheduledExecutorService scheduler) {
+    checkArgument(maxBatchSize > 0, "maxBatchSize must be positive: %s", maxBatchSize);
+    checkArgument(maxDelay >= 0, "maxDelay must not be negative: %s", maxDelay);
+    return new Batcher<K, V>(
+        checkNotNull(batchFunction), maxBatchSize, unit.toNanos(maxDelay), checkNotNull(scheduler));
+  }
+
+  /** Returns a future of the value for {@code key}, which is requested in the next batch. */
+  public ListenableFuture<V> get(K key) {
+    checkNotNull(key);
+    SettableFuture<V> request = SettableFuture.create();
+    Map<K, List<SettableFuture<V>>> full = null;
+    synchronized (this) {
+      List<SettableFuture<V>> requests = pending.get(key);
+      if (requests == null) {
+        requests = new ArrayList<>(1);
+        pending.put(key, requests);
+      }
+      requests.add(request);
+      if (pending.size() >= maxBatchSize) {
+        full = takePending();
+      } else if (pendingDispatch == null) {
+        pendingDispatch =
+            scheduler.schedule(new Dispatch(null), maxDelayNanos, TimeUnit.NANOSECONDS);
+      }
+    }
+    if (full != null) {
+      scheduler.execute(new Dispatch(full));
+    }
+    return request;
+  }
+
+  /** Removes and returns the pending batch. */
+  private Map<K, List<SettableFuture<V>>> takePending() {
+    Map<K, List<SettableFuture<V>>> batch = pending;
+    pending = new LinkedHashMap<>();
+    if (pendingDispatch != null) {
+      pendingDispatch.cancel(false);
+      pendingDispatch = null;
+    }
+    return batch;
+  }
+
+  /** Calls the batch function with a batch of keys, and fulfills their requests. */
+  private final class Dispatch implements Runnable {
+    private Map<K, List<SettableFuture<V>>> batch;
+
+    /** Dispatches {@code batch}, or the pending batch if it's null. */
+    Dispatch(Map<K, List<SettableFuture<V>>> batch) {
+      this.batch = batch;
+    }
+
+    @Override
+    public void run() {
+      if (batch == null) {
+        synchronized (Batcher.this) {
+          batch = takePending();
+        }
+      }
+      ImmutableSet.Builder<K> keys = ImmutableSet.builder();
+      for (Map.Entry<K, List<SettableFuture<V>>> entry : batch.entrySet()) {
+        if (!allCancelled(entry.getValue())) {
+          keys.add(entry.getKey());
+        }
+      }
+      ImmutableSet<K> batchKeys = keys.build();
+      if (batchKeys.isEmpty()) {
+        return;
+      }
+      final ListenableFuture<? extends Map<K, V>> result;
+      try {
+        result = batchFunction.apply(batchKeys);
+      } catch (Exception e) {
+        failAll(e);
+        return;
+      }
+      if (result == null) {
+        failAll(new NullPointerException("The batch function returned null"));
+        return;
+      }
+      result.addListener(
+          new Runnable() {
+            @Override
+            public void run() {
+              complete(result);
+            }
+          },
+          directExecutor());
+    }
+
+    private void complete(ListenableFuture<? extends Map<K, V>> result) {
+      Map<K, V> values;
+      try {
+        values = getDone(result);
+      } catch (ExecutionException e) {
+        failAll(e.getCause());
+        return;
+      } catch (CancellationException e) {
+        failAll(e);
+        return;
+      }
+      for (Map.Entry<K, List<SettableFuture<V>>> entry : batch.entrySet()) {
+        V value = values == null ? null : values.get(entry.getKey());
+        for (SettableFuture<V> request : entry.getValue()) {
+          if (value != null) {
+            request.set(value);
+          } else {
+            request.setException(new NoSuchElementException("No value for " + entry.getKey()));
+          }
+        }
+      }
+    }
+
+    private void failAll(Throwable t) {
+      for (List<SettableFuture<V>> requests : batch.values()) {
+        for (SettableFuture<V> request : requests) {
+          request.setException(t);
+        }
+      }
+    }
+  }
+
+  private static boolean allCancelled(List<? extends Future<?>> requests) {
+    for (Future<?> request : requests) {
+      if (!request.isCancelled()) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -31,10 +31,23 @@ import java.lang.annotation.Target;
  * future provides; otherwise, the return type is bound to the returned value. The production
  * component will pass dependencies to the method as parameters.
  *
+ * <p>By default, the method is called on the component's {@link Production @Production}
+ * {@link java.util.concurrent.Executor} once all of its inputs are available. A method that does
+ * little work, such as rewrapping or combining its inputs, can be marked {@link #direct()} to skip
+ * that executor hop.
+ *
  * @author Jesse Beder
  */
 @Documented
 @Target(METHOD)
 @Retention(RUNTIME)
 @Beta
-public @interface Produces {}
+public @interface Produces {
+  /**
+   * If true, the method is called directly on the thread that completes its last input, or on the
+   * requesting thread if its inputs are already available, instead of being submitted to the
+   * {@link Production @Production} executor. Direct methods must be fast and must never block,
+   * since they run while other producers' callbacks (or the caller) are waiting on them.
+   */
+  boolean direct() default false;
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.producers;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.Ticker;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import dagger.internal.Beta;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Factories for {@link Executor}s that can be bound as the {@link Production @Production}
+ * executor of a {@link ProductionComponent}.
+ */
+@Beta
+public final class ProductionExecutors {
+  /**
+   * Returns an executor that runs each task on a thread of its own, so that a {@link Produces
+   * &#64;Produces} method that blocks, for example on a remote call, never delays other producers
+   * waiting for a pool thread.
+   *
+   * <p>When the JVM supports virtual threads (Java 21 or later), each task runs on a new virtual
+   * thread. Otherwise, each task runs on an idle or new thread of an unbounded pool of daemon
+   * threads, which are discarded after a minute of idleness.
+   *
+   * <p>The caller owns the returned executor, and should {@linkplain ExecutorService#shutdown()
+   * shut it down} when it is no longer used.
+   */
+  public static ExecutorService newThreadPerTaskExecutor() {
+    ExecutorService virtualThreadExecutor = newVirtualThreadPerTaskExecutor();
+    if (virtualThreadExecutor != null) {
+      return virtualThreadExecutor;
+    }
+    return Executors.newCachedThreadPool(
+        new ThreadFactoryBuilder().setDaemon(true).setNameFormat("dagger-production-%d").build());
+  }
+
+  /**
+   * Returns an executor that runs tasks on {@code executor} until {@code timeout} has elapsed, and
+   * rejects them with a {@link RejectedExecutionException} afterwards.
+   *
+   * <p>Binding a new one as the {@link Production @Production} executor of each component instance
+   * gives that component a deadline. Once the deadline passes, any {@link Produces @Produces}
+   * method whose inputs become available fails without running, and that failure propagates to
+   * the producers that depend on it. Methods that have already started, and {@linkplain
+   * Produces#direct() direct} methods, are unaffected. To also fail entry points that are still
+   * waiting on those, put a timeout on the entry point futures, for example with {@link
+   * com.google.common.util.concurrent.Futures#withTimeout}. Cancelling an entry point cancels the
+   * producers that no other pending entry point needs.
+   */
+  public static Executor withDeadline(Executor executor, long timeout, TimeUnit unit) {
+    return withDeadline(executor, timeout, unit, Ticker.systemTicker());
+  }
+
+  static Executor withDeadline(Executor executor, long timeout, TimeUnit unit, Ticker ticker) {
+    checkNotNull(executor);
+    checkArgument(timeout >= 0, "timeout must not be negative: %s", timeout);
+    return new DeadlineExecutor(executor, ticker, ticker.read() + unit.toNanos(timeout));
+  }
+
+  private static final class DeadlineExecutor implements Executor {
+    private final Executor delegate;
+    private final Ticker ticker;
+    private final long deadlineNanos;
+
+    DeadlineExecutor(Executor delegate, Ticker ticker, long deadlineNanos) {
+      this.delegate = delegate;
+      this.ticker = ticker;
+      this.deadlineNanos = deadlineNanos;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+      if (ticker.read() - deadlineNanos >= 0) {
+        throw new RejectedExecutionException("The production deadline has passed");
+      }
+      delegate.execute(task);
+    }
+  }
+
+  /**
+   * Returns {@code Executors.newVirtualThreadPerTaskExecutor()}, or {@code null} if the JVM doesn't
+   * have it. It is called reflectively so that this class still runs on older JVMs.
+   */
+  private static ExecutorService newVirtualThreadPerTaskExecutor() {
+    Method factory;
+    try {
+      factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+    } catch (NoSuchMethodException e) {
+      return null;
+    }
+    try {
+      return (ExecutorService) factory.invoke(null);
+    } catch (IllegalAccessException e) {
+      return null;
+    } catch (InvocationTargetException e) {
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  private ProductionExecutors() {}
+}
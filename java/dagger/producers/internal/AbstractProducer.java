@@ -17,13 +17,18 @@
 package dagger.producers.internal;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 
+import com.google.common.util.concurrent.AbstractFuture;
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import dagger.producers.Producer;
 import dagger.producers.monitoring.ProducerMonitor;
 import dagger.producers.monitoring.ProducerToken;
 import dagger.producers.monitoring.ProductionComponentMonitor;
 import dagger.producers.monitoring.internal.Monitors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import javax.annotation.Nullable;
 import javax.inject.Provider;
 
@@ -36,7 +41,19 @@ import javax.inject.Provider;
 public abstract class AbstractProducer<T> implements Producer<T> {
   private final Provider<ProductionComponentMonitor> monitorProvider;
   @Nullable private final ProducerToken token;
+  @SuppressWarnings("rawtypes") // field updaters can't be created for parameterized types
+  private static final AtomicIntegerFieldUpdater<AbstractProducer> PENDING_REQUESTS =
+      AtomicIntegerFieldUpdater.newUpdater(AbstractProducer.class, "pendingRequests");
+
+  /** The value of {@link #pendingRequests} once the computation has been cancelled. */
+  private static final int CANCELLED = -1;
+
   private volatile ListenableFuture<T> instance = null;
+  /**
+   * The number of requests for a pending {@link #instance} that haven't been cancelled, or {@link
+   * #CANCELLED}. Once it is {@link #CANCELLED}, no new requests are counted.
+   */
+  private volatile int pendingRequests;
   protected volatile ProducerMonitor monitor = null;
 
   protected AbstractProducer() {
@@ -55,6 +72,20 @@ public abstract class AbstractProducer<T> implements Producer<T> {
    */
   protected abstract ListenableFuture<T> compute();
 
+  /**
+   * Returns the future of this producer's value, computing it on the first call.
+   *
+   * <p>While that future is pending, each call returns a new future for the same value, so that
+   * each requester, such as a dependent producer or an entry point of the component, can cancel
+   * its own request. Cancelling a request doesn't affect the other requests, but once every
+   * request has been cancelled, the computation itself is cancelled. That in turn cancels this
+   * producer's requests of its own inputs, so cancelling an entry point stops the producers that
+   * only it needed. A producer whose computation has been cancelled stays cancelled.
+   *
+   * <p>Each call made while the future is pending allocates a request future and a listener on the
+   * computation. Calls made once it is done return it as is, so the paths that skip intermediate
+   * futures for inputs that are already done don't allocate anything here.
+   */
   @Override
   public final ListenableFuture<T> get() {
     // double-check idiom from EJ2: Item 71
@@ -63,16 +94,90 @@ public abstract class AbstractProducer<T> implements Producer<T> {
       synchronized (this) {
         result = instance;
         if (result == null) {
-          monitor = monitorProvider.get().producerMonitorFor(token);
+          // Components without monitors use the no-op provider, so skip the lookup entirely.
+          boolean monitored = monitorProvider != Monitors.noOpProductionComponentMonitorProvider();
+          monitor =
+              monitored ? monitorProvider.get().producerMonitorFor(token) : ProducerMonitor.noOp();
           monitor.requested();
           instance = result = compute();
           if (result == null) {
             throw new NullPointerException("compute returned null");
           }
-          monitor.addCallbackTo(result);
+          if (monitored) {
+            monitor.addCallbackTo(result);
+          }
         }
       }
     }
-    return result;
+    if (result.isDone()) {
+      return result;
+    }
+    while (true) {
+      int requests = pendingRequests;
+      if (requests == CANCELLED) {
+        // The computation is being cancelled, so there's no live result to request.
+        return result;
+      }
+      if (PENDING_REQUESTS.compareAndSet(this, requests, requests + 1)) {
+        return new Request<T>(this, result);
+      }
+    }
+  }
+
+  /**
+   * Called when a request for {@code result} is cancelled before it completes. The last request
+   * to be cancelled marks the producer {@link #CANCELLED} in the same step as it takes its count
+   * to zero, so that a concurrent {@link #get()} can't add a request that would then be cancelled
+   * along with the computation.
+   */
+  private void cancelRequest(ListenableFuture<T> result, boolean mayInterruptIfRunning) {
+    while (true) {
+      int requests = pendingRequests;
+      if (requests == CANCELLED) {
+        return;
+      } else if (requests == 1) {
+        if (PENDING_REQUESTS.compareAndSet(this, 1, CANCELLED)) {
+          result.cancel(mayInterruptIfRunning);
+          return;
+        }
+      } else if (PENDING_REQUESTS.compareAndSet(this, requests, requests - 1)) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * A single request for a producer's pending result, which completes with that result but can be
+   * cancelled on its own.
+   */
+  private static final class Request<T> extends AbstractFuture<T> implements Runnable {
+    private final AbstractProducer<T> producer;
+    private final ListenableFuture<T> result;
+
+    Request(AbstractProducer<T> producer, ListenableFuture<T> result) {
+      this.producer = producer;
+      this.result = result;
+      result.addListener(this, directExecutor());
+    }
+
+    @Override
+    public void run() {
+      if (result.isCancelled()) {
+        cancel(false);
+        return;
+      }
+      try {
+        set(Futures.getDone(result));
+      } catch (ExecutionException e) {
+        setException(e.getCause());
+      }
+    }
+
+    @Override
+    protected void afterDone() {
+      if (isCancelled() && !result.isDone()) {
+        producer.cancelRequest(result, wasInterrupted());
+      }
+    }
   }
 }
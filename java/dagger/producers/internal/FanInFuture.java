@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.producers.internal;
+
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+
+import com.google.common.util.concurrent.AbstractFuture;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * A future that combines the results of a fixed array of input futures once all of them have
+ * completed. The multibinding producers use it in place of nested {@link Futures#allAsList} and
+ * per-element {@link Futures#transform} futures: completion is tracked with a single countdown,
+ * inputs that are already done are counted without adding a listener, and the results are read
+ * straight from the input array in one pass by {@link #combine()}.
+ *
+ * <p>Cancelling this future cancels all of its inputs.
+ */
+abstract class FanInFuture<T> extends AbstractFuture<T> {
+  @SuppressWarnings("rawtypes") // field updaters can't be created for parameterized types
+  private static final AtomicIntegerFieldUpdater<FanInFuture> PENDING =
+      AtomicIntegerFieldUpdater.newUpdater(FanInFuture.class, "pending");
+
+  /** The input futures, in the order in which {@link #combine()} reads them. */
+  final ListenableFuture<?>[] inputs;
+
+  private final boolean failFast;
+
+  /**
+   * The number of inputs that have yet to complete, plus one until {@link #start()} has finished
+   * listening to all of them.
+   */
+  private volatile int pending;
+
+  /**
+   * @param failFast if true, this future fails (or is cancelled) as soon as any input fails (or is
+   *     cancelled), and {@link #combine()} is only called if all of the inputs succeed
+   */
+  FanInFuture(ListenableFuture<?>[] inputs, boolean failFast) {
+    this.inputs = inputs;
+    this.failFast = failFast;
+    this.pending = inputs.length + 1;
+  }
+
+  /**
+   * Combines the results of the inputs, which have all completed. Any exception thrown fails this
+   * future.
+   */
+  abstract T combine() throws Exception;
+
+  /** Starts listening to the inputs, and returns this future. Must be called exactly once. */
+  final ListenableFuture<T> start() {
+    for (final ListenableFuture<?> input : inputs) {
+      if (input.isDone()) {
+        inputCompleted(input);
+      } else {
+        input.addListener(
+            new Runnable() {
+              @Override
+              public void run() {
+                inputCompleted(input);
+              }
+            },
+            directExecutor());
+      }
+    }
+    countDown();
+    return this;
+  }
+
+  private void inputCompleted(ListenableFuture<?> input) {
+    if (failFast && !isDone()) {
+      if (input.isCancelled()) {
+        cancel(false);
+      } else {
+        try {
+          Futures.getDone(input);
+        } catch (ExecutionException e) {
+          setException(e.getCause());
+        }
+      }
+    }
+    countDown();
+  }
+
+  private void countDown() {
+    if (PENDING.decrementAndGet(this) == 0 && !isDone()) {
+      try {
+        set(combine());
+      } catch (Throwable t) {
+        setException(t);
+      }
+    }
+  }
+
+  @Override
+  protected final void afterDone() {
+    if (isCancelled()) {
+      boolean interrupt = wasInterrupted();
+      for (ListenableFuture<?> input : inputs) {
+        input.cancel(interrupt);
+      }
+    }
+  }
+
+  /** Returns the result of an input that is known to have succeeded. */
+  @SuppressWarnings("unchecked") // callers know the type of each input
+  static <V> V getSucceeded(ListenableFuture<?> input) throws ExecutionException {
+    return (V) Futures.getDone(input);
+  }
+
+  /**
+   * Returns the result of an input that is known to have completed, or throws an {@link
+   * ExecutionException} whose cause is the input's failure or its {@link CancellationException}.
+   */
+  static <V> V getCompleted(ListenableFuture<?> input) throws ExecutionException {
+    try {
+      return getSucceeded(input);
+    } catch (CancellationException e) {
+      throw new ExecutionException(e);
+    }
+  }
+}
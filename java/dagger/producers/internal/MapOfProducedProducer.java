@@ -17,20 +17,14 @@
 package dagger.producers.internal;
 
 import static com.google.common.base.Preconditions.checkNotNull;
-import static com.google.common.util.concurrent.Futures.transform;
-import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static dagger.producers.internal.Producers.producerFromProvider;
 
-import com.google.common.base.Function;
 import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.Iterables;
-import com.google.common.collect.Maps;
-import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import dagger.producers.Produced;
 import dagger.producers.Producer;
-import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
 import javax.inject.Provider;
 
 /**
@@ -49,46 +43,28 @@ public final class MapOfProducedProducer<K, V> extends AbstractProducer<Map<K, P
 
   @Override
   public ListenableFuture<Map<K, Produced<V>>> compute() {
-    return Futures.transform(
-        Futures.allAsList(
-            Iterables.transform(
-                mapOfProducers.entrySet(), MapOfProducedProducer.<K, V>entryUnwrapper())),
-        new Function<List<Map.Entry<K, Produced<V>>>, Map<K, Produced<V>>>() {
-          @Override
-          public Map<K, Produced<V>> apply(List<Map.Entry<K, Produced<V>>> entries) {
-            return ImmutableMap.copyOf(entries);
+    ListenableFuture<?>[] futures = new ListenableFuture<?>[mapOfProducers.size()];
+    int index = 0;
+    for (Producer<V> producer : mapOfProducers.values()) {
+      futures[index++] = producer.get();
+    }
+    return new FanInFuture<Map<K, Produced<V>>>(futures, false) {
+      @Override
+      Map<K, Produced<V>> combine() {
+        ImmutableMap.Builder<K, Produced<V>> builder = ImmutableMap.builder();
+        int i = 0;
+        for (K key : mapOfProducers.keySet()) {
+          Produced<V> produced;
+          try {
+            produced = Produced.successful(FanInFuture.<V>getCompleted(inputs[i++]));
+          } catch (ExecutionException e) {
+            produced = Produced.failed(e.getCause());
           }
-        },
-        directExecutor());
-  }
-
-  private static final Function<
-          Map.Entry<Object, Producer<Object>>,
-          ListenableFuture<Map.Entry<Object, Produced<Object>>>>
-      ENTRY_UNWRAPPER =
-          new Function<
-              Map.Entry<Object, Producer<Object>>,
-              ListenableFuture<Map.Entry<Object, Produced<Object>>>>() {
-            @Override
-            public ListenableFuture<Map.Entry<Object, Produced<Object>>> apply(
-                final Map.Entry<Object, Producer<Object>> entry) {
-              return transform(
-                  Producers.createFutureProduced(entry.getValue().get()),
-                  new Function<Produced<Object>, Map.Entry<Object, Produced<Object>>>() {
-                    @Override
-                    public Map.Entry<Object, Produced<Object>> apply(Produced<Object> value) {
-                      return Maps.immutableEntry(entry.getKey(), value);
-                    }
-                  },
-                  directExecutor());
-            }
-          };
-
-  @SuppressWarnings({"unchecked", "rawtypes"}) // bivariate implementation
-  private static <K, V>
-      Function<Map.Entry<K, Producer<V>>, ListenableFuture<Map.Entry<K, Produced<V>>>>
-          entryUnwrapper() {
-    return (Function) ENTRY_UNWRAPPER;
+          builder.put(key, produced);
+        }
+        return builder.build();
+      }
+    }.start();
   }
 
   /** Returns a new {@link Builder}. */
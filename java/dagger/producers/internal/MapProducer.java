@@ -17,19 +17,13 @@
 package dagger.producers.internal;
 
 import static com.google.common.base.Preconditions.checkNotNull;
-import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static dagger.producers.internal.Producers.producerFromProvider;
 
-import com.google.common.base.Function;
 import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.Maps;
-import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import dagger.producers.Producer;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.concurrent.ExecutionException;
 import javax.inject.Provider;
 
 /**
@@ -78,25 +72,21 @@ public final class MapProducer<K, V> extends AbstractProducer<Map<K, V>> {
 
   @Override
   protected ListenableFuture<Map<K, V>> compute() {
-    final List<ListenableFuture<Map.Entry<K, V>>> listOfEntries = new ArrayList<>();
-    for (final Entry<K, Producer<V>> entry : mapOfProducers.entrySet()) {
-      listOfEntries.add(
-          Futures.transform(entry.getValue().get(), new Function<V, Entry<K, V>>() {
-            @Override
-            public Entry<K, V> apply(V computedValue) {
-              return Maps.immutableEntry(entry.getKey(), computedValue);
-            }
-          }, directExecutor()));
+    ListenableFuture<?>[] futures = new ListenableFuture<?>[mapOfProducers.size()];
+    int index = 0;
+    for (Producer<V> producer : mapOfProducers.values()) {
+      futures[index++] = producer.get();
     }
-
-    return Futures.transform(
-        Futures.allAsList(listOfEntries),
-        new Function<List<Map.Entry<K, V>>, Map<K, V>>() {
-          @Override
-          public Map<K, V> apply(List<Map.Entry<K, V>> entries) {
-            return ImmutableMap.copyOf(entries);
-          }
-        },
-        directExecutor());
+    return new FanInFuture<Map<K, V>>(futures, true) {
+      @Override
+      Map<K, V> combine() throws ExecutionException {
+        ImmutableMap.Builder<K, V> builder = ImmutableMap.builder();
+        int i = 0;
+        for (K key : mapOfProducers.keySet()) {
+          builder.put(key, FanInFuture.<V>getSucceeded(inputs[i++]));
+        }
+        return builder.build();
+      }
+    }.start();
   }
 }
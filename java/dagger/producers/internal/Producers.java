@@ -29,9 +29,15 @@ import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import dagger.producers.Produced;
 import dagger.producers.Producer;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import javax.annotation.Nullable;
 import javax.inject.Provider;
 
 /**
@@ -54,6 +60,15 @@ public final class Producers {
   // TODO(beder): Document what happens with an InterruptedException after you figure out how to
   // trigger one in a test.
   public static <T> ListenableFuture<Produced<T>> createFutureProduced(ListenableFuture<T> future) {
+    if (future.isDone() && !future.isCancelled()) {
+      Produced<T> produced;
+      try {
+        produced = Produced.successful(Futures.getDone(future));
+      } catch (ExecutionException e) {
+        produced = Produced.failed(e.getCause());
+      }
+      return Futures.immediateFuture(produced);
+    }
     return catchingAsync(
         transform(
             future,
@@ -89,6 +104,10 @@ public final class Producers {
    * future.
    */
   public static <T> ListenableFuture<Set<T>> createFutureSingletonSet(ListenableFuture<T> future) {
+    T value = getIfSucceeded(future);
+    if (value != null) {
+      return Futures.<Set<T>>immediateFuture(ImmutableSet.of(value));
+    }
     return transform(
         future,
         new Function<T, Set<T>>() {
@@ -108,6 +127,19 @@ public final class Producers {
    */
   public static <T> ListenableFuture<Set<T>> allAsSet(
       Iterable<? extends ListenableFuture<? extends T>> futures) {
+    ImmutableSet.Builder<T> values = ImmutableSet.builder();
+    boolean allSucceeded = true;
+    for (ListenableFuture<? extends T> future : futures) {
+      T value = getIfSucceeded(future);
+      if (value == null) {
+        allSucceeded = false;
+        break;
+      }
+      values.add(value);
+    }
+    if (allSucceeded) {
+      return Futures.<Set<T>>immediateFuture(values.build());
+    }
     return transform(
         Futures.allAsList(futures),
         new Function<List<T>, Set<T>>() {
@@ -119,6 +151,96 @@ public final class Producers {
         directExecutor());
   }
 
+  /**
+   * Creates a new {@code ListenableFuture} whose value is a list containing the values of all its
+   * input futures, like {@link Futures#allAsList(ListenableFuture...)}. If every input has already
+   * succeeded, the returned future is already done and no listeners are added to the inputs.
+   */
+  public static ListenableFuture<List<Object>> allAsList(ListenableFuture<?>... futures) {
+    Object[] values = new Object[futures.length];
+    for (int i = 0; i < futures.length; i++) {
+      ListenableFuture<?> future = futures[i];
+      if (!future.isDone() || future.isCancelled()) {
+        return Futures.<Object>allAsList(futures);
+      }
+      try {
+        values[i] = Futures.getDone(future);
+      } catch (ExecutionException e) {
+        return Futures.<Object>allAsList(futures);
+      }
+    }
+    return Futures.immediateFuture(Collections.unmodifiableList(Arrays.asList(values)));
+  }
+
+  /**
+   * Returns the value of {@code future} if it has already succeeded with a non-null value, or null
+   * if it is still pending, has failed, or has been cancelled.
+   */
+  @Nullable
+  private static <T> T getIfSucceeded(ListenableFuture<T> future) {
+    if (!future.isDone() || future.isCancelled()) {
+      return null;
+    }
+    try {
+      return Futures.getDone(future);
+    } catch (ExecutionException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Returns a future that applies {@code function} to the result of {@code input}, like {@link
+   * Futures#transformAsync(ListenableFuture, AsyncFunction, Executor)}. {@code executor} must run
+   * the tasks it is given on the calling thread.
+   *
+   * <p>If {@code input} has already succeeded, the function is applied immediately and its future
+   * is returned as is, without allocating an intermediate transformed future or listener.
+   */
+  public static <I, O> ListenableFuture<O> transformAsyncDirectly(
+      ListenableFuture<I> input, AsyncFunction<? super I, O> function, Executor executor) {
+    if (input.isDone()) {
+      I value;
+      try {
+        value = Futures.getDone(input);
+      } catch (ExecutionException | CancellationException e) {
+        // Let the transform propagate the failure or cancellation.
+        return Futures.transformAsync(input, function, executor);
+      }
+      DirectApplication<I, O> application = new DirectApplication<>(function, value);
+      executor.execute(application);
+      return checkNotNull(application.result, "%s did not run its task directly", executor);
+    }
+    return Futures.transformAsync(input, function, executor);
+  }
+
+  /** Applies an {@link AsyncFunction} to a value, capturing its result or failure as a future. */
+  private static final class DirectApplication<I, O> implements Runnable {
+    private final AsyncFunction<? super I, O> function;
+    private final I value;
+    private ListenableFuture<O> result;
+
+    DirectApplication(AsyncFunction<? super I, O> function, I value) {
+      this.function = function;
+      this.value = value;
+    }
+
+    @Override
+    public void run() {
+      try {
+        result = function.apply(value);
+        if (result == null) {
+          result =
+              Futures.immediateFailedFuture(
+                  new NullPointerException(
+                      "AsyncFunction.apply returned null instead of a Future. "
+                          + "Did you mean to return immediateFuture(null)?"));
+        }
+      } catch (Throwable t) {
+        result = Futures.immediateFailedFuture(t);
+      }
+    }
+  }
+
   /**
    * Returns a producer that immediately executes the binding logic for the given provider every
    * time it is called.
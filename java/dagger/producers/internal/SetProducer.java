@@ -17,20 +17,17 @@
 package dagger.producers.internal;
 
 import static com.google.common.base.Preconditions.checkNotNull;
-import static com.google.common.util.concurrent.Futures.transform;
-import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static dagger.internal.DaggerCollections.hasDuplicates;
 import static dagger.internal.DaggerCollections.presizedList;
 
-import com.google.common.base.Function;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import dagger.producers.Producer;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
 
 /**
  * A {@link Producer} implementation used to implement {@link Set} bindings. This producer returns
@@ -125,32 +122,28 @@ public final class SetProducer<T> extends AbstractProducer<Set<T>> {
    */
   @Override
   public ListenableFuture<Set<T>> compute() {
-    List<ListenableFuture<T>> individualFutures =
-        new ArrayList<ListenableFuture<T>>(individualProducers.size());
+    final int individualCount = individualProducers.size();
+    ListenableFuture<?>[] futures =
+        new ListenableFuture<?>[individualCount + collectionProducers.size()];
+    int index = 0;
     for (Producer<T> producer : individualProducers) {
-      individualFutures.add(checkNotNull(producer.get()));
+      futures[index++] = checkNotNull(producer.get());
     }
-
-    // Presize the list of collections produced by the amount of collectionProducers, with one more
-    // for the consolidate individualFutures from Futures.allAsList.
-    List<ListenableFuture<? extends Collection<T>>> futureCollections =
-        new ArrayList<ListenableFuture<? extends Collection<T>>>(collectionProducers.size() + 1);
-    futureCollections.add(Futures.allAsList(individualFutures));
     for (Producer<Collection<T>> producer : collectionProducers) {
-      futureCollections.add(checkNotNull(producer.get()));
+      futures[index++] = checkNotNull(producer.get());
     }
-    return transform(
-        Futures.allAsList(futureCollections),
-        new Function<List<Collection<T>>, Set<T>>() {
-          @Override
-          public Set<T> apply(List<Collection<T>> sets) {
-            ImmutableSet.Builder<T> builder = ImmutableSet.builder();
-            for (Collection<T> set : sets) {
-              builder.addAll(set);
-            }
-            return builder.build();
-          }
-        },
-        directExecutor());
+    return new FanInFuture<Set<T>>(futures, true) {
+      @Override
+      Set<T> combine() throws ExecutionException {
+        ImmutableSet.Builder<T> builder = ImmutableSet.builder();
+        for (int i = 0; i < individualCount; i++) {
+          builder.add(FanInFuture.<T>getSucceeded(inputs[i]));
+        }
+        for (int i = individualCount; i < inputs.length; i++) {
+          builder.addAll(FanInFuture.<Collection<T>>getSucceeded(inputs[i]));
+        }
+        return builder.build();
+      }
+    }.start();
   }
 }
@@ -0,0 +1,357 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.producers.monitoring;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.Ticker;
+import com.google.common.collect.MapMaker;
+import com.google.common.util.concurrent.ListenableFuture;
+import dagger.internal.Beta;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.Nullable;
+
+/**
+ * A monitor that records when each producer of a production component is requested, becomes
+ * ready, runs and completes, so that a {@link CriticalPathReport} can show which producers bounded
+ * the component's latency.
+ *
+ * <p>Producers don't tell monitors about their inputs, so the dependencies between them are
+ * inferred from the order of events. A producer's inputs are taken to be the producers that were
+ * first requested while it computed its future. The input that made a producer ready is the one of
+ * those that completed last, or, if none of its inputs were first requested by it, the producer
+ * that completed most recently on the thread that made it ready.
+ */
+@Beta
+public final class CriticalPathProductionComponentMonitor extends ProductionComponentMonitor {
+  private static final long UNSET = Long.MIN_VALUE;
+
+  private final Ticker ticker;
+  private final long startNanos;
+  private final Queue<Node> nodes = new ConcurrentLinkedQueue<>();
+  private final ThreadLocal<ThreadState> threadState =
+      new ThreadLocal<ThreadState>() {
+        @Override
+        protected ThreadState initialValue() {
+          return new ThreadState();
+        }
+      };
+
+  CriticalPathProductionComponentMonitor(Ticker ticker) {
+    this.ticker = ticker;
+    this.startNanos = ticker.read();
+  }
+
+  @Override
+  public ProducerMonitor producerMonitorFor(ProducerToken token) {
+    Node node = new Node(checkNotNull(token));
+    nodes.add(node);
+    return new NodeMonitor(node);
+  }
+
+  /** Returns a report of the producers that have been requested so far. */
+  public CriticalPathReport report() {
+    List<Node> snapshot = new ArrayList<>(nodes);
+    Map<Node, Node> predecessors = new IdentityHashMap<>();
+    Map<Node, List<Node>> dependents = new IdentityHashMap<>();
+    Node last = null;
+    for (Node node : snapshot) {
+      Node predecessor = node.predecessor();
+      predecessors.put(node, predecessor);
+      for (Node input : node.inputs) {
+        dependentsOf(dependents, input).add(node);
+      }
+      if (predecessor != null && !node.inputs.contains(predecessor)) {
+        dependentsOf(dependents, predecessor).add(node);
+      }
+      if (node.completedNanos != UNSET
+          && (last == null || node.completedNanos - last.completedNanos > 0)) {
+        last = node;
+      }
+    }
+
+    long endNanos = last == null ? UNSET : last.completedNanos;
+    Set<Node> criticalPath = Collections.newSetFromMap(new IdentityHashMap<Node, Boolean>());
+    List<Node> criticalPathOrder = new ArrayList<>();
+    for (Node node = last; node != null && criticalPath.add(node); ) {
+      criticalPathOrder.add(node);
+      node = predecessors.get(node);
+    }
+    Collections.reverse(criticalPathOrder);
+
+    Map<Node, Long> latestCompletions = new IdentityHashMap<>();
+    List<CriticalPathReport.Node> reportNodes = new ArrayList<>();
+    Map<Node, CriticalPathReport.Node> reportNodesByNode = new IdentityHashMap<>();
+    for (Node node : snapshot) {
+      long slackNanos = CriticalPathReport.UNKNOWN;
+      long completedNanos = node.completedNanos;
+      if (endNanos != UNSET && completedNanos != UNSET) {
+        long latestCompletion =
+            latestCompletion(node, endNanos, predecessors, dependents, latestCompletions);
+        slackNanos = Math.max(0, latestCompletion - completedNanos);
+      }
+      CriticalPathReport.Node reportNode =
+          node.snapshot(
+              startNanos, predecessors.get(node), slackNanos, criticalPath.contains(node));
+      reportNodes.add(reportNode);
+      reportNodesByNode.put(node, reportNode);
+    }
+    List<CriticalPathReport.Node> reportCriticalPath = new ArrayList<>();
+    for (Node node : criticalPathOrder) {
+      reportCriticalPath.add(reportNodesByNode.get(node));
+    }
+    return new CriticalPathReport(reportNodes, reportCriticalPath);
+  }
+
+  private static List<Node> dependentsOf(Map<Node, List<Node>> dependents, Node node) {
+    List<Node> nodeDependents = dependents.get(node);
+    if (nodeDependents == null) {
+      nodeDependents = new ArrayList<>();
+      dependents.put(node, nodeDependents);
+    }
+    return nodeDependents;
+  }
+
+  /**
+   * Returns the latest time at which {@code node} could have completed without delaying the last
+   * producer to complete. Each dependent is assumed to take as long as it did after the input that
+   * made it ready completed.
+   */
+  private static long latestCompletion(
+      Node node,
+      long endNanos,
+      Map<Node, Node> predecessors,
+      Map<Node, List<Node>> dependents,
+      Map<Node, Long> memo) {
+    Long memoized = memo.get(node);
+    if (memoized != null) {
+      return memoized;
+    }
+    // Guards against cycles, which the inferred dependencies don't rule out.
+    memo.put(node, endNanos);
+    long latest = endNanos;
+    List<Node> nodeDependents = dependents.get(node);
+    if (nodeDependents != null) {
+      for (Node dependent : nodeDependents) {
+        long completedNanos = dependent.completedNanos;
+        long readyNanos = dependent.readyNanos;
+        if (completedNanos == UNSET || readyNanos == UNSET) {
+          continue;
+        }
+        Node predecessor = predecessors.get(dependent);
+        if (predecessor != null && predecessor.completedNanos != UNSET) {
+          readyNanos = predecessor.completedNanos;
+        }
+        long spanNanos = completedNanos - readyNanos;
+        latest =
+            Math.min(
+                latest,
+                latestCompletion(dependent, endNanos, predecessors, dependents, memo) - spanNanos);
+      }
+    }
+    memo.put(node, latest);
+    return latest;
+  }
+
+  private final class NodeMonitor extends ProducerMonitor {
+    private final Node node;
+
+    NodeMonitor(Node node) {
+      this.node = node;
+    }
+
+    @Override
+    public void requested() {
+      node.requestedNanos = ticker.read();
+      ThreadState state = threadState.get();
+      Node requester = state.computing.peek();
+      if (requester != null) {
+        requester.inputs.add(node);
+      }
+      state.computing.push(node);
+      state.lastCompleted = null;
+    }
+
+    @Override
+    public <T> void addCallbackTo(ListenableFuture<T> future) {
+      // This is called as soon as the producer has computed its future, which ends the window in
+      // which the producers it requests are its inputs.
+      ArrayDeque<Node> computing = threadState.get().computing;
+      if (computing.contains(node)) {
+        while (computing.pop() != node) {}
+      }
+      super.addCallbackTo(future);
+    }
+
+    @Override
+    public void ready() {
+      node.readyNanos = ticker.read();
+      Node lastCompleted = threadState.get().lastCompleted;
+      if (lastCompleted != node) {
+        node.trigger = lastCompleted;
+      }
+    }
+
+    @Override
+    public void methodStarting() {
+      node.threadId = Thread.currentThread().getId();
+      node.startedNanos = ticker.read();
+    }
+
+    @Override
+    public void methodFinished() {
+      node.finishedNanos = ticker.read();
+    }
+
+    @Override
+    public void succeeded(Object value) {
+      completed(true);
+    }
+
+    @Override
+    public void failed(Throwable t) {
+      completed(false);
+    }
+
+    private void completed(boolean succeeded) {
+      node.succeeded = succeeded;
+      node.completedNanos = ticker.read();
+      threadState.get().lastCompleted = node;
+    }
+  }
+
+  /**
+   * The events of a single producer. Each is written once, by whichever thread the event happens
+   * on. Nodes don't refer back to the monitor, so that the {@link #threadState} of a monitor that
+   * is no longer used can be collected.
+   */
+  private static final class Node {
+    final ProducerToken token;
+    final Queue<Node> inputs = new ConcurrentLinkedQueue<>();
+    volatile long requestedNanos = UNSET;
+    volatile long readyNanos = UNSET;
+    volatile long startedNanos = UNSET;
+    volatile long finishedNanos = UNSET;
+    volatile long completedNanos = UNSET;
+    volatile long threadId = -1;
+    volatile boolean succeeded;
+    @Nullable volatile Node trigger;
+
+    Node(ProducerToken token) {
+      this.token = token;
+    }
+
+    /** Returns the input whose completion made this producer ready, if known. */
+    @Nullable
+    Node predecessor() {
+      long ready = readyNanos;
+      if (ready == UNSET) {
+        return null;
+      }
+      Node latest = null;
+      for (Node input : inputs) {
+        long completed = input.completedNanos;
+        if (completed != UNSET
+            && completed - ready <= 0
+            && (latest == null || completed - latest.completedNanos > 0)) {
+          latest = input;
+        }
+      }
+      return latest != null ? latest : trigger;
+    }
+
+    CriticalPathReport.Node snapshot(
+        long startNanos, @Nullable Node predecessor, long slackNanos, boolean onCriticalPath) {
+      List<ProducerToken> inputTokens = new ArrayList<>();
+      for (Node input : inputs) {
+        inputTokens.add(input.token);
+      }
+      return new CriticalPathReport.Node(
+          token,
+          predecessor == null ? null : predecessor.token,
+          inputTokens,
+          relative(requestedNanos, startNanos),
+          relative(readyNanos, startNanos),
+          relative(startedNanos, startNanos),
+          relative(finishedNanos, startNanos),
+          relative(completedNanos, startNanos),
+          threadId,
+          succeeded,
+          slackNanos,
+          onCriticalPath);
+    }
+
+    private static long relative(long nanos, long startNanos) {
+      return nanos == UNSET ? CriticalPathReport.UNKNOWN : nanos - startNanos;
+    }
+  }
+
+  /** The monitor's state for the current thread. */
+  private static final class ThreadState {
+    /** The producers that are computing their futures on this thread, innermost first. */
+    final ArrayDeque<Node> computing = new ArrayDeque<>();
+    /** The producer that most recently completed on this thread, since the last request. */
+    @Nullable Node lastCompleted;
+  }
+
+  /**
+   * A factory for {@link CriticalPathProductionComponentMonitor}s, which keeps the monitor of each
+   * component it has created so that its {@linkplain #reportFor report} can be retrieved.
+   */
+  public static final class Factory extends ProductionComponentMonitor.Factory {
+    private final Ticker ticker;
+    private final ConcurrentMap<Object, CriticalPathProductionComponentMonitor> monitors =
+        new MapMaker().weakKeys().makeMap();
+
+    public Factory() {
+      this(Ticker.systemTicker());
+    }
+
+    Factory(Ticker ticker) {
+      this.ticker = checkNotNull(ticker);
+    }
+
+    @Override
+    public ProductionComponentMonitor create(Object component) {
+      CriticalPathProductionComponentMonitor monitor =
+          new CriticalPathProductionComponentMonitor(ticker);
+      monitors.put(component, monitor);
+      return monitor;
+    }
+
+    /**
+     * Returns a report of the producers that the given component has requested so far.
+     *
+     * @throws IllegalArgumentException if this factory didn't create a monitor for the component
+     */
+    public CriticalPathReport reportFor(Object component) {
+      CriticalPathProductionComponentMonitor monitor = monitors.get(component);
+      checkArgument(monitor != null, "No monitor was created for %s", component);
+      return monitor.report();
+    }
+  }
+}
@@ -0,0 +1,272 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.producers.monitoring;
+
+import com.google.common.collect.ImmutableList;
+import dagger.internal.Beta;
+import java.util.List;
+import javax.annotation.Nullable;
+
+/**
+ * The timings of the producers of a production component, as recorded by a {@link
+ * CriticalPathProductionComponentMonitor}.
+ *
+ * <p>The critical path is the chain of producers that ends with the last producer to complete, in
+ * which each producer is the input whose completion made the next one ready. Speeding up anything
+ * else doesn't make the component any faster.
+ *
+ * <p>All times are in nanoseconds since the component's monitor was created, and are {@link
+ * #UNKNOWN} for events that haven't happened.
+ */
+@Beta
+public final class CriticalPathReport {
+  /** The value of times and durations for events that haven't happened. */
+  public static final long UNKNOWN = -1;
+
+  private final ImmutableList<Node> nodes;
+  private final ImmutableList<Node> criticalPath;
+
+  CriticalPathReport(List<Node> nodes, List<Node> criticalPath) {
+    this.nodes = ImmutableList.copyOf(nodes);
+    this.criticalPath = ImmutableList.copyOf(criticalPath);
+  }
+
+  /** Returns every producer that has been requested, in the order that they were requested. */
+  public ImmutableList<Node> nodes() {
+    return nodes;
+  }
+
+  /**
+   * Returns the producers on the critical path, starting with the one that the rest of the path
+   * waited on and ending with the last producer to complete.
+   */
+  public ImmutableList<Node> criticalPath() {
+    return criticalPath;
+  }
+
+  /**
+   * Returns the report in the <a
+   * href="https://github.com/catapult-project/catapult/tree/master/tracing">Trace Event Format</a>,
+   * which can be loaded in {@code chrome://tracing}.
+   *
+   * <p>Each producer that ran is shown as a slice on the thread that ran it, covering the time that
+   * its method ran; producers on the critical path have the category {@code critical}. Producers
+   * that were skipped because an input failed are shown as instant events.
+   */
+  public String toChromeTraceJson() {
+    StringBuilder json = new StringBuilder("{\"traceEvents\":[");
+    String separator = "";
+    for (Node node : nodes) {
+      if (node.completedNanos() == UNKNOWN) {
+        continue;
+      }
+      json.append(separator);
+      separator = ",";
+      json.append("{\"name\":");
+      appendString(json, node.token().toString());
+      json.append(",\"cat\":\"").append(node.isOnCriticalPath() ? "critical" : "producer");
+      if (node.startedNanos() != UNKNOWN) {
+        json.append("\",\"ph\":\"X\",\"ts\":");
+        appendMicros(json, node.startedNanos());
+        json.append(",\"dur\":");
+        appendMicros(json, Math.max(0, node.methodNanos()));
+        json.append(",\"tid\":").append(node.threadId());
+      } else {
+        json.append("\",\"ph\":\"i\",\"s\":\"p\",\"ts\":");
+        appendMicros(json, node.completedNanos());
+        json.append(",\"tid\":0");
+      }
+      json.append(",\"pid\":1,\"args\":{\"succeeded\":").append(node.succeeded());
+      if (node.predecessor() != null) {
+        json.append(",\"predecessor\":");
+        appendString(json, node.predecessor().toString());
+      }
+      json.append(",\"inputWaitNanos\":").append(node.inputWaitNanos());
+      json.append(",\"queueingNanos\":").append(node.queueingNanos());
+      json.append(",\"slackNanos\":").append(node.slackNanos());
+      json.append("}}");
+    }
+    return json.append("]}").toString();
+  }
+
+  private static void appendMicros(StringBuilder json, long nanos) {
+    long fraction = nanos % 1000;
+    json.append(nanos / 1000).append('.');
+    if (fraction < 100) {
+      json.append(fraction < 10 ? "00" : "0");
+    }
+    json.append(fraction);
+  }
+
+  private static void appendString(StringBuilder json, String value) {
+    json.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '"' || c == '\\') {
+        json.append('\\').append(c);
+      } else if (c < 0x20) {
+        json.append(String.format("\\u%04x", (int) c));
+      } else {
+        json.append(c);
+      }
+    }
+    json.append('"');
+  }
+
+  /** The timings of a single producer. */
+  public static final class Node {
+    private final ProducerToken token;
+    @Nullable private final ProducerToken predecessor;
+    private final ImmutableList<ProducerToken> inputs;
+    private final long requestedNanos;
+    private final long readyNanos;
+    private final long startedNanos;
+    private final long finishedNanos;
+    private final long completedNanos;
+    private final long threadId;
+    private final boolean succeeded;
+    private final long slackNanos;
+    private final boolean onCriticalPath;
+
+    Node(
+        ProducerToken token,
+        @Nullable ProducerToken predecessor,
+        List<ProducerToken> inputs,
+        long requestedNanos,
+        long readyNanos,
+        long startedNanos,
+        long finishedNanos,
+        long completedNanos,
+        long threadId,
+        boolean succeeded,
+        long slackNanos,
+        boolean onCriticalPath) {
+      this.token = token;
+      this.predecessor = predecessor;
+      this.inputs = ImmutableList.copyOf(inputs);
+      this.requestedNanos = requestedNanos;
+      this.readyNanos = readyNanos;
+      this.startedNanos = startedNanos;
+      this.finishedNanos = finishedNanos;
+      this.completedNanos = completedNanos;
+      this.threadId = threadId;
+      this.succeeded = succeeded;
+      this.slackNanos = slackNanos;
+      this.onCriticalPath = onCriticalPath;
+    }
+
+    /** Returns the token of the producer. */
+    public ProducerToken token() {
+      return token;
+    }
+
+    /**
+     * Returns the token of the input whose completion made this producer ready, or null if it
+     * isn't known or the producer hasn't become ready.
+     */
+    @Nullable
+    public ProducerToken predecessor() {
+      return predecessor;
+    }
+
+    /** Returns the tokens of the producers that this producer was the first to request. */
+    public ImmutableList<ProducerToken> inputs() {
+      return inputs;
+    }
+
+    /** Returns when the producer was first requested. */
+    public long requestedNanos() {
+      return requestedNanos;
+    }
+
+    /** Returns when all of the producer's inputs were available. */
+    public long readyNanos() {
+      return readyNanos;
+    }
+
+    /** Returns when the producer's method started. */
+    public long startedNanos() {
+      return startedNanos;
+    }
+
+    /** Returns when the producer's method returned. */
+    public long finishedNanos() {
+      return finishedNanos;
+    }
+
+    /** Returns when the producer's future completed. */
+    public long completedNanos() {
+      return completedNanos;
+    }
+
+    /** Returns the {@linkplain Thread#getId() ID} of the thread that ran the producer's method. */
+    public long threadId() {
+      return threadId;
+    }
+
+    /** Returns true if the producer has completed successfully. */
+    public boolean succeeded() {
+      return succeeded;
+    }
+
+    /** Returns how long the producer waited for its inputs after it was requested. */
+    public long inputWaitNanos() {
+      return between(requestedNanos, readyNanos);
+    }
+
+    /** Returns how long the producer waited for its executor after its inputs were available. */
+    public long queueingNanos() {
+      return between(readyNanos, startedNanos);
+    }
+
+    /** Returns how long the producer's method ran. */
+    public long methodNanos() {
+      return between(startedNanos, finishedNanos);
+    }
+
+    /**
+     * Returns how much later the producer could have completed without delaying the last producer
+     * to complete. This is zero for producers on the critical path.
+     */
+    public long slackNanos() {
+      return slackNanos;
+    }
+
+    /** Returns true if the producer is on the critical path. */
+    public boolean isOnCriticalPath() {
+      return onCriticalPath;
+    }
+
+    private static long between(long fromNanos, long toNanos) {
+      return fromNanos == UNKNOWN || toNanos == UNKNOWN ? UNKNOWN : toNanos - fromNanos;
+    }
+
+    @Override
+    public String toString() {
+      return token
+          + " [inputWait="
+          + inputWaitNanos()
+          + "ns, queueing="
+          + queueingNanos()
+          + "ns, method="
+          + methodNanos()
+          + "ns, slack="
+          + slackNanos
+          + "ns]";
+    }
+  }
+}
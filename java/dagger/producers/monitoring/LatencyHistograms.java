@@ -0,0 +1,272 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.producers.monitoring;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.collect.ImmutableMap;
+import dagger.internal.Beta;
+import dagger.producers.Produces;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A timing recorder factory that aggregates the latency of each {@linkplain Produces producer
+ * method}, across every component it is installed in, into histograms.
+ *
+ * <p>Recording never blocks: each histogram is striped across threads, and each stripe is updated
+ * with atomic increments. Latencies are bucketed log-linearly, with 32 buckets for each power of
+ * two, so that percentiles are reported to within about 3% of the recorded latencies. Latencies
+ * above about 18 minutes are recorded as 18 minutes.
+ */
+@Beta
+public final class LatencyHistograms implements ProductionComponentTimingRecorder.Factory {
+  private static final int SUB_BUCKET_BITS = 5;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final long MAX_LATENCY_NANOS = (1L << 40) - 1;
+  private static final int BUCKETS = bucket(MAX_LATENCY_NANOS) + 1;
+
+  // The stripe slots after the buckets. The buckets count both successes and failures, so the
+  // number of successes isn't recorded separately.
+  private static final int FAILURES = BUCKETS;
+  private static final int SKIPS = BUCKETS + 1;
+  private static final int TOTAL_NANOS = BUCKETS + 2;
+  private static final int MAX_NANOS = BUCKETS + 3;
+  private static final int STRIPE_LENGTH = BUCKETS + 4;
+
+  private static final int STRIPES =
+      Math.min(16, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1));
+
+  private final ConcurrentMap<ProducerToken, Histogram> histograms = new ConcurrentHashMap<>();
+  private final ProductionComponentTimingRecorder componentRecorder =
+      new ProductionComponentTimingRecorder() {
+        @Override
+        public ProducerTimingRecorder producerTimingRecorderFor(ProducerToken token) {
+          Histogram histogram = histograms.get(token);
+          if (histogram == null) {
+            Histogram newHistogram = new Histogram();
+            histogram = histograms.putIfAbsent(token, newHistogram);
+            if (histogram == null) {
+              histogram = newHistogram;
+            }
+          }
+          return histogram;
+        }
+      };
+
+  @Override
+  public ProductionComponentTimingRecorder create(Object component) {
+    return componentRecorder;
+  }
+
+  /** Returns the latencies recorded for each producer method. */
+  public ImmutableMap<ProducerToken, Snapshot> snapshot() {
+    return snapshot(false);
+  }
+
+  /**
+   * Returns the latencies recorded for each producer method, and starts recording them afresh.
+   * Each latency that is recorded concurrently is included in either this snapshot or the next.
+   */
+  public ImmutableMap<ProducerToken, Snapshot> snapshotAndReset() {
+    return snapshot(true);
+  }
+
+  private ImmutableMap<ProducerToken, Snapshot> snapshot(boolean reset) {
+    ImmutableMap.Builder<ProducerToken, Snapshot> snapshots = ImmutableMap.builder();
+    for (Map.Entry<ProducerToken, Histogram> entry : histograms.entrySet()) {
+      snapshots.put(entry.getKey(), entry.getValue().snapshot(reset));
+    }
+    return snapshots.build();
+  }
+
+  /** Returns the index of the bucket that {@code nanos} is recorded in. */
+  private static int bucket(long nanos) {
+    // Values below 2 * SUB_BUCKETS each have their own bucket; above that, each power of two is
+    // split into SUB_BUCKETS buckets.
+    int shift = Math.max(0, 63 - Long.numberOfLeadingZeros(nanos) - SUB_BUCKET_BITS);
+    return (shift << SUB_BUCKET_BITS) + (int) (nanos >>> shift);
+  }
+
+  /** Returns the largest value that is recorded in {@code bucket}. */
+  private static long highestValueIn(int bucket) {
+    if (bucket < 2 * SUB_BUCKETS) {
+      return bucket;
+    }
+    int shift = (bucket >>> SUB_BUCKET_BITS) - 1;
+    long lowest = (long) (bucket - (shift << SUB_BUCKET_BITS)) << shift;
+    return lowest + (1L << shift) - 1;
+  }
+
+  /** The histogram of one producer method. */
+  private static final class Histogram extends ProducerTimingRecorder {
+    private final AtomicReferenceArray<AtomicLongArray> stripes =
+        new AtomicReferenceArray<>(STRIPES);
+
+    @Override
+    public void recordSuccess(long latencyNanos) {
+      record(latencyNanos);
+    }
+
+    @Override
+    public void recordFailure(Throwable exception, long latencyNanos) {
+      record(latencyNanos).incrementAndGet(FAILURES);
+    }
+
+    @Override
+    public void recordSkip(Throwable exception) {
+      stripe().incrementAndGet(SKIPS);
+    }
+
+    /** Records a latency, and returns the stripe that it was recorded in. */
+    private AtomicLongArray record(long latencyNanos) {
+      long nanos = Math.min(Math.max(0, latencyNanos), MAX_LATENCY_NANOS);
+      AtomicLongArray stripe = stripe();
+      stripe.incrementAndGet(bucket(nanos));
+      stripe.addAndGet(TOTAL_NANOS, nanos);
+      for (long max = stripe.get(MAX_NANOS); nanos > max; max = stripe.get(MAX_NANOS)) {
+        if (stripe.compareAndSet(MAX_NANOS, max, nanos)) {
+          break;
+        }
+      }
+      return stripe;
+    }
+
+    /** Returns the current thread's stripe, creating it if necessary. */
+    private AtomicLongArray stripe() {
+      // Thread IDs are sequential, so spread them with the golden ratio before masking.
+      long id = Thread.currentThread().getId() * 0x9E3779B97F4A7C15L;
+      int index = (int) (id >>> 32) & (STRIPES - 1);
+      AtomicLongArray stripe = stripes.get(index);
+      if (stripe == null) {
+        stripes.compareAndSet(index, null, new AtomicLongArray(STRIPE_LENGTH));
+        stripe = stripes.get(index);
+      }
+      return stripe;
+    }
+
+    Snapshot snapshot(boolean reset) {
+      long[] values = new long[STRIPE_LENGTH];
+      for (int i = 0; i < STRIPES; i++) {
+        AtomicLongArray stripe = stripes.get(i);
+        if (stripe == null) {
+          continue;
+        }
+        for (int slot = 0; slot < STRIPE_LENGTH; slot++) {
+          long value = reset ? stripe.getAndSet(slot, 0) : stripe.get(slot);
+          values[slot] = slot == MAX_NANOS ? Math.max(values[slot], value) : values[slot] + value;
+        }
+      }
+      return new Snapshot(values);
+    }
+  }
+
+  /** The latencies recorded for a producer method. */
+  public static final class Snapshot {
+    private final long[] buckets;
+    private final long count;
+    private final long failures;
+    private final long skips;
+    private final long totalNanos;
+    private final long maxNanos;
+
+    Snapshot(long[] values) {
+      this.buckets = Arrays.copyOf(values, BUCKETS);
+      long count = 0;
+      for (long bucketCount : buckets) {
+        count += bucketCount;
+      }
+      this.count = count;
+      this.failures = values[FAILURES];
+      this.skips = values[SKIPS];
+      this.totalNanos = values[TOTAL_NANOS];
+      this.maxNanos = values[MAX_NANOS];
+    }
+
+    /** Returns the number of times the producer succeeded. */
+    public long successes() {
+      return count - failures;
+    }
+
+    /** Returns the number of times the producer failed. */
+    public long failures() {
+      return failures;
+    }
+
+    /** Returns the number of times the producer was skipped because an input failed. */
+    public long skips() {
+      return skips;
+    }
+
+    /** Returns the number of latencies recorded, which is the successes and the failures. */
+    public long count() {
+      return count;
+    }
+
+    /** Returns the mean latency, or 0 if none has been recorded. */
+    public long meanNanos() {
+      return count == 0 ? 0 : totalNanos / count;
+    }
+
+    /** Returns the highest latency, or 0 if none has been recorded. */
+    public long maxNanos() {
+      return maxNanos;
+    }
+
+    /**
+     * Returns the latency that {@code percentile} percent of the recorded latencies are at or
+     * below, or 0 if none has been recorded. For example, {@code percentileNanos(99.9)} is the
+     * p999 latency.
+     */
+    public long percentileNanos(double percentile) {
+      checkArgument(
+          percentile >= 0 && percentile <= 100, "percentile must be in [0, 100]: %s", percentile);
+      long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+      long seen = 0;
+      for (int bucket = 0; bucket < buckets.length; bucket++) {
+        seen += buckets[bucket];
+        if (seen >= rank) {
+          return Math.min(highestValueIn(bucket), maxNanos);
+        }
+      }
+      return 0;
+    }
+
+    @Override
+    public String toString() {
+      return "count="
+          + count()
+          + ", failures="
+          + failures
+          + ", skips="
+          + skips
+          + ", p50="
+          + percentileNanos(50)
+          + "ns, p99="
+          + percentileNanos(99)
+          + "ns, p999="
+          + percentileNanos(99.9)
+          + "ns, max="
+          + maxNanos
+          + "ns";
+    }
+  }
+}
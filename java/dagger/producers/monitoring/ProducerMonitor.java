@@ -17,12 +17,15 @@
 package dagger.producers.monitoring;
 
 import static com.google.common.util.concurrent.Futures.addCallback;
+import static com.google.common.util.concurrent.Futures.getDone;
 import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.ListenableFuture;
 import dagger.producers.Producer;
 import dagger.producers.Produces;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 
 /**
  * A hook for monitoring the execution of individual {@linkplain Produces producer methods}. See
@@ -162,6 +165,21 @@ public abstract class ProducerMonitor {
    * overridden in the framework!
    */
   public <T> void addCallbackTo(ListenableFuture<T> future) {
+    if (future.isDone()) {
+      // Report already-completed futures inline rather than allocating a callback and listener.
+      T value;
+      try {
+        value = getDone(future);
+      } catch (ExecutionException e) {
+        failed(e.getCause());
+        return;
+      } catch (CancellationException e) {
+        failed(e);
+        return;
+      }
+      succeeded(value);
+      return;
+    }
     addCallback(
         future,
         new FutureCallback<T>() {
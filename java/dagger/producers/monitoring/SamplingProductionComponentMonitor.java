@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.producers.monitoring;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.util.concurrent.Futures.getDone;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListenableFuture;
+import dagger.internal.Beta;
+import dagger.producers.monitoring.internal.Monitors;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A monitor for a production component that wasn't sampled by a {@link
+ * SamplingProductionComponentMonitor.Factory}. Its producers are only watched for failures.
+ *
+ * <p>Until a producer fails, the delegate factory isn't called at all. When one does, the delegate
+ * creates a monitor for the component, and the failure, as well as the failures of the producers
+ * that are skipped because of it, are reported to that monitor. Those monitors are only told that
+ * the producer {@linkplain ProducerMonitor#failed failed}, without the calls that usually precede
+ * that. Producers that are requested after the first failure are monitored in full.
+ */
+@Beta
+public final class SamplingProductionComponentMonitor extends ProductionComponentMonitor {
+  private final ProductionComponentMonitor.Factory delegateFactory;
+  private final Object component;
+  private volatile ProductionComponentMonitor delegate;
+
+  private SamplingProductionComponentMonitor(
+      ProductionComponentMonitor.Factory delegateFactory, Object component) {
+    this.delegateFactory = delegateFactory;
+    this.component = component;
+  }
+
+  @Override
+  public ProducerMonitor producerMonitorFor(ProducerToken token) {
+    ProductionComponentMonitor delegate = this.delegate;
+    return delegate == null
+        ? new FailureProducerMonitor(token)
+        : delegate.producerMonitorFor(token);
+  }
+
+  /** Returns the delegate's monitor for the component, creating it if necessary. */
+  private ProductionComponentMonitor delegate() {
+    ProductionComponentMonitor result = delegate;
+    if (result == null) {
+      synchronized (this) {
+        result = delegate;
+        if (result == null) {
+          // The delegate isn't called from the framework's non-throwing wrappers here, so wrap it.
+          delegate =
+              result =
+                  Monitors.delegatingProductionComponentMonitorFactory(
+                          ImmutableList.of(delegateFactory))
+                      .create(component);
+        }
+      }
+    }
+    return result;
+  }
+
+  /** A producer monitor that only reports failures, and is its own listener. */
+  private final class FailureProducerMonitor extends ProducerMonitor implements Runnable {
+    private final ProducerToken token;
+    private ListenableFuture<?> future;
+
+    FailureProducerMonitor(ProducerToken token) {
+      this.token = token;
+    }
+
+    @Override
+    public <T> void addCallbackTo(ListenableFuture<T> future) {
+      this.future = future;
+      future.addListener(this, directExecutor());
+    }
+
+    @Override
+    public void run() {
+      try {
+        getDone(future);
+      } catch (ExecutionException e) {
+        failed(e.getCause());
+      } catch (CancellationException e) {
+        failed(e);
+      }
+    }
+
+    @Override
+    public void failed(Throwable t) {
+      delegate().producerMonitorFor(token).failed(t);
+    }
+  }
+
+  /**
+   * A monitor factory that samples components, so that deep monitoring can be left on with a small
+   * fraction of its cost.
+   *
+   * <p>Whether a component is sampled is decided once, when its monitor is created. Sampled
+   * components are monitored by the delegate factory's monitor. Components that aren't sampled are
+   * monitored by a {@link SamplingProductionComponentMonitor}, which only registers a listener for
+   * each producer's result, and calls the delegate if a producer fails.
+   */
+  public static final class Factory extends ProductionComponentMonitor.Factory {
+    private final ProductionComponentMonitor.Factory delegate;
+    private final double samplingRate;
+
+    /**
+     * Creates a factory that samples components at {@code samplingRate}, which is the probability
+     * between 0 and 1 that each component is sampled. For example, a rate of 0.01 samples one
+     * component in 100.
+     */
+    public Factory(ProductionComponentMonitor.Factory delegate, double samplingRate) {
+      checkArgument(
+          samplingRate >= 0 && samplingRate <= 1,
+          "samplingRate must be in [0, 1]: %s",
+          samplingRate);
+      this.delegate = checkNotNull(delegate);
+      this.samplingRate = samplingRate;
+    }
+
+    @Override
+    public ProductionComponentMonitor create(Object component) {
+      // nextDouble() is in [0, 1), so a rate of 0 never samples and a rate of 1 always does.
+      if (ThreadLocalRandom.current().nextDouble() < samplingRate) {
+        return delegate.create(component);
+      }
+      return new SamplingProductionComponentMonitor(delegate, component);
+    }
+  }
+}
@@ -58,13 +58,20 @@ public final class Monitors {
   /**
    * Creates a new monitor for the given component, from a set of monitor factories. This will not
    * throw a {@link RuntimeException} or return null.
+   *
+   * <p>If there are no factories, this returns the {@linkplain ProductionComponentMonitor#noOp()
+   * no-op monitor} without getting the component.
    */
   public static ProductionComponentMonitor createMonitorForComponent(
       Provider<?> componentProvider,
       Provider<Set<ProductionComponentMonitor.Factory>> monitorFactorySetProvider) {
     try {
+      Set<ProductionComponentMonitor.Factory> factories = monitorFactorySetProvider.get();
+      if (factories.isEmpty()) {
+        return ProductionComponentMonitor.noOp();
+      }
       ProductionComponentMonitor.Factory factory =
-          delegatingProductionComponentMonitorFactory(monitorFactorySetProvider.get());
+          delegatingProductionComponentMonitorFactory(factories);
       return factory.create(componentProvider.get());
     } catch (RuntimeException e) {
       logger.log(Level.SEVERE, "RuntimeException while constructing monitor factories.", e);
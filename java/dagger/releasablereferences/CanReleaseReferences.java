@@ -53,8 +53,9 @@ import java.lang.annotation.Target;
  *   {@literal @Scope}
  *   public {@literal @interface} MyScope {}</pre>
  *
- * <p><b>Note:</b>Releasable references uses Java's {@link java.lang.ref.WeakReference}, and so is
- * not compatible with <a href="http://www.gwtproject.org/">GWT</a>.
+ * <p><b>Note:</b>Releasable references uses Java's {@link java.lang.ref.WeakReference} and {@link
+ * java.lang.ref.SoftReference}, and so is not compatible with <a
+ * href="http://www.gwtproject.org/">GWT</a>.
  *
  * @since 2.8
  */
@@ -62,4 +63,24 @@ import java.lang.annotation.Target;
 @Documented
 @GwtIncompatible
 @Target(ANNOTATION_TYPE)
-public @interface CanReleaseReferences {}
+public @interface CanReleaseReferences {
+  /**
+   * The kind of reference that providers in the scope keep to their values after their strong
+   * references are released.
+   *
+   * <p>If a scope is annotated with more than one {@code CanReleaseReferences} annotation, directly
+   * or through its metadata annotations, {@link ReferenceRetention#SOFT} is used if any of them
+   * asks for it.
+   */
+  ReferenceRetention retention() default ReferenceRetention.WEAK;
+
+  /**
+   * The number of providers in the scope that keep their strong references when {@link
+   * ReleasableReferenceManager#releaseStrongReferences()} is called. The providers whose values
+   * were most recently returned are the ones that keep them. Must not be negative.
+   *
+   * <p>If a scope is annotated with more than one {@code CanReleaseReferences} annotation, directly
+   * or through its metadata annotations, the largest value is used.
+   */
+  int retainedStrongReferences() default 0;
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.releasablereferences;
+
+import dagger.internal.Beta;
+import dagger.internal.GwtIncompatible;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+
+/**
+ * The kind of reference that a provider in a {@link CanReleaseReferences @CanReleaseReferences}
+ * scope keeps to its value after its strong reference has been {@linkplain
+ * ReleasableReferenceManager#releaseStrongReferences() released}.
+ *
+ * @see CanReleaseReferences#retention()
+ */
+@Beta
+@GwtIncompatible
+public enum ReferenceRetention {
+  /**
+   * Keeps a {@link WeakReference}, so the value can be collected as soon as nothing else refers to
+   * it strongly.
+   */
+  WEAK,
+
+  /**
+   * Keeps a {@link SoftReference}, so the value is collected only when the garbage collector needs
+   * the memory. This trades memory for fewer re-creations of released values.
+   */
+  SOFT,
+}
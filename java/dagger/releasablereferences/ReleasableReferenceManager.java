@@ -20,6 +20,7 @@ import dagger.internal.Beta;
 import dagger.internal.GwtIncompatible;
 import java.lang.annotation.Annotation;
 import java.lang.ref.WeakReference;
+import java.util.concurrent.Executor;
 import javax.inject.Provider;
 
 /**
@@ -62,6 +63,11 @@ import javax.inject.Provider;
  * #scope()} that is in <b>weak-reference</b> state, that provider transitions to <b>cleared</b>
  * state.
  *
+ * <p>A scope's {@link CanReleaseReferences#retention()} can replace the {@link WeakReference}s with
+ * {@link java.lang.ref.SoftReference}s, and its {@link
+ * CanReleaseReferences#retainedStrongReferences()} can exempt the most recently used providers from
+ * {@link #releaseStrongReferences()}.
+ *
  * <p><img src="doc-files/ReleasableReferenceManager-statemachine.png"
  * alt="ReleasableReferenceManager state machine">
  *
@@ -89,10 +95,24 @@ public interface ReleasableReferenceManager {
    */
   void releaseStrongReferences();
 
+  /**
+   * Does the same as {@link #releaseStrongReferences()}, but may split the work into tasks that
+   * run on {@code executor}. Returns after every provider has been released. Tasks that {@code
+   * executor} rejects are run on the calling thread.
+   */
+  void releaseStrongReferences(Executor executor);
+
   /**
    * Restores strong references for all providers in this {@linkplain #scope() scope} that were
    * previously {@linkplain #releaseStrongReferences() released} but whose {@link WeakReference} has
    * not yet been cleared during garbage collection.
    */
   void restoreStrongReferences();
+
+  /**
+   * Does the same as {@link #restoreStrongReferences()}, but may split the work into tasks that
+   * run on {@code executor}. Returns after every provider has been restored. Tasks that {@code
+   * executor} rejects are run on the calling thread.
+   */
+  void restoreStrongReferences(Executor executor);
 }
@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.benchmarks;
+
+import static com.google.testing.compile.Compiler.javac;
+
+import com.google.common.collect.ImmutableList;
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import dagger.internal.codegen.ComponentProcessor;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.tools.JavaFileObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for compiling a hierarchy of subcomponents with the Dagger processor, to show how the
+ * time to resolve the graphs scales with the depth and width of the hierarchy.
+ *
+ * <p>The root component has {@code width} subcomponents, the first of which has {@code width}
+ * subcomponents of its own, and so on for {@code depth} levels, for {@code depth * width}
+ * subcomponents in all. Each component has {@value #BINDINGS_PER_COMPONENT} bindings, each of
+ * which depends on the binding with the same index in the component's parent, so that every
+ * subcomponent inherits the bindings of all of its ancestors.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class ComponentHierarchyBenchmark {
+  static final int BINDINGS_PER_COMPONENT = 10;
+
+  @Param({"1", "2", "4", "8"})
+  int depth;
+
+  @Param({"1", "10", "40"})
+  int width;
+
+  private ImmutableList<JavaFileObject> sources;
+
+  @Setup
+  public void setUp() {
+    sources = hierarchy(depth, width);
+  }
+
+  @Benchmark
+  public Compilation compile() {
+    Compilation compilation = javac().withProcessors(new ComponentProcessor()).compile(sources);
+    if (!compilation.status().equals(Compilation.Status.SUCCESS)) {
+      throw new AssertionError(compilation.errors());
+    }
+    return compilation;
+  }
+
+  /** Returns the sources of a hierarchy of components as described in the class documentation. */
+  static ImmutableList<JavaFileObject> hierarchy(int depth, int width) {
+    ImmutableList.Builder<JavaFileObject> sources = ImmutableList.builder();
+    String parent = null;
+    String component = "Root";
+    for (int level = 0; level <= depth; level++) {
+      List<String> children = new ArrayList<>();
+      if (level < depth) {
+        for (int i = 0; i < width; i++) {
+          children.add("Sub" + (level + 1) + "_" + i);
+        }
+      }
+      sources.add(component(component, parent, children));
+      if (level > 0) {
+        // The siblings of the component that continues the hierarchy have no children.
+        for (int i = 1; i < width; i++) {
+          sources.add(component("Sub" + level + "_" + i, parent, ImmutableList.<String>of()));
+        }
+      }
+      if (!children.isEmpty()) {
+        parent = component;
+        component = children.get(0);
+      }
+    }
+    return sources.build();
+  }
+
+  private static JavaFileObject component(String name, String parent, List<String> children) {
+    StringBuilder source = new StringBuilder();
+    source
+        .append("package test;\n")
+        .append("\n")
+        .append("import dagger.Component;\n")
+        .append("import dagger.Module;\n")
+        .append("import dagger.Provides;\n")
+        .append("import dagger.Subcomponent;\n")
+        .append("import javax.inject.Named;\n")
+        .append("\n")
+        .append(parent == null ? "@Component" : "@Subcomponent")
+        .append("(modules = ")
+        .append(name)
+        .append(".BindingsModule.class)\n")
+        .append("interface ")
+        .append(name)
+        .append(" {\n");
+    for (int i = 0; i < BINDINGS_PER_COMPONENT; i++) {
+      source.append("  @Named(\"").append(name).append('.').append(i).append("\") String binding");
+      source.append(i).append("();\n");
+    }
+    for (String child : children) {
+      source.append("  ").append(child).append(" ").append(child.toLowerCase()).append("();\n");
+    }
+    source.append("\n  @Module\n  final class BindingsModule {\n");
+    for (int i = 0; i < BINDINGS_PER_COMPONENT; i++) {
+      source.append("    @Provides @Named(\"").append(name).append('.').append(i).append("\")\n");
+      source.append("    static String binding").append(i);
+      if (parent == null) {
+        source.append("() {\n      return \"").append(i).append("\";\n    }\n");
+      } else {
+        source.append("(@Named(\"").append(parent).append('.').append(i).append("\")");
+        source.append(" String parent) {\n");
+        source.append("      return parent;\n    }\n");
+      }
+    }
+    source.append("  }\n}\n");
+    return JavaFileObjects.forSourceString("test." + name, source.toString());
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.benchmarks;
+
+import dagger.producers.monitoring.LatencyHistograms;
+import dagger.producers.monitoring.ProducerTimingRecorder;
+import dagger.producers.monitoring.ProducerToken;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks recording producer latencies from 32 threads into a single producer's recorder, which
+ * is the most contended case.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Threads(32)
+@State(Scope.Benchmark)
+public class LatencyHistogramsBenchmark {
+  /** The recorders under test. */
+  public enum RecorderKind {
+    /** The lower bound: a recorder that does nothing. */
+    NO_OP {
+      @Override
+      ProducerTimingRecorder create() {
+        return ProducerTimingRecorder.noOp();
+      }
+    },
+    LATENCY_HISTOGRAMS {
+      @Override
+      ProducerTimingRecorder create() {
+        return new LatencyHistograms()
+            .create(new Object())
+            .producerTimingRecorderFor(ProducerToken.create("producer"));
+      }
+    },
+    /** A recorder that keeps its statistics under a lock, as is typically written by hand. */
+    SYNCHRONIZED {
+      @Override
+      ProducerTimingRecorder create() {
+        return new ProducerTimingRecorder() {
+          private final long[] buckets = new long[64];
+          private long count;
+          private long totalNanos;
+
+          @Override
+          public synchronized void recordSuccess(long latencyNanos) {
+            buckets[63 - Long.numberOfLeadingZeros(latencyNanos | 1)]++;
+            count++;
+            totalNanos += latencyNanos;
+          }
+        };
+      }
+    },
+    ;
+
+    abstract ProducerTimingRecorder create();
+  }
+
+  @Param
+  RecorderKind recorderKind;
+
+  private ProducerTimingRecorder recorder;
+
+  @Setup
+  public void setUp() {
+    recorder = recorderKind.create();
+  }
+
+  /** Records a latency that varies from thread to thread and call to call. */
+  @Benchmark
+  public void recordSuccess(ThreadLatency latency) {
+    recorder.recordSuccess(latency.next());
+  }
+
+  /** A per-thread source of latencies between 1µs and about 1ms. */
+  @State(Scope.Thread)
+  public static class ThreadLatency {
+    private long seed = Thread.currentThread().getId();
+
+    long next() {
+      seed = seed * 6364136223846793005L + 1442695040888963407L;
+      return 1000 + ((seed >>> 44) & 0xFFFFF);
+    }
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.benchmarks;
+
+import dagger.internal.InstanceFactory;
+import dagger.internal.MapFactory;
+import dagger.internal.SetFactory;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import javax.inject.Provider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for materializing multibound sets and maps. Contributions are constant instances so
+ * that the results measure the framework's cost rather than the cost of the contributions.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class MultibindingBenchmark {
+  @Param({"1", "10", "100", "1000"})
+  int contributions;
+
+  private Provider<Set<Integer>> setFactory;
+  private Provider<Set<Integer>> setFactoryOfCollections;
+  private Provider<Set<Integer>> memoizedSetFactory;
+  private Provider<Map<Integer, Integer>> mapFactory;
+
+  @Setup
+  public void setUp() {
+    SetFactory.Builder<Integer> setBuilder = SetFactory.builder(contributions, 0);
+    SetFactory.Builder<Integer> collectionSetBuilder = SetFactory.builder(0, 1);
+    SetFactory.Builder<Integer> memoizedSetBuilder = SetFactory.builder(contributions, 0);
+    MapFactory.Builder<Integer, Integer> mapBuilder = MapFactory.builder(contributions);
+    Integer[] values = new Integer[contributions];
+    for (int i = 0; i < contributions; i++) {
+      Integer value = i;
+      values[i] = value;
+      setBuilder.addProvider(InstanceFactory.create(value));
+      memoizedSetBuilder.addProvider(InstanceFactory.create(value));
+      mapBuilder.put(value, InstanceFactory.create(value));
+    }
+    Collection<Integer> valuesCollection = Arrays.asList(values);
+    collectionSetBuilder.addCollectionProvider(InstanceFactory.create(valuesCollection));
+    setFactory = setBuilder.build();
+    setFactoryOfCollections = collectionSetBuilder.build();
+    memoizedSetFactory = memoizedSetBuilder.buildMemoized();
+    mapFactory = mapBuilder.build();
+  }
+
+  @Benchmark
+  public Set<Integer> setOfIndividualContributions() {
+    return setFactory.get();
+  }
+
+  @Benchmark
+  public Set<Integer> setOfCollectionContribution() {
+    return setFactoryOfCollections.get();
+  }
+
+  @Benchmark
+  public Set<Integer> memoizedSetOfIndividualContributions() {
+    return memoizedSetFactory.get();
+  }
+
+  @Benchmark
+  public Map<Integer, Integer> map() {
+    return mapFactory.get();
+  }
+}
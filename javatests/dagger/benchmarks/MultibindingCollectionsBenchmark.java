@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.benchmarks;
+
+import dagger.internal.MapBuilder;
+import dagger.internal.SetBuilder;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the array-backed sets and maps that Dagger's multibinding factories and builders
+ * return with the {@link HashSet} and {@link LinkedHashMap} instances they used to return, for
+ * construction, iteration and lookup at typical multibinding sizes.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class MultibindingCollectionsBenchmark {
+  @Param({"2", "10", "30"})
+  int size;
+
+  private Integer[] elements;
+  private Set<Integer> daggerSet;
+  private Set<Integer> jdkSet;
+  private Map<Integer, Integer> daggerMap;
+  private Map<Integer, Integer> jdkMap;
+
+  @Setup
+  public void setUp() {
+    elements = new Integer[size];
+    for (int i = 0; i < size; i++) {
+      // Spread the elements so that they don't hash to consecutive buckets.
+      elements[i] = i * 7919;
+    }
+    daggerSet = buildDaggerSet();
+    jdkSet = buildJdkSet();
+    daggerMap = buildDaggerMap();
+    jdkMap = buildJdkMap();
+  }
+
+  @Benchmark
+  public Set<Integer> buildDaggerSet() {
+    SetBuilder<Integer> builder = SetBuilder.newSetBuilder(size);
+    for (Integer element : elements) {
+      builder.add(element);
+    }
+    return builder.build();
+  }
+
+  @Benchmark
+  public Set<Integer> buildJdkSet() {
+    Set<Integer> set = new HashSet<>((int) (size / 0.75F + 1.0F));
+    for (Integer element : elements) {
+      set.add(element);
+    }
+    return Collections.unmodifiableSet(set);
+  }
+
+  @Benchmark
+  public void iterateDaggerSet(Blackhole blackhole) {
+    for (Integer element : daggerSet) {
+      blackhole.consume(element);
+    }
+  }
+
+  @Benchmark
+  public void iterateJdkSet(Blackhole blackhole) {
+    for (Integer element : jdkSet) {
+      blackhole.consume(element);
+    }
+  }
+
+  @Benchmark
+  public void containsDaggerSet(Blackhole blackhole) {
+    for (Integer element : elements) {
+      blackhole.consume(daggerSet.contains(element));
+    }
+  }
+
+  @Benchmark
+  public void containsJdkSet(Blackhole blackhole) {
+    for (Integer element : elements) {
+      blackhole.consume(jdkSet.contains(element));
+    }
+  }
+
+  @Benchmark
+  public Map<Integer, Integer> buildDaggerMap() {
+    MapBuilder<Integer, Integer> builder = MapBuilder.newMapBuilder(size);
+    for (Integer element : elements) {
+      builder.put(element, element);
+    }
+    return builder.build();
+  }
+
+  @Benchmark
+  public Map<Integer, Integer> buildJdkMap() {
+    Map<Integer, Integer> map = new LinkedHashMap<>((int) (size / 0.75F + 1.0F));
+    for (Integer element : elements) {
+      map.put(element, element);
+    }
+    return Collections.unmodifiableMap(map);
+  }
+
+  @Benchmark
+  public void iterateDaggerMap(Blackhole blackhole) {
+    for (Map.Entry<Integer, Integer> entry : daggerMap.entrySet()) {
+      blackhole.consume(entry.getValue());
+    }
+  }
+
+  @Benchmark
+  public void iterateJdkMap(Blackhole blackhole) {
+    for (Map.Entry<Integer, Integer> entry : jdkMap.entrySet()) {
+      blackhole.consume(entry.getValue());
+    }
+  }
+
+  @Benchmark
+  public void getDaggerMap(Blackhole blackhole) {
+    for (Integer element : elements) {
+      blackhole.consume(daggerMap.get(element));
+    }
+  }
+
+  @Benchmark
+  public void getJdkMap(Blackhole blackhole) {
+    for (Integer element : elements) {
+      blackhole.consume(jdkMap.get(element));
+    }
+  }
+}
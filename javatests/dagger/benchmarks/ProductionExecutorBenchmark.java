@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.benchmarks;
+
+import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import dagger.producers.ProductionExecutors;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the {@code @Production} executor on a 10,000-node production graph: 100 layers of 100
+ * nodes, where each node depends on two nodes of the layer before it. Like the generated producer
+ * factories, each node is a {@link Futures#transformAsync} of its inputs on the executor.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class ProductionExecutorBenchmark {
+  private static final int LAYERS = 100;
+  private static final int WIDTH = 100;
+
+  /** The executors under test. */
+  public enum ExecutorKind {
+    /** A fixed pool with a thread per processor, as is typically bound today. */
+    POOLED {
+      @Override
+      ExecutorService create() {
+        return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+      }
+    },
+    THREAD_PER_TASK {
+      @Override
+      ExecutorService create() {
+        return ProductionExecutors.newThreadPerTaskExecutor();
+      }
+    },
+    ;
+
+    abstract ExecutorService create();
+  }
+
+  @Param
+  ExecutorKind executorKind;
+
+  /** How long each producer blocks, as if waiting for a backend. */
+  @Param({"0", "100"})
+  int blockingMicros;
+
+  private ExecutorService executor;
+  private AsyncFunction<List<Integer>, Integer> node;
+
+  @Setup
+  public void setUp() {
+    executor = executorKind.create();
+    final long blockingNanos = TimeUnit.MICROSECONDS.toNanos(blockingMicros);
+    node =
+        new AsyncFunction<List<Integer>, Integer>() {
+          @Override
+          public ListenableFuture<Integer> apply(List<Integer> inputs) {
+            if (blockingNanos > 0) {
+              LockSupport.parkNanos(blockingNanos);
+            }
+            return Futures.immediateFuture(inputs.get(0) + inputs.get(1));
+          }
+        };
+  }
+
+  @TearDown
+  public void tearDown() {
+    executor.shutdown();
+  }
+
+  /** Produces every node of the graph. */
+  @Benchmark
+  public List<Integer> graph() throws ExecutionException, InterruptedException {
+    List<ListenableFuture<Integer>> layer = new ArrayList<>(WIDTH);
+    for (int i = 0; i < WIDTH; i++) {
+      layer.add(Futures.immediateFuture(i));
+    }
+    for (int depth = 0; depth < LAYERS; depth++) {
+      List<ListenableFuture<Integer>> next = new ArrayList<>(WIDTH);
+      for (int i = 0; i < WIDTH; i++) {
+        next.add(
+            Futures.transformAsync(
+                Futures.allAsList(layer.get(i), layer.get((i + 1) % WIDTH)), node, executor));
+      }
+      layer = next;
+    }
+    return Futures.allAsList(layer).get();
+  }
+}
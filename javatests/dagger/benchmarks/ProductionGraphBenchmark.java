@@ -0,0 +1,183 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.benchmarks;
+
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+
+import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import dagger.producers.Produced;
+import dagger.producers.Producer;
+import dagger.producers.internal.AbstractProducer;
+import dagger.producers.internal.Producers;
+import dagger.producers.monitoring.ProducerMonitor;
+import dagger.producers.monitoring.ProducerToken;
+import dagger.producers.monitoring.ProductionComponentMonitor;
+import dagger.producers.monitoring.internal.Monitors;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import javax.inject.Provider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the time and allocations (with the gc profiler) of producing a 50-node production
+ * graph whose inputs are all available synchronously: 5 layers of 10 nodes, where each node
+ * depends on two nodes of the layer before it and every other node takes its second input as a
+ * {@link Produced}. Each node is written the way {@code ProducerFactoryGenerator} writes a factory
+ * for a two-argument {@code @Produces} method, and a new graph is built for each operation, as a
+ * new component instance would be for each request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class ProductionGraphBenchmark {
+  private static final int LAYERS = 5;
+  private static final int WIDTH = 10;
+
+  /** Whether the nodes are {@linkplain dagger.producers.Produces#direct() direct}. */
+  @Param({"false", "true"})
+  boolean direct;
+
+  /** Whether a monitor that isn't a no-op is installed, so that every node adds a callback. */
+  @Param({"false", "true"})
+  boolean monitored;
+
+  private Provider<ProductionComponentMonitor> monitorProvider;
+  private Producer<Integer> leaf;
+
+  @Setup
+  public void setUp() {
+    final ProductionComponentMonitor componentMonitor =
+        monitored
+            ? new ProductionComponentMonitor() {
+              private final ProducerMonitor producerMonitor = new ProducerMonitor() {};
+
+              @Override
+              public ProducerMonitor producerMonitorFor(ProducerToken token) {
+                return producerMonitor;
+              }
+            }
+            : ProductionComponentMonitor.noOp();
+    monitorProvider =
+        monitored
+            ? new Provider<ProductionComponentMonitor>() {
+              @Override
+              public ProductionComponentMonitor get() {
+                return componentMonitor;
+              }
+            }
+            : Monitors.noOpProductionComponentMonitorProvider();
+    leaf = Producers.immediateProducer(1);
+  }
+
+  /** Builds a new graph and produces its final node. */
+  @Benchmark
+  public Integer graph() throws ExecutionException, InterruptedException {
+    Producer<Integer>[] layer = newLayer();
+    for (int i = 0; i < WIDTH; i++) {
+      layer[i] = leaf;
+    }
+    for (int depth = 0; depth < LAYERS; depth++) {
+      Producer<Integer>[] next = newLayer();
+      for (int i = 0; i < WIDTH; i++) {
+        next[i] = new Node(monitorProvider, layer[i], layer[(i + 1) % WIDTH], i % 2 == 0, direct);
+      }
+      layer = next;
+    }
+    return layer[0].get().get();
+  }
+
+  @SuppressWarnings("unchecked") // generic array creation
+  private static Producer<Integer>[] newLayer() {
+    return (Producer<Integer>[]) new Producer<?>[WIDTH];
+  }
+
+  /** A node written like the generated factory of a two-argument {@code @Produces} method. */
+  private static final class Node extends AbstractProducer<Integer>
+      implements AsyncFunction<List<Object>, Integer>, Executor {
+    private static final ProducerToken TOKEN = ProducerToken.create(Node.class);
+
+    private final Producer<Integer> left;
+    private final Producer<Integer> right;
+    private final boolean rightProduced;
+    private final boolean direct;
+
+    Node(
+        Provider<ProductionComponentMonitor> monitorProvider,
+        Producer<Integer> left,
+        Producer<Integer> right,
+        boolean rightProduced,
+        boolean direct) {
+      super(monitorProvider, TOKEN);
+      this.left = left;
+      this.right = right;
+      this.rightProduced = rightProduced;
+      this.direct = direct;
+    }
+
+    @Override
+    protected ListenableFuture<Integer> compute() {
+      ListenableFuture<Integer> leftFuture = left.get();
+      ListenableFuture<?> rightFuture =
+          rightProduced ? Producers.createFutureProduced(right.get()) : right.get();
+      ListenableFuture<List<Object>> inputs = Producers.allAsList(leftFuture, rightFuture);
+      return direct
+          ? Producers.transformAsyncDirectly(inputs, this, this)
+          : Futures.transformAsync(inputs, this, this);
+    }
+
+    @SuppressWarnings("unchecked") // the second argument is a Produced<Integer> if rightProduced
+    @Override
+    public ListenableFuture<Integer> apply(List<Object> args) throws ExecutionException {
+      monitor.methodStarting();
+      try {
+        Object rightArg = args.get(1);
+        int rightValue =
+            rightProduced ? ((Produced<Integer>) rightArg).get() : (Integer) rightArg;
+        return Futures.immediateFuture((Integer) args.get(0) + rightValue);
+      } finally {
+        monitor.methodFinished();
+      }
+    }
+
+    @Override
+    public void execute(Runnable runnable) {
+      monitor.ready();
+      if (direct) {
+        runnable.run();
+      } else {
+        directExecutor().execute(runnable);
+      }
+    }
+  }
+}
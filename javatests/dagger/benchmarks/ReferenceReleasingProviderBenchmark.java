@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.benchmarks;
+
+import dagger.internal.ReferenceReleasingProvider;
+import dagger.internal.ReferenceReleasingProviderManager;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Benchmarks for {@link ReferenceReleasingProvider} and its manager. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class ReferenceReleasingProviderBenchmark {
+  private static final Provider<Object> UNSCOPED =
+      new Provider<Object>() {
+        @Override
+        public Object get() {
+          return new Object();
+        }
+      };
+
+  @Param({"100", "10000"})
+  int providers;
+
+  private ReferenceReleasingProviderManager manager;
+  // Kept strongly reachable, since the manager only holds the providers weakly.
+  private ReferenceReleasingProvider<?>[] managedProviders;
+  private ReferenceReleasingProvider<Object> strong;
+  private ReferenceReleasingProvider<Object> weak;
+  private Object weaklyReferenced;
+  private ExecutorService executor;
+
+  @Setup
+  public void setUp() {
+    manager = new ReferenceReleasingProviderManager(Singleton.class);
+    managedProviders = new ReferenceReleasingProvider<?>[providers];
+    for (int i = 0; i < providers; i++) {
+      managedProviders[i] = ReferenceReleasingProvider.create(UNSCOPED, manager);
+      managedProviders[i].get();
+    }
+
+    ReferenceReleasingProviderManager unmanaged =
+        new ReferenceReleasingProviderManager(Singleton.class);
+    strong = ReferenceReleasingProvider.create(UNSCOPED, unmanaged);
+    strong.get();
+    weak = ReferenceReleasingProvider.create(UNSCOPED, unmanaged);
+    weaklyReferenced = weak.get();
+    weak.releaseStrongReference();
+
+    executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+  }
+
+  @TearDown
+  public void tearDown() {
+    executor.shutdown();
+  }
+
+  /** A get in <b>strong-reference</b> state. */
+  @Benchmark
+  public Object strongGet() {
+    return strong.get();
+  }
+
+  /** A get in <b>weak-reference</b> state, whose referent is kept alive by the benchmark. */
+  @Benchmark
+  public Object weakGet() {
+    return weak.get();
+  }
+
+  /** Releasing and then restoring every provider in a scope. */
+  @Benchmark
+  public void releaseAndRestore() {
+    manager.releaseStrongReferences();
+    manager.restoreStrongReferences();
+  }
+
+  /** Releasing and then restoring every provider in a scope, one segment per executor task. */
+  @Benchmark
+  public void releaseAndRestoreOnExecutor() {
+    manager.releaseStrongReferences(executor);
+    manager.restoreStrongReferences(executor);
+  }
+}
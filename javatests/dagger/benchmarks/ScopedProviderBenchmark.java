@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.benchmarks;
+
+import dagger.internal.DoubleCheck;
+import dagger.internal.LockFreeDoubleCheck;
+import dagger.internal.SingleCheck;
+import java.util.concurrent.TimeUnit;
+import javax.inject.Provider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Benchmarks for the providers that implement scoping in generated components. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class ScopedProviderBenchmark {
+  /** The number of cold providers that threads race through in {@link #contendedColdGet}. */
+  private static final int COLD_PROVIDERS = 1 << 16;
+
+  private static final Provider<Object> UNSCOPED =
+      new Provider<Object>() {
+        @Override
+        public Object get() {
+          return new Object();
+        }
+      };
+
+  /** The scoping strategies under test. */
+  public enum Memoization {
+    DOUBLE_CHECK {
+      @Override
+      Provider<Object> scope(Provider<Object> delegate) {
+        return DoubleCheck.provider(delegate);
+      }
+    },
+    LOCK_FREE_DOUBLE_CHECK {
+      @Override
+      Provider<Object> scope(Provider<Object> delegate) {
+        return LockFreeDoubleCheck.provider(delegate);
+      }
+    },
+    SINGLE_CHECK {
+      @Override
+      Provider<Object> scope(Provider<Object> delegate) {
+        return SingleCheck.provider(delegate);
+      }
+    },
+    ;
+
+    abstract Provider<Object> scope(Provider<Object> delegate);
+  }
+
+  @Param Memoization memoization;
+
+  private Provider<Object> warm;
+  private Provider<Object>[] cold;
+
+  @Setup
+  public void setUp() {
+    warm = memoization.scope(UNSCOPED);
+    warm.get();
+  }
+
+  @Setup(Level.Iteration)
+  @SuppressWarnings("unchecked") // generic array creation
+  public void setUpColdProviders() {
+    cold = (Provider<Object>[]) new Provider<?>[COLD_PROVIDERS];
+    for (int i = 0; i < COLD_PROVIDERS; i++) {
+      cold[i] = memoization.scope(UNSCOPED);
+    }
+  }
+
+  /** Each thread walks {@link #cold} independently, so all threads race for the same providers. */
+  @State(Scope.Thread)
+  public static class Cursor {
+    int index;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      index = 0;
+    }
+
+    int next() {
+      int next = index;
+      index = (next + 1) & (COLD_PROVIDERS - 1);
+      return next;
+    }
+  }
+
+  /** A get from an already-initialized scoped provider. */
+  @Benchmark
+  public Object warmGet() {
+    return warm.get();
+  }
+
+  /** Wrapping a delegate and the first, initializing get. */
+  @Benchmark
+  public Object coldGet() {
+    return memoization.scope(UNSCOPED).get();
+  }
+
+  @Benchmark
+  @Threads(8)
+  public Object contendedWarmGet() {
+    return warm.get();
+  }
+
+  /**
+   * Many threads requesting the same uninitialized providers at once, as in a startup burst. Once a
+   * thread has walked all of the providers in an iteration, its remaining gets are warm.
+   */
+  @Benchmark
+  @Threads(8)
+  public Object contendedColdGet(Cursor cursor) {
+    return cold[cursor.next()].get();
+  }
+}
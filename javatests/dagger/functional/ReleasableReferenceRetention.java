@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.functional;
+
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import dagger.Component;
+import dagger.Module;
+import dagger.Provides;
+import dagger.releasablereferences.CanReleaseReferences;
+import dagger.releasablereferences.ForReleasableReferences;
+import dagger.releasablereferences.ReferenceRetention;
+import dagger.releasablereferences.ReleasableReferenceManager;
+import java.lang.annotation.Retention;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Scope;
+
+final class ReleasableReferenceRetention {
+  @Retention(RUNTIME)
+  @CanReleaseReferences(retainedStrongReferences = 1)
+  @Scope
+  @interface RetainOneScope {}
+
+  @Retention(RUNTIME)
+  @CanReleaseReferences(retention = ReferenceRetention.SOFT)
+  @Scope
+  @interface SoftScope {}
+
+  /** Counts the calls to each {@code @Provides} method. */
+  @Module
+  static final class RetentionModule {
+    int firstCalls;
+    int secondCalls;
+    int softCalls;
+
+    @Provides
+    @RetainOneScope
+    @Named("first")
+    Object first() {
+      firstCalls++;
+      return new Object();
+    }
+
+    @Provides
+    @RetainOneScope
+    @Named("second")
+    Object second() {
+      secondCalls++;
+      return new Object();
+    }
+
+    @Provides
+    @SoftScope
+    @Named("soft")
+    Object soft() {
+      softCalls++;
+      return new Object();
+    }
+  }
+
+  @RetainOneScope
+  @SoftScope
+  @Component(modules = RetentionModule.class)
+  interface RetentionComponent {
+    @Named("first")
+    Provider<Object> first();
+
+    @Named("second")
+    Provider<Object> second();
+
+    @Named("soft")
+    Provider<Object> soft();
+
+    @ForReleasableReferences(RetainOneScope.class)
+    ReleasableReferenceManager retainOneManager();
+
+    @ForReleasableReferences(SoftScope.class)
+    ReleasableReferenceManager softManager();
+  }
+
+  private ReleasableReferenceRetention() {}
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.functional;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.testing.GcFinalization;
+import dagger.functional.ReleasableReferenceRetention.RetentionComponent;
+import dagger.functional.ReleasableReferenceRetention.RetentionModule;
+import java.lang.ref.WeakReference;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class ReleasableReferenceRetentionTest {
+  private RetentionModule module;
+  private RetentionComponent component;
+
+  @Before
+  public void setUp() {
+    module = new RetentionModule();
+    component =
+        DaggerReleasableReferenceRetention_RetentionComponent.builder()
+            .retentionModule(module)
+            .build();
+  }
+
+  @Test
+  public void retainedStrongReferences_keepsMostRecentlyCalled() {
+    WeakReference<Object> first = new WeakReference<>(component.first().get());
+    component.second().get();
+
+    component.retainOneManager().releaseStrongReferences();
+    GcFinalization.awaitClear(first);
+
+    component.first().get();
+    component.second().get();
+    assertThat(module.firstCalls).isEqualTo(2);
+    assertThat(module.secondCalls).isEqualTo(1);
+  }
+
+  @Test
+  public void softRetention_survivesGc() {
+    component.soft().get();
+
+    component.softManager().releaseStrongReferences();
+    GcFinalization.awaitFullGc();
+
+    component.soft().get();
+    assertThat(module.softCalls).isEqualTo(1);
+  }
+}
@@ -20,8 +20,11 @@ import static com.google.common.truth.Truth.assertThat;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.MoreExecutors;
 import com.google.common.util.concurrent.SettableFuture;
@@ -181,6 +184,68 @@ public class ProducerFactoryTest {
     order.verifyNoMoreInteractions();
   }
 
+  @Test
+  public void directMethod() throws Exception {
+    SettableFuture<Integer> intFuture = SettableFuture.create();
+    Producer<Integer> intProducer = producerOfFuture(intFuture);
+    Producer<String> producer =
+        new SimpleProducerModule_DirectStrWithArgFactory(componentMonitorProvider, intProducer);
+    assertThat(producer.get().isDone()).isFalse();
+    intFuture.set(42);
+    assertThat(producer.get().isDone()).isTrue();
+    assertThat(producer.get().get()).isEqualTo("direct str with arg");
+  }
+
+  @Test
+  public void directMethodWithCompletedInputs() throws Exception {
+    ProducerToken token = ProducerToken.create(SimpleProducerModule_DirectStrWithArgFactory.class);
+
+    Producer<Integer> intProducer = producerOfFuture(Futures.immediateFuture(42));
+    Producer<String> producer =
+        new SimpleProducerModule_DirectStrWithArgFactory(componentMonitorProvider, intProducer);
+    assertThat(producer.get().isDone()).isTrue();
+    assertThat(producer.get().get()).isEqualTo("direct str with arg");
+
+    InOrder order = inOrder(componentMonitor, monitor);
+    order.verify(componentMonitor).producerMonitorFor(token);
+    order.verify(monitor).requested();
+    order.verify(monitor).ready();
+    order.verify(monitor).methodStarting();
+    order.verify(monitor).methodFinished();
+    order.verify(monitor).succeeded("direct str with arg");
+    order.verifyNoMoreInteractions();
+  }
+
+  @Test
+  public void directMethodWithFailedInput() throws Exception {
+    Throwable t = new RuntimeException("monkey");
+    Producer<Integer> intProducer = producerOfFuture(Futures.<Integer>immediateFailedFuture(t));
+    Producer<String> producer =
+        new SimpleProducerModule_DirectStrWithArgFactory(componentMonitorProvider, intProducer);
+    try {
+      producer.get().get();
+      fail();
+    } catch (ExecutionException e) {
+      assertThat(e.getCause()).isSameAs(t);
+      verify(monitor, never()).methodStarting();
+    }
+  }
+
+  @Test
+  public void cancellationPropagatesToInputs() throws Exception {
+    SettableFuture<Integer> intFuture = SettableFuture.create();
+    Producer<Integer> intProducer = producerOfFuture(intFuture);
+    Producer<String> producer =
+        new SimpleProducerModule_StrWithArgFactory(
+            executorProvider, componentMonitorProvider, intProducer);
+    ListenableFuture<String> first = producer.get();
+    ListenableFuture<String> second = producer.get();
+    first.cancel(true);
+    assertThat(intFuture.isCancelled()).isFalse();
+    second.cancel(true);
+    assertThat(intFuture.isCancelled()).isTrue();
+  }
+
   @Test(expected = NullPointerException.class)
   public void nullComponentMonitorProvider() throws Exception {
     new SimpleProducerModule_StrFactory(executorProvider, null);
@@ -158,6 +158,12 @@ final class SimpleProducerModule {
     return "str with framework type args";
   }
 
+  @Produces(direct = true)
+  @Qual(13)
+  static String directStrWithArg(@SuppressWarnings("unused") int i) {
+    return "direct str with arg";
+  }
+
   // Set bindings.
 
   @Produces
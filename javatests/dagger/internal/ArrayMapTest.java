@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.Map;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ArrayMapTest {
+  @Test
+  public void duplicateKeys_keepFirstPositionAndLastValue() {
+    Map<String, Integer> map =
+        ArrayMap.create(new Object[] {"a", "b", "a", "c"}, new Object[] {1, 2, 3, 4}, 4);
+    assertThat(map).containsExactly("a", 3, "b", 2, "c", 4).inOrder();
+  }
+
+  @Test
+  public void get() {
+    Object[] keys = new Object[100];
+    Object[] values = new Object[100];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = i;
+      values[i] = "value" + i;
+    }
+    Map<Integer, String> map = ArrayMap.create(keys, values, keys.length);
+    assertThat(map).hasSize(100);
+    for (int i = 0; i < 100; i++) {
+      assertThat(map.get(i)).isEqualTo("value" + i);
+      assertThat(map.containsKey(i)).isTrue();
+    }
+    assertThat(map.get(100)).isNull();
+    assertThat(map.get(null)).isNull();
+    assertThat(map.containsKey(null)).isFalse();
+  }
+
+  @Test
+  public void createDispatchTable() {
+    Object[] keys = {String.class, Integer.class, Long.class, Object.class, String.class};
+    Object[] values = {"string", "integer", "long", "object", "string2"};
+    ArrayMap<Class<?>, String> map = ArrayMap.createDispatchTable(keys, values, keys.length);
+    assertThat(map)
+        .containsExactly(
+            String.class, "string2",
+            Integer.class, "integer",
+            Long.class, "long",
+            Object.class, "object")
+        .inOrder();
+    assertThat(map.get(Double.class)).isNull();
+    assertThat(map.containsKey(Double.class)).isFalse();
+    assertThat(map.get(null)).isNull();
+    Map<Class<?>, Integer> other = map.withValues(new Object[] {1, 2, 3, 4});
+    assertThat(other.get(Long.class)).isEqualTo(3);
+    assertThat(other.get(Double.class)).isNull();
+  }
+
+  @Test
+  public void createDispatchTable_collidingHashCodes() {
+    Object[] keys = new Object[10];
+    Object[] values = new Object[10];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = new SameHashCode(i);
+      values[i] = i;
+    }
+    Map<SameHashCode, Integer> map = ArrayMap.createDispatchTable(keys, values, keys.length);
+    for (int i = 0; i < keys.length; i++) {
+      assertThat(map.get(new SameHashCode(i))).isEqualTo(i);
+    }
+    assertThat(map.get(new SameHashCode(10))).isNull();
+  }
+
+  @Test
+  public void withValues_sharesKeys() {
+    ArrayMap<String, Integer> map =
+        ArrayMap.create(new Object[] {"a", "b"}, new Object[] {1, 2}, 2);
+    Map<String, String> other = map.withValues(new Object[] {"x", "y"});
+    assertThat(other).containsExactly("a", "x", "b", "y").inOrder();
+    assertThat(map).containsExactly("a", 1, "b", 2).inOrder();
+  }
+
+  @Test
+  public void equalsAndHashCode() {
+    Map<String, Integer> map =
+        ArrayMap.create(new Object[] {"a", "b"}, new Object[] {1, 2}, 2);
+    assertThat(map).isEqualTo(ImmutableMap.of("b", 2, "a", 1));
+    assertThat(map.hashCode()).isEqualTo(ImmutableMap.of("a", 1, "b", 2).hashCode());
+  }
+
+  @Test
+  public void immutable() {
+    Map<String, Integer> map =
+        ArrayMap.create(new Object[] {"a", "b"}, new Object[] {1, 2}, 2);
+    try {
+      map.put("c", 3);
+      fail();
+    } catch (UnsupportedOperationException expected) {
+    }
+    try {
+      map.remove("a");
+      fail();
+    } catch (UnsupportedOperationException expected) {
+    }
+  }
+
+  private static final class SameHashCode {
+    private final int id;
+
+    SameHashCode(int id) {
+      this.id = id;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      return obj instanceof SameHashCode && ((SameHashCode) obj).id == id;
+    }
+
+    @Override
+    public int hashCode() {
+      return 0;
+    }
+  }
+}
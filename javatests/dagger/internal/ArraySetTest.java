@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import com.google.common.collect.ImmutableSet;
+import java.util.Iterator;
+import java.util.Set;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ArraySetTest {
+  @Test
+  public void preservesFirstAppearanceOrder() {
+    Set<String> set = ArraySet.create(new Object[] {"b", "a", "b", "c", "a"}, 5);
+    assertThat(set).containsExactly("b", "a", "c").inOrder();
+  }
+
+  @Test
+  public void ignoresElementsBeyondCount() {
+    Set<String> set = ArraySet.create(new Object[] {"a", "b", "c"}, 2);
+    assertThat(set).containsExactly("a", "b").inOrder();
+    assertThat(set).doesNotContain("c");
+  }
+
+  @Test
+  public void contains() {
+    Object[] elements = new Object[100];
+    for (int i = 0; i < elements.length; i++) {
+      elements[i] = i;
+    }
+    Set<Integer> set = ArraySet.create(elements, elements.length);
+    assertThat(set).hasSize(100);
+    for (int i = 0; i < 100; i++) {
+      assertThat(set.contains(i)).isTrue();
+    }
+    assertThat(set.contains(100)).isFalse();
+    assertThat(set.contains(null)).isFalse();
+    assertThat(set.contains("0")).isFalse();
+  }
+
+  @Test
+  public void empty() {
+    Set<String> set = ArraySet.create(new Object[0], 0);
+    assertThat(set).isEmpty();
+    assertThat(set.contains("a")).isFalse();
+  }
+
+  @Test
+  public void equalsAndHashCode() {
+    Set<String> set = ArraySet.create(new Object[] {"a", "b", "c"}, 3);
+    assertThat(set).isEqualTo(ImmutableSet.of("c", "b", "a"));
+    assertThat(set.hashCode()).isEqualTo(ImmutableSet.of("a", "b", "c").hashCode());
+  }
+
+  @Test
+  public void immutable() {
+    Set<String> set = ArraySet.create(new Object[] {"a", "b"}, 2);
+    try {
+      set.add("c");
+      fail();
+    } catch (UnsupportedOperationException expected) {
+    }
+    try {
+      set.remove("a");
+      fail();
+    } catch (UnsupportedOperationException expected) {
+    }
+    Iterator<String> iterator = set.iterator();
+    iterator.next();
+    try {
+      iterator.remove();
+      fail();
+    } catch (UnsupportedOperationException expected) {
+    }
+  }
+}
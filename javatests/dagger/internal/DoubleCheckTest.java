@@ -66,6 +66,12 @@ public class DoubleCheckTest {
         .isSameAs(DOUBLE_CHECK_OBJECT_PROVIDER);
   }
 
+  @Test
+  public void doubleWrapping_lockFreeDoubleCheck() {
+    Provider<Object> lockFree = LockFreeDoubleCheck.provider(Object::new);
+    assertThat(DoubleCheck.provider(lockFree)).isSameAs(lockFree);
+  }
+
   @Test
   public void doubleWrapping_lazy() {
     assertThat(DoubleCheck.lazy(DOUBLE_CHECK_OBJECT_PROVIDER))
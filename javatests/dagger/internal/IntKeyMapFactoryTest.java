@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.Map;
+import javax.inject.Provider;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class IntKeyMapFactoryTest {
+  @Test
+  public void build() {
+    IntKeyMapFactory<String> factory =
+        IntKeyMapFactory.<String>builder(3)
+            .put(3, () -> "three")
+            .put(-1, () -> "minus one")
+            .put(3, () -> "three again")
+            .build();
+    IntKeyMap<String> map = factory.get();
+    assertThat(map).containsExactly(3, "three again", -1, "minus one").inOrder();
+    assertThat(map.get(-1)).isEqualTo("minus one");
+    assertThat(map.containsKey(3)).isTrue();
+    assertThat(map.get(0)).isNull();
+    assertThat(map.get("3")).isNull();
+    assertThat(factory.get()).isNotSameAs(map);
+  }
+
+  @Test
+  public void buildProviderMapFactory() {
+    Provider<String> provider = () -> "value";
+    Factory<Map<Integer, Provider<String>>> factory =
+        IntKeyMapFactory.<String>builder(1).put(7, provider).buildProviderMapFactory();
+    assertThat(factory.get()).containsExactly(7, provider);
+    assertThat(factory.get()).isSameAs(factory.get());
+    assertThat(((IntKeyMap<Provider<String>>) factory.get()).get(7)).isSameAs(provider);
+  }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.Uninterruptibles;
+import dagger.Lazy;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.inject.Provider;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class LockFreeDoubleCheckTest {
+  @Test
+  public void provider_nullPointerException() {
+    try {
+      LockFreeDoubleCheck.provider(null);
+      fail();
+    } catch (NullPointerException expected) {
+    }
+  }
+
+  @Test
+  public void lazy_nullPointerException() {
+    try {
+      LockFreeDoubleCheck.lazy(null);
+      fail();
+    } catch (NullPointerException expected) {
+    }
+  }
+
+  @Test
+  public void doubleWrapping_provider() {
+    Provider<Object> lockFree = LockFreeDoubleCheck.provider(Object::new);
+    assertThat(LockFreeDoubleCheck.provider(lockFree)).isSameAs(lockFree);
+    assertThat(DoubleCheck.lazy(lockFree)).isSameAs(lockFree);
+  }
+
+  @Test
+  public void doubleWrapping_doubleCheck() {
+    Provider<Object> doubleCheck = DoubleCheck.provider(Object::new);
+    assertThat(LockFreeDoubleCheck.provider(doubleCheck)).isSameAs(doubleCheck);
+    assertThat(LockFreeDoubleCheck.lazy(doubleCheck)).isSameAs(doubleCheck);
+  }
+
+  @Test
+  public void get_racingThreadsAllReceiveTheSameInstance() throws Exception {
+    int numThreads = 10;
+    ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+
+    final CountDownLatch latch = new CountDownLatch(numThreads);
+    final AtomicInteger provisions = new AtomicInteger();
+    final Lazy<Object> lazy =
+        LockFreeDoubleCheck.lazy(
+            () -> {
+              Uninterruptibles.awaitUninterruptibly(latch);
+              provisions.incrementAndGet();
+              return new Object();
+            });
+
+    List<Callable<Object>> tasks = Lists.newArrayListWithCapacity(numThreads);
+    for (int i = 0; i < numThreads; i++) {
+      tasks.add(
+          () -> {
+            latch.countDown();
+            return lazy.get();
+          });
+    }
+
+    List<Future<Object>> futures = executor.invokeAll(tasks);
+
+    assertThat(provisions.get()).isAtLeast(1);
+    Set<Object> results = Sets.newIdentityHashSet();
+    for (Future<Object> future : futures) {
+      results.add(future.get());
+    }
+    assertThat(results).hasSize(1);
+    assertThat(results).contains(lazy.get());
+    executor.shutdown();
+  }
+
+  @Test
+  public void get_invokesProviderOnceWithoutContention() {
+    AtomicInteger provisions = new AtomicInteger();
+    Provider<Object> lockFree =
+        LockFreeDoubleCheck.provider(
+            () -> {
+              provisions.incrementAndGet();
+              return new Object();
+            });
+    Object first = lockFree.get();
+    assertThat(lockFree.get()).isSameAs(first);
+    assertThat(provisions.get()).isEqualTo(1);
+  }
+
+  @Test public void reentranceWithoutCondition_throwsStackOverflow() {
+    final AtomicReference<Provider<Object>> lockFreeReference = new AtomicReference<>();
+    Provider<Object> lockFree = LockFreeDoubleCheck.provider(() -> lockFreeReference.get().get());
+    lockFreeReference.set(lockFree);
+    try {
+      lockFree.get();
+      fail();
+    } catch (StackOverflowError expected) {}
+  }
+
+  @Test public void reentranceReturningSameInstance() {
+    final AtomicReference<Provider<Object>> lockFreeReference = new AtomicReference<>();
+    final AtomicInteger invocationCount = new AtomicInteger();
+    final Object object = new Object();
+    Provider<Object> lockFree = LockFreeDoubleCheck.provider(() -> {
+      if (invocationCount.incrementAndGet() == 1) {
+        lockFreeReference.get().get();
+      }
+      return object;
+    });
+    lockFreeReference.set(lockFree);
+    assertThat(lockFree.get()).isSameAs(object);
+  }
+
+  @Test public void reentranceReturningDifferentInstances_throwsIllegalStateException() {
+    final AtomicReference<Provider<Object>> lockFreeReference = new AtomicReference<>();
+    final AtomicInteger invocationCount = new AtomicInteger();
+    Provider<Object> lockFree = LockFreeDoubleCheck.provider(() -> {
+      if (invocationCount.incrementAndGet() == 1) {
+        lockFreeReference.get().get();
+      }
+      return new Object();
+    });
+    lockFreeReference.set(lockFree);
+    try {
+      lockFree.get();
+      fail();
+    } catch (IllegalStateException expected) {}
+  }
+}
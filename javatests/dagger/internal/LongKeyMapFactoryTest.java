@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.Map;
+import javax.inject.Provider;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class LongKeyMapFactoryTest {
+  @Test
+  public void build() {
+    LongKeyMapFactory<String> factory =
+        LongKeyMapFactory.<String>builder(3)
+            .put(3L, () -> "three")
+            .put(-1L, () -> "minus one")
+            .put(3L, () -> "three again")
+            .build();
+    LongKeyMap<String> map = factory.get();
+    assertThat(map).containsExactly(3L, "three again", -1L, "minus one").inOrder();
+    assertThat(map.get(-1L)).isEqualTo("minus one");
+    assertThat(map.containsKey(3L)).isTrue();
+    assertThat(map.get(0L)).isNull();
+    assertThat(map.get("3")).isNull();
+    assertThat(factory.get()).isNotSameAs(map);
+  }
+
+  @Test
+  public void buildProviderMapFactory() {
+    Provider<String> provider = () -> "value";
+    Factory<Map<Long, Provider<String>>> factory =
+        LongKeyMapFactory.<String>builder(1).put(7L, provider).buildProviderMapFactory();
+    assertThat(factory.get()).containsExactly(7L, provider);
+    assertThat(factory.get()).isSameAs(factory.get());
+    assertThat(((LongKeyMap<Provider<String>>) factory.get()).get(7L)).isSameAs(provider);
+  }
+}
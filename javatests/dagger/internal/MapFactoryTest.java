@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.inject.Provider;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class MapFactoryTest {
+  @Test
+  public void invokesProvidersEveryTime() {
+    AtomicInteger a = new AtomicInteger();
+    Provider<Map<String, Integer>> factory =
+        MapFactory.<String, Integer>builder(1).put("a", a::incrementAndGet).build();
+    assertThat(factory.get()).containsExactly("a", 1);
+    assertThat(factory.get()).containsExactly("a", 2);
+  }
+
+  @Test
+  public void buildLazy_invokesProvidersOnFirstUse() {
+    AtomicInteger a = new AtomicInteger();
+    AtomicInteger b = new AtomicInteger();
+    Provider<Map<String, Integer>> factory =
+        MapFactory.<String, Integer>builder(2)
+            .put("a", a::incrementAndGet)
+            .put("b", b::incrementAndGet)
+            .buildLazy();
+    Map<String, Integer> map = factory.get();
+    assertThat(map).hasSize(2);
+    assertThat(map.containsKey("b")).isTrue();
+    assertThat(a.get()).isEqualTo(0);
+    assertThat(b.get()).isEqualTo(0);
+
+    assertThat(map.get("b")).isEqualTo(1);
+    assertThat(map.get("b")).isEqualTo(1);
+    assertThat(map.get("c")).isNull();
+    assertThat(a.get()).isEqualTo(0);
+
+    assertThat(map).containsExactly("a", 1, "b", 1).inOrder();
+    assertThat(a.get()).isEqualTo(1);
+    assertThat(b.get()).isEqualTo(1);
+
+    assertThat(factory.get()).containsExactly("a", 2, "b", 2).inOrder();
+  }
+
+  @Test
+  public void buildLazy_concurrentLookups_invokeProviderOnce() throws Exception {
+    int numThreads = 10;
+    ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+
+    CountDownLatch latch = new CountDownLatch(numThreads);
+    AtomicInteger provisions = new AtomicInteger();
+    Map<String, Object> map =
+        MapFactory.<String, Object>builder(1)
+            .put(
+                "a",
+                () -> {
+                  Uninterruptibles.awaitUninterruptibly(latch);
+                  provisions.incrementAndGet();
+                  return new Object();
+                })
+            .buildLazy()
+            .get();
+
+    List<Callable<Object>> tasks = Lists.newArrayListWithCapacity(numThreads);
+    for (int i = 0; i < numThreads; i++) {
+      tasks.add(
+          () -> {
+            latch.countDown();
+            return map.get("a");
+          });
+    }
+
+    List<Future<Object>> futures = executor.invokeAll(tasks);
+
+    assertThat(provisions.get()).isEqualTo(1);
+    Set<Object> results = Sets.newIdentityHashSet();
+    for (Future<Object> future : futures) {
+      results.add(future.get());
+    }
+    assertThat(results).hasSize(1);
+    executor.shutdown();
+  }
+}
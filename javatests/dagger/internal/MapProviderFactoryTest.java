@@ -74,6 +74,28 @@ public class MapProviderFactoryTest {
         .inOrder();
   }
 
+  @Test
+  public void dispatchTable() {
+    Provider<Integer> p1 = incrementingIntegerProvider(10);
+    Provider<Integer> p2 = incrementingIntegerProvider(20);
+    Provider<Integer> p3 = incrementingIntegerProvider(30);
+
+    Factory<Map<String, Provider<Integer>>> factory = MapProviderFactory
+        .<String, Integer>builder(3)
+        .put("two", p2)
+        .put("one", p1)
+        .put("three", p3)
+        .buildDispatchTable();
+
+    Map<String, Provider<Integer>> map = factory.get();
+    assertThat(map.keySet()).containsExactly("two", "one", "three").inOrder();
+    assertThat(map.get("one")).isSameAs(p1);
+    assertThat(map.get("two")).isSameAs(p2);
+    assertThat(map.get("three")).isSameAs(p3);
+    assertThat(map.get("four")).isNull();
+    assertThat(factory.get()).isSameAs(map);
+  }
+
   private static Provider<Integer> incrementingIntegerProvider(int seed) {
     return new AtomicInteger(seed)::getAndIncrement;
   }
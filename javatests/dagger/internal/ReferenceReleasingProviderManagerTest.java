@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.inject.Singleton;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Tests {@link ReferenceReleasingProviderManager}.
+ */
+@RunWith(JUnit4.class)
+public class ReferenceReleasingProviderManagerTest {
+  private final ReferenceReleasingProviderManager manager =
+      new ReferenceReleasingProviderManager(Singleton.class);
+  private final AtomicInteger calls = new AtomicInteger();
+
+  @Test
+  public void releaseAndRestore_keepsValues() {
+    List<ReferenceReleasingProvider<Object>> providers = addProviders(10);
+    List<Object> values = getAll(providers);
+
+    manager.releaseStrongReferences();
+    assertThat(getAll(providers)).containsExactlyElementsIn(values).inOrder();
+    manager.restoreStrongReferences();
+    assertThat(getAll(providers)).containsExactlyElementsIn(values).inOrder();
+    assertThat(calls.get()).isEqualTo(10);
+  }
+
+  @Test
+  public void releaseAndRestore_onExecutor() {
+    List<ReferenceReleasingProvider<Object>> providers = addProviders(3000);
+    List<Object> values = getAll(providers);
+    ExecutorService executorService = Executors.newFixedThreadPool(2);
+    AtomicInteger tasks = new AtomicInteger();
+    Executor executor =
+        task -> {
+          tasks.incrementAndGet();
+          executorService.execute(task);
+        };
+    try {
+      manager.releaseStrongReferences(executor);
+      manager.restoreStrongReferences(executor);
+    } finally {
+      executorService.shutdown();
+    }
+
+    // 3000 providers fill three segments, and the first is handled on the calling thread.
+    assertThat(tasks.get()).isEqualTo(4);
+    assertThat(getAll(providers)).containsExactlyElementsIn(values).inOrder();
+    assertThat(calls.get()).isEqualTo(3000);
+  }
+
+  @Test
+  public void rejectingExecutor_runsOnCallingThread() {
+    List<ReferenceReleasingProvider<Object>> providers = addProviders(3000);
+    List<Object> values = getAll(providers);
+    Executor executor =
+        task -> {
+          throw new RejectedExecutionException();
+        };
+
+    manager.releaseStrongReferences(executor);
+    manager.restoreStrongReferences(executor);
+    assertThat(getAll(providers)).containsExactlyElementsIn(values).inOrder();
+    assertThat(calls.get()).isEqualTo(3000);
+  }
+
+  private List<ReferenceReleasingProvider<Object>> addProviders(int count) {
+    List<ReferenceReleasingProvider<Object>> providers = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      providers.add(
+          ReferenceReleasingProvider.create(
+              () -> {
+                calls.incrementAndGet();
+                return new Object();
+              },
+              manager));
+    }
+    return providers;
+  }
+
+  private static List<Object> getAll(List<ReferenceReleasingProvider<Object>> providers) {
+    List<Object> values = new ArrayList<>();
+    for (ReferenceReleasingProvider<Object> provider : providers) {
+      values.add(provider.get());
+    }
+    return values;
+  }
+}
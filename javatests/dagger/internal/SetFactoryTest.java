@@ -74,6 +74,18 @@ public class SetFactoryTest {
     assertThat(factory.get()).containsExactly(2, 12, 24, 25, 34, 35);
   }
 
+  @Test
+  public void buildMemoized_invokesProvidersOnce() {
+    Provider<Set<Integer>> provider =
+        SetFactory.<Integer>builder(1, 1)
+            .addProvider(incrementingIntegerProvider(0))
+            .addCollectionProvider(incrementingIntegerSetProvider(10))
+            .buildMemoized();
+    Set<Integer> set = provider.get();
+    assertThat(set).containsExactly(0, 10, 11);
+    assertThat(provider.get()).isSameAs(set);
+  }
+
   private static Provider<Integer> incrementingIntegerProvider(int seed) {
     final AtomicInteger value = new AtomicInteger(seed);
     return value::getAndIncrement;
@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static dagger.internal.codegen.Compilers.daggerCompiler;
+import static javax.tools.StandardLocation.SOURCE_OUTPUT;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import java.io.File;
+import java.io.IOException;
+import javax.tools.JavaFileObject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class BindingGraphCacheTest {
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private static final JavaFileObject COMPONENT =
+      JavaFileObjects.forSourceLines(
+          "test.TestComponent",
+          "package test;",
+          "",
+          "import dagger.Component;",
+          "",
+          "@Component(modules = TestModule.class)",
+          "interface TestComponent {",
+          "  String string();",
+          "}");
+
+  private static final JavaFileObject MODULE =
+      JavaFileObjects.forSourceLines(
+          "test.TestModule",
+          "package test;",
+          "",
+          "import dagger.Module;",
+          "import dagger.Provides;",
+          "",
+          "@Module",
+          "final class TestModule {",
+          "  @Provides static String string() { return \"\"; }",
+          "}");
+
+  @Test
+  public void unchangedGraphIsNotValidatedAgain() throws IOException {
+    File cacheDirectory = temporaryFolder.newFolder();
+    assertThat(profile(compile(cacheDirectory, COMPONENT, MODULE)))
+        .contains("\"bindingGraphCacheMisses\":1");
+    assertThat(profile(compile(cacheDirectory, COMPONENT, MODULE)))
+        .contains("\"bindingGraphCacheHits\":1");
+  }
+
+  @Test
+  public void changedGraphIsValidatedAgain() throws IOException {
+    File cacheDirectory = temporaryFolder.newFolder();
+    JavaFileObject scopedModule =
+        JavaFileObjects.forSourceLines(
+            "test.TestModule",
+            "package test;",
+            "",
+            "import dagger.Module;",
+            "import dagger.Provides;",
+            "import javax.inject.Singleton;",
+            "",
+            "@Module",
+            "final class TestModule {",
+            "  @Provides @Singleton static String string() { return \"\"; }",
+            "}");
+    assertThat(compile(cacheDirectory, COMPONENT, MODULE)).succeeded();
+
+    Compilation compilation = compile(cacheDirectory, COMPONENT, scopedModule);
+    assertThat(compilation).failed();
+    assertThat(compilation).hadErrorContaining("(unscoped) may not reference scoped bindings");
+  }
+
+  @Test
+  public void changedNullabilityOfInheritedEntryPointIsValidatedAgain() throws IOException {
+    File cacheDirectory = temporaryFolder.newFolder();
+    JavaFileObject nullable =
+        JavaFileObjects.forSourceLines(
+            "test.Nullable", "package test;", "", "public @interface Nullable {}");
+    JavaFileObject nullableModule =
+        JavaFileObjects.forSourceLines(
+            "test.TestModule",
+            "package test;",
+            "",
+            "import dagger.Module;",
+            "import dagger.Provides;",
+            "",
+            "@Module",
+            "final class TestModule {",
+            "  @Provides @Nullable static String string() { return null; }",
+            "}");
+    JavaFileObject component =
+        JavaFileObjects.forSourceLines(
+            "test.TestComponent",
+            "package test;",
+            "",
+            "import dagger.Component;",
+            "",
+            "@Component(modules = TestModule.class)",
+            "interface TestComponent extends Parent {}");
+    JavaFileObject nullableParent =
+        JavaFileObjects.forSourceLines(
+            "test.Parent",
+            "package test;",
+            "",
+            "interface Parent {",
+            "  @Nullable String string();",
+            "}");
+    JavaFileObject nonNullableParent =
+        JavaFileObjects.forSourceLines(
+            "test.Parent",
+            "package test;",
+            "",
+            "interface Parent {",
+            "  String string();",
+            "}");
+    assertThat(
+            profile(compile(cacheDirectory, nullable, nullableModule, component, nullableParent)))
+        .contains("\"bindingGraphCacheMisses\":1");
+
+    Compilation compilation =
+        compile(cacheDirectory, nullable, nullableModule, component, nonNullableParent);
+    assertThat(compilation).failed();
+    assertThat(compilation).hadErrorContaining("java.lang.String is not nullable");
+  }
+
+  private static Compilation compile(File cacheDirectory, JavaFileObject... sources) {
+    return daggerCompiler()
+        .withOptions(
+            "-Adagger.bindingGraphCacheDirectory=" + cacheDirectory, "-Adagger.profiling=enabled")
+        .compile(sources);
+  }
+
+  private static String profile(Compilation compilation) throws IOException {
+    assertThat(compilation).succeeded();
+    return compilation
+        .generatedFile(SOURCE_OUTPUT, "", ProcessingProfiler.REPORT_NAME)
+        .get()
+        .getCharContent(false)
+        .toString();
+  }
+}
@@ -51,4 +51,24 @@ public final class CanReleaseReferencesValidatorTest {
         .in(annotation)
         .onLine(8);
   }
+
+  @Test
+  public void negativeRetainedStrongReferences() {
+    JavaFileObject annotation =
+        JavaFileObjects.forSourceLines(
+            "test.Metadata",
+            "package test;",
+            "",
+            "import dagger.releasablereferences.CanReleaseReferences;",
+            "",
+            "@CanReleaseReferences(retainedStrongReferences = -1)",
+            "@interface Metadata {}");
+    assertAbout(javaSource())
+        .that(annotation)
+        .processedWith(new ComponentProcessor(), new AutoAnnotationProcessor())
+        .failsToCompile()
+        .withErrorContaining("retainedStrongReferences() must not be negative")
+        .in(annotation)
+        .onLine(5);
+  }
 }
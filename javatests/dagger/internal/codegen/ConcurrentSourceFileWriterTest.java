@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static dagger.internal.codegen.Compilers.daggerCompiler;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyVararg;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.base.Ticker;
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.TypeSpec;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Optional;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.lang.model.element.Element;
+import javax.lang.model.util.Elements;
+import javax.tools.JavaFileObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ConcurrentSourceFileWriterTest {
+  private static final JavaFileObject MODULE =
+      JavaFileObjects.forSourceLines(
+          "test.TestModule",
+          "package test;",
+          "",
+          "import dagger.Module;",
+          "import dagger.Provides;",
+          "",
+          "@Module",
+          "final class TestModule {",
+          "  @Provides static String string() { return \"\"; }",
+          "  @Provides static Integer integer(String string) { return string.length(); }",
+          "}");
+
+  private static final JavaFileObject FIRST_COMPONENT =
+      JavaFileObjects.forSourceLines(
+          "test.FirstComponent",
+          "package test;",
+          "",
+          "import dagger.Component;",
+          "",
+          "@Component(modules = TestModule.class)",
+          "interface FirstComponent {",
+          "  String string();",
+          "}");
+
+  private static final JavaFileObject SECOND_COMPONENT =
+      JavaFileObjects.forSourceLines(
+          "test.SecondComponent",
+          "package test;",
+          "",
+          "import dagger.Component;",
+          "",
+          "@Component(modules = TestModule.class)",
+          "interface SecondComponent {",
+          "  Integer integer();",
+          "}");
+
+  @Test
+  public void generatesTheSameComponents() throws IOException {
+    Compilation serial = daggerCompiler().compile(MODULE, FIRST_COMPONENT, SECOND_COMPONENT);
+    Compilation concurrent =
+        daggerCompiler()
+            .withOptions("-Adagger.concurrentSourceFormatting=enabled")
+            .compile(MODULE, FIRST_COMPONENT, SECOND_COMPONENT);
+    assertThat(serial).succeeded();
+    assertThat(concurrent).succeeded();
+    assertThat(contents(concurrent, "test.DaggerFirstComponent"))
+        .isEqualTo(contents(serial, "test.DaggerFirstComponent"));
+    assertThat(contents(concurrent, "test.DaggerSecondComponent"))
+        .isEqualTo(contents(serial, "test.DaggerSecondComponent"));
+  }
+
+  @Test
+  public void errorsAreReportedOnlyForTheComponentWithErrors() {
+    JavaFileObject missingBinding =
+        JavaFileObjects.forSourceLines(
+            "test.BadComponent",
+            "package test;",
+            "",
+            "import dagger.Component;",
+            "",
+            "@Component",
+            "interface BadComponent {",
+            "  Object object();",
+            "}");
+    Compilation compilation =
+        daggerCompiler()
+            .withOptions("-Adagger.concurrentSourceFormatting=enabled")
+            .compile(MODULE, FIRST_COMPONENT, missingBinding, SECOND_COMPONENT);
+    assertThat(compilation).failed();
+    assertThat(compilation)
+        .hadErrorContaining("java.lang.Object cannot be provided")
+        .inFile(missingBinding)
+        .onLine(7);
+    assertThat(compilation).hadErrorCount(1);
+  }
+
+  @Test
+  public void eachFileIsWrittenWhenTheNextOneIsSubmitted() throws IOException {
+    Filer filer = mock(Filer.class);
+    JavaFileObject file = mock(JavaFileObject.class);
+    when(file.openWriter()).thenAnswer(invocation -> new StringWriter());
+    when(filer.createSourceFile(any(CharSequence.class), (Element[]) anyVararg())).thenReturn(file);
+    ConcurrentSourceFileWriter writer =
+        new ConcurrentSourceFileWriter(
+            filer, mock(Messager.class), new ProcessingProfiler(false, Ticker.systemTicker()));
+    SourceFileGenerator<String> generator =
+        new SourceFileGenerator<String>(filer, mock(Elements.class)) {
+          @Override
+          ClassName nameGeneratedType(String input) {
+            return ClassName.get("test", input);
+          }
+
+          @Override
+          Optional<? extends Element> getElementForErrorReporting(String input) {
+            return Optional.empty();
+          }
+
+          @Override
+          Optional<TypeSpec.Builder> write(ClassName generatedTypeName, String input) {
+            return Optional.of(TypeSpec.classBuilder(generatedTypeName));
+          }
+        };
+
+    writer.submit(generator, "First");
+    verify(filer, never()).createSourceFile(any(CharSequence.class), (Element[]) anyVararg());
+
+    writer.submit(generator, "Second");
+    verify(filer).createSourceFile(eq("test.First"), (Element[]) anyVararg());
+    verify(filer, never()).createSourceFile(eq("test.Second"), (Element[]) anyVararg());
+
+    writer.flush();
+    verify(filer).createSourceFile(eq("test.Second"), (Element[]) anyVararg());
+  }
+
+  private static String contents(Compilation compilation, String qualifiedName)
+      throws IOException {
+    return compilation.generatedSourceFile(qualifiedName).get().getCharContent(false).toString();
+  }
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static com.google.testing.compile.Compiler.javac;
+
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.SetMultimap;
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.processing.Completion;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.Processor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.FileObject;
+import javax.tools.JavaFileManager.Location;
+import javax.tools.JavaFileObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class IncrementalProcessingTest {
+  private static final JavaFileObject INJECTED =
+      JavaFileObjects.forSourceLines(
+          "test.Injected",
+          "package test;",
+          "",
+          "import javax.inject.Inject;",
+          "",
+          "final class Injected {",
+          "  @Inject Injected(String string) {}",
+          "}");
+
+  private static final JavaFileObject MODULE =
+      JavaFileObjects.forSourceLines(
+          "test.TestModule",
+          "package test;",
+          "",
+          "import dagger.Module;",
+          "import dagger.Provides;",
+          "",
+          "@Module",
+          "final class TestModule {",
+          "  @Provides static String string() { return \"\"; }",
+          "}");
+
+  private static final JavaFileObject COMPONENT =
+      JavaFileObjects.forSourceLines(
+          "test.TestComponent",
+          "package test;",
+          "",
+          "import dagger.Component;",
+          "",
+          "@Component(modules = TestModule.class)",
+          "interface TestComponent {",
+          "  Injected injected();",
+          "}");
+
+  @Test
+  public void originatingElements() {
+    RecordingProcessor processor = new RecordingProcessor();
+    Compilation compilation =
+        javac()
+            .withProcessors(processor)
+            .withOptions("-Adagger.incrementalProcessing=aggregating")
+            .compile(INJECTED, MODULE, COMPONENT);
+    assertThat(compilation).succeeded();
+    assertThat(processor.originatingElements.get("test.Injected_Factory"))
+        .containsExactly("Injected(java.lang.String)");
+    assertThat(processor.originatingElements.get("test.DaggerTestComponent"))
+        .containsExactly("test.TestComponent", "test.TestModule", "test.Injected");
+  }
+
+  @Test
+  public void aggregating_supportedOptionsIncludeGradleOption() {
+    ComponentProcessor processor = new ComponentProcessor();
+    Compilation compilation =
+        javac()
+            .withProcessors(processor)
+            .withOptions("-Adagger.incrementalProcessing=aggregating")
+            .compile(COMPONENT, MODULE, INJECTED);
+    assertThat(compilation).succeeded();
+    assertThat(processor.getSupportedOptions())
+        .contains("org.gradle.annotation.processing.aggregating");
+  }
+
+  @Test
+  public void disabledByDefault() {
+    ComponentProcessor processor = new ComponentProcessor();
+    Compilation compilation =
+        javac().withProcessors(processor).compile(COMPONENT, MODULE, INJECTED);
+    assertThat(compilation).succeeded();
+    assertThat(processor.getSupportedOptions())
+        .doesNotContain("org.gradle.annotation.processing.aggregating");
+  }
+
+  @Test
+  public void unknownMode_isAnError() {
+    Compilation compilation =
+        javac()
+            .withProcessors(new ComponentProcessor())
+            .withOptions("-Adagger.incrementalProcessing=isolating")
+            .compile(COMPONENT, MODULE, INJECTED);
+    assertThat(compilation).failed();
+    assertThat(compilation)
+        .hadErrorContaining(
+            "Processor option -Adagger.incrementalProcessing may only have the values "
+                + "[DISABLED, AGGREGATING] (case insensitive), found: isolating");
+  }
+
+  /**
+   * Runs a {@link ComponentProcessor} with a {@link Filer} that records the originating elements of
+   * each generated source file.
+   */
+  private static final class RecordingProcessor implements Processor {
+    final Processor delegate = new ComponentProcessor();
+    final SetMultimap<String, String> originatingElements = LinkedHashMultimap.create();
+
+    @Override
+    public Set<String> getSupportedOptions() {
+      return delegate.getSupportedOptions();
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+      return delegate.getSupportedAnnotationTypes();
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+      return delegate.getSupportedSourceVersion();
+    }
+
+    @Override
+    public void init(ProcessingEnvironment processingEnv) {
+      delegate.init(new RecordingProcessingEnvironment(processingEnv));
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+      return delegate.process(annotations, roundEnv);
+    }
+
+    @Override
+    public Iterable<? extends Completion> getCompletions(
+        Element element, AnnotationMirror annotation, ExecutableElement member, String userText) {
+      return delegate.getCompletions(element, annotation, member, userText);
+    }
+
+    private final class RecordingProcessingEnvironment implements ProcessingEnvironment {
+      final ProcessingEnvironment delegate;
+      final Filer filer;
+
+      RecordingProcessingEnvironment(ProcessingEnvironment delegate) {
+        this.delegate = delegate;
+        this.filer = new RecordingFiler(delegate.getFiler());
+      }
+
+      @Override
+      public Map<String, String> getOptions() {
+        return delegate.getOptions();
+      }
+
+      @Override
+      public Messager getMessager() {
+        return delegate.getMessager();
+      }
+
+      @Override
+      public Filer getFiler() {
+        return filer;
+      }
+
+      @Override
+      public Elements getElementUtils() {
+        return delegate.getElementUtils();
+      }
+
+      @Override
+      public Types getTypeUtils() {
+        return delegate.getTypeUtils();
+      }
+
+      @Override
+      public SourceVersion getSourceVersion() {
+        return delegate.getSourceVersion();
+      }
+
+      @Override
+      public Locale getLocale() {
+        return delegate.getLocale();
+      }
+    }
+
+    private final class RecordingFiler implements Filer {
+      final Filer delegate;
+
+      RecordingFiler(Filer delegate) {
+        this.delegate = delegate;
+      }
+
+      @Override
+      public JavaFileObject createSourceFile(CharSequence name, Element... originatingElements)
+          throws IOException {
+        for (Element element : originatingElements) {
+          RecordingProcessor.this.originatingElements.put(name.toString(), element.toString());
+        }
+        return delegate.createSourceFile(name, originatingElements);
+      }
+
+      @Override
+      public JavaFileObject createClassFile(CharSequence name, Element... originatingElements)
+          throws IOException {
+        return delegate.createClassFile(name, originatingElements);
+      }
+
+      @Override
+      public FileObject createResource(
+          Location location,
+          CharSequence pkg,
+          CharSequence relativeName,
+          Element... originatingElements)
+          throws IOException {
+        return delegate.createResource(location, pkg, relativeName, originatingElements);
+      }
+
+      @Override
+      public FileObject getResource(
+          Location location, CharSequence pkg, CharSequence relativeName) throws IOException {
+        return delegate.getResource(location, pkg, relativeName);
+      }
+    }
+  }
+}
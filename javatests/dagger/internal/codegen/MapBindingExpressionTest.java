@@ -21,6 +21,7 @@ import static dagger.internal.codegen.Compilers.CLASS_PATH_WITHOUT_GUAVA_OPTION;
 import static dagger.internal.codegen.Compilers.daggerCompiler;
 import static dagger.internal.codegen.GeneratedLines.GENERATED_ANNOTATION;
 
+import com.google.common.collect.ImmutableList;
 import com.google.testing.compile.Compilation;
 import com.google.testing.compile.Compiler;
 import com.google.testing.compile.JavaFileObjects;
@@ -91,6 +92,8 @@ public class MapBindingExpressionTest {
             "test.DaggerTestComponent",
             "package test;",
             "",
+            "import dagger.internal.IntKeyMapFactory;",
+            "import dagger.internal.LongKeyMapFactory;",
             "import dagger.internal.MapBuilder;",
             "import java.util.Collections;",
             "import java.util.Map;",
@@ -99,7 +102,13 @@ public class MapBindingExpressionTest {
             "",
             GENERATED_ANNOTATION,
             "public final class DaggerTestComponent implements TestComponent {",
-            "  private DaggerTestComponent(Builder builder) {}",
+            "  private Provider<Map<Integer, Provider<Integer>>>",
+            "      mapOfIntegerAndProviderOfIntegerProvider;",
+            "  private Provider<Map<Long, Provider<Long>>> mapOfLongAndProviderOfLongProvider;",
+            "",
+            "  private DaggerTestComponent(Builder builder) {",
+            "    initialize(builder);",
+            "  }",
             "",
             "  public static Builder builder() {",
             "    return new Builder();",
@@ -109,6 +118,20 @@ public class MapBindingExpressionTest {
             "    return new Builder().build();",
             "  }",
             "",
+            "  @SuppressWarnings(\"unchecked\")",
+            "  private void initialize(final Builder builder) {",
+            "    this.mapOfIntegerAndProviderOfIntegerProvider =",
+            "        IntKeyMapFactory.<Integer>builder(1)",
+            "            .put(0, MapModule_ProvideIntFactory.create())",
+            "            .buildProviderMapFactory();",
+            "    this.mapOfLongAndProviderOfLongProvider =",
+            "        LongKeyMapFactory.<Long>builder(3)",
+            "            .put(0L, MapModule_ProvideLong0Factory.create())",
+            "            .put(1L, MapModule_ProvideLong1Factory.create())",
+            "            .put(2L, MapModule_ProvideLong2Factory.create())",
+            "            .buildProviderMapFactory();",
+            "  }",
+            "",
             "  @Override",
             "  public Map<String, String> strings() {",
             "    return Collections.<String, String>emptyMap();",
@@ -126,8 +149,7 @@ public class MapBindingExpressionTest {
             "",
             "  @Override",
             "  public Map<Integer, Provider<Integer>> providerInts() {",
-            "    return Collections.<Integer, Provider<Integer>>singletonMap(",
-            "        0, MapModule_ProvideIntFactory.create());",
+            "    return mapOfIntegerAndProviderOfIntegerProvider.get();",
             "  }",
             "",
             "  @Override",
@@ -141,11 +163,7 @@ public class MapBindingExpressionTest {
             "",
             "  @Override",
             "  public Map<Long, Provider<Long>> providerLongs() {",
-            "    return MapBuilder.<Long, Provider<Long>>newMapBuilder(3)",
-            "        .put(0L, MapModule_ProvideLong0Factory.create())",
-            "        .put(1L, MapModule_ProvideLong1Factory.create())",
-            "        .put(2L, MapModule_ProvideLong2Factory.create())",
-            "        .build();",
+            "    return mapOfLongAndProviderOfLongProvider.get();",
             "  }",
             "",
             "  public static final class Builder {",
@@ -372,6 +390,297 @@ public class MapBindingExpressionTest {
         .hasSourceEquivalentTo(generatedComponent);
   }
 
+  @Test
+  public void lazyMapValues() {
+    JavaFileObject mapModuleFile =
+        JavaFileObjects.forSourceLines(
+            "test.MapModule",
+            "package test;",
+            "",
+            "import dagger.Module;",
+            "import dagger.Provides;",
+            "import dagger.multibindings.IntoMap;",
+            "import dagger.multibindings.StringKey;",
+            "",
+            "@Module",
+            "abstract class MapModule {",
+            "  @Provides @IntoMap @StringKey(\"a\") static String a() { return \"\"; }",
+            "  @Provides @IntoMap @StringKey(\"b\") static String b() { return \"\"; }",
+            "}");
+    JavaFileObject componentFile =
+        JavaFileObjects.forSourceLines(
+            "test.TestComponent",
+            "package test;",
+            "",
+            "import dagger.Component;",
+            "import java.util.Map;",
+            "",
+            "@Component(modules = MapModule.class)",
+            "interface TestComponent {",
+            "  Map<String, String> strings();",
+            "}");
+    JavaFileObject generatedComponent =
+        JavaFileObjects.forSourceLines(
+            "test.DaggerTestComponent",
+            "package test;",
+            "",
+            "import dagger.internal.MapFactory;",
+            "import java.util.Map;",
+            "import javax.annotation.Generated;",
+            "import javax.inject.Provider;",
+            "",
+            GENERATED_ANNOTATION,
+            "public final class DaggerTestComponent implements TestComponent {",
+            "  private Provider<Map<String, String>> mapOfStringAndStringProvider;",
+            "",
+            "  private DaggerTestComponent(Builder builder) {",
+            "    initialize(builder);",
+            "  }",
+            "",
+            "  public static Builder builder() {",
+            "    return new Builder();",
+            "  }",
+            "",
+            "  public static TestComponent create() {",
+            "    return new Builder().build();",
+            "  }",
+            "",
+            "  @SuppressWarnings(\"unchecked\")",
+            "  private void initialize(final Builder builder) {",
+            "    this.mapOfStringAndStringProvider =",
+            "        MapFactory.<String, String>builder(2)",
+            "            .put(\"a\", MapModule_AFactory.create())",
+            "            .put(\"b\", MapModule_BFactory.create())",
+            "            .buildLazy();",
+            "  }",
+            "",
+            "  @Override",
+            "  public Map<String, String> strings() {",
+            "    return mapOfStringAndStringProvider.get();",
+            "  }",
+            "",
+            "  public static final class Builder {",
+            "    private Builder() {}",
+            "",
+            "    public TestComponent build() {",
+            "      return new DaggerTestComponent(this);",
+            "    }",
+            "  }",
+            "}");
+    Compilation compilation =
+        daggerCompiler()
+            .withOptions(
+                ImmutableList.builder()
+                    .add("-Adagger.lazyMapValues=enabled")
+                    .addAll(CLASS_PATH_WITHOUT_GUAVA_OPTION)
+                    .build())
+            .compile(mapModuleFile, componentFile);
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .hasSourceEquivalentTo(generatedComponent);
+  }
+
+  @Test
+  public void primitiveKeyFrameworkInstances() {
+    JavaFileObject mapModuleFile =
+        JavaFileObjects.forSourceLines(
+            "test.MapModule",
+            "package test;",
+            "",
+            "import dagger.Module;",
+            "import dagger.Provides;",
+            "import dagger.multibindings.IntKey;",
+            "import dagger.multibindings.IntoMap;",
+            "import dagger.multibindings.LongKey;",
+            "",
+            "@Module",
+            "interface MapModule {",
+            "  @Provides @IntoMap @IntKey(0) static int provideInt() { return 0; }",
+            "  @Provides @IntoMap @LongKey(0) static long provideLong() { return 0; }",
+            "}");
+    JavaFileObject componentFile =
+        JavaFileObjects.forSourceLines(
+            "test.TestComponent",
+            "package test;",
+            "",
+            "import dagger.Component;",
+            "import java.util.Map;",
+            "import javax.inject.Provider;",
+            "",
+            "@Component(modules = MapModule.class)",
+            "interface TestComponent {",
+            "  Provider<Map<Integer, Integer>> ints();",
+            "  Provider<Map<Long, Provider<Long>>> providerLongs();",
+            "  Map<Long, Provider<Long>> longs();",
+            "}");
+    JavaFileObject generatedComponent =
+        JavaFileObjects.forSourceLines(
+            "test.DaggerTestComponent",
+            "package test;",
+            "",
+            "import dagger.internal.IntKeyMapFactory;",
+            "import dagger.internal.LongKeyMapFactory;",
+            "import java.util.Map;",
+            "import javax.annotation.Generated;",
+            "import javax.inject.Provider;",
+            "",
+            GENERATED_ANNOTATION,
+            "public final class DaggerTestComponent implements TestComponent {",
+            "  private Provider<Map<Integer, Integer>> mapOfIntegerAndIntegerProvider;",
+            "  private Provider<Map<Long, Provider<Long>>>",
+            "      mapOfLongAndProviderOfLongProvider;",
+            "",
+            "  private DaggerTestComponent(Builder builder) {",
+            "    initialize(builder);",
+            "  }",
+            "",
+            "  public static Builder builder() {",
+            "    return new Builder();",
+            "  }",
+            "",
+            "  public static TestComponent create() {",
+            "    return new Builder().build();",
+            "  }",
+            "",
+            "  @SuppressWarnings(\"unchecked\")",
+            "  private void initialize(final Builder builder) {",
+            "    this.mapOfIntegerAndIntegerProvider =",
+            "        IntKeyMapFactory.<Integer>builder(1)",
+            "            .put(0, MapModule_ProvideIntFactory.create())",
+            "            .build();",
+            "    this.mapOfLongAndProviderOfLongProvider =",
+            "        LongKeyMapFactory.<Long>builder(1)",
+            "            .put(0L, MapModule_ProvideLongFactory.create())",
+            "            .buildProviderMapFactory();",
+            "  }",
+            "",
+            "  @Override",
+            "  public Provider<Map<Integer, Integer>> ints() {",
+            "    return mapOfIntegerAndIntegerProvider;",
+            "  }",
+            "",
+            "  @Override",
+            "  public Provider<Map<Long, Provider<Long>>> providerLongs() {",
+            "    return mapOfLongAndProviderOfLongProvider;",
+            "  }",
+            "",
+            "  @Override",
+            "  public Map<Long, Provider<Long>> longs() {",
+            "    return mapOfLongAndProviderOfLongProvider.get();",
+            "  }",
+            "",
+            "  public static final class Builder {",
+            "    private Builder() {}",
+            "",
+            "    public TestComponent build() {",
+            "      return new DaggerTestComponent(this);",
+            "    }",
+            "  }",
+            "}");
+    Compilation compilation =
+        daggerCompiler()
+            .withOptions(CLASS_PATH_WITHOUT_GUAVA_OPTION)
+            .compile(mapModuleFile, componentFile);
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .hasSourceEquivalentTo(generatedComponent);
+  }
+
+  @Test
+  public void dispatchTableMaps() {
+    JavaFileObject mapModuleFile =
+        JavaFileObjects.forSourceLines(
+            "test.MapModule",
+            "package test;",
+            "",
+            "import dagger.Module;",
+            "import dagger.Provides;",
+            "import dagger.multibindings.IntoMap;",
+            "import dagger.multibindings.StringKey;",
+            "",
+            "@Module",
+            "abstract class MapModule {",
+            "  @Provides @IntoMap @StringKey(\"a\") static String a() { return \"\"; }",
+            "  @Provides @IntoMap @StringKey(\"b\") static String b() { return \"\"; }",
+            "}");
+    JavaFileObject componentFile =
+        JavaFileObjects.forSourceLines(
+            "test.TestComponent",
+            "package test;",
+            "",
+            "import dagger.Component;",
+            "import java.util.Map;",
+            "import javax.inject.Provider;",
+            "",
+            "@Component(modules = MapModule.class)",
+            "interface TestComponent {",
+            "  Map<String, Provider<String>> providers();",
+            "}");
+    JavaFileObject generatedComponent =
+        JavaFileObjects.forSourceLines(
+            "test.DaggerTestComponent",
+            "package test;",
+            "",
+            "import dagger.internal.MapProviderFactory;",
+            "import java.util.Map;",
+            "import javax.annotation.Generated;",
+            "import javax.inject.Provider;",
+            "",
+            GENERATED_ANNOTATION,
+            "public final class DaggerTestComponent implements TestComponent {",
+            "  private Provider<Map<String, Provider<String>>>",
+            "      mapOfStringAndProviderOfStringProvider;",
+            "",
+            "  private DaggerTestComponent(Builder builder) {",
+            "    initialize(builder);",
+            "  }",
+            "",
+            "  public static Builder builder() {",
+            "    return new Builder();",
+            "  }",
+            "",
+            "  public static TestComponent create() {",
+            "    return new Builder().build();",
+            "  }",
+            "",
+            "  @SuppressWarnings(\"unchecked\")",
+            "  private void initialize(final Builder builder) {",
+            "    this.mapOfStringAndProviderOfStringProvider =",
+            "        MapProviderFactory.<String, String>builder(2)",
+            "            .put(\"a\", MapModule_AFactory.create())",
+            "            .put(\"b\", MapModule_BFactory.create())",
+            "            .buildDispatchTable();",
+            "  }",
+            "",
+            "  @Override",
+            "  public Map<String, Provider<String>> providers() {",
+            "    return mapOfStringAndProviderOfStringProvider.get();",
+            "  }",
+            "",
+            "  public static final class Builder {",
+            "    private Builder() {}",
+            "",
+            "    public TestComponent build() {",
+            "      return new DaggerTestComponent(this);",
+            "    }",
+            "  }",
+            "}");
+    Compilation compilation =
+        daggerCompiler()
+            .withOptions(
+                ImmutableList.builder()
+                    .add("-Adagger.dispatchTableMaps=enabled")
+                    .addAll(CLASS_PATH_WITHOUT_GUAVA_OPTION)
+                    .build())
+            .compile(mapModuleFile, componentFile);
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .hasSourceEquivalentTo(generatedComponent);
+  }
+
   private Compiler daggerCompilerWithoutGuava() {
     return daggerCompiler()
         .withOptions(compilerMode.javacopts().append(CLASS_PATH_WITHOUT_GUAVA_OPTION));
@@ -125,13 +125,21 @@ public class MapBindingExpressionWithGuavaTest {
                 "package test;",
                 "",
                 "import com.google.common.collect.ImmutableMap;",
+                "import dagger.internal.IntKeyMapFactory;",
+                "import dagger.internal.LongKeyMapFactory;",
                 "import java.util.Map;",
                 "import javax.annotation.Generated;",
                 "import javax.inject.Provider;",
                 "",
                 GENERATED_ANNOTATION,
                 "public final class DaggerTestComponent implements TestComponent {",
-                "  private DaggerTestComponent(Builder builder) {}",
+                "  private Provider<Map<Integer, Provider<Integer>>>",
+                "      mapOfIntegerAndProviderOfIntegerProvider;",
+                "  private Provider<Map<Long, Provider<Long>>> mapOfLongAndProviderOfLongProvider;",
+                "",
+                "  private DaggerTestComponent(Builder builder) {",
+                "    initialize(builder);",
+                "  }",
                 "",
                 "  public static Builder builder() {",
                 "    return new Builder();",
@@ -141,6 +149,20 @@ public class MapBindingExpressionWithGuavaTest {
                 "    return new Builder().build();",
                 "  }",
                 "",
+                "  @SuppressWarnings(\"unchecked\")",
+                "  private void initialize(final Builder builder) {",
+                "    this.mapOfIntegerAndProviderOfIntegerProvider =",
+                "        IntKeyMapFactory.<Integer>builder(1)",
+                "            .put(0, MapModule_ProvideIntFactory.create())",
+                "            .buildProviderMapFactory();",
+                "    this.mapOfLongAndProviderOfLongProvider =",
+                "        LongKeyMapFactory.<Long>builder(3)",
+                "            .put(0L, MapModule_ProvideLong0Factory.create())",
+                "            .put(1L, MapModule_ProvideLong1Factory.create())",
+                "            .put(2L, MapModule_ProvideLong2Factory.create())",
+                "            .buildProviderMapFactory();",
+                "  }",
+                "",
                 "  @Override",
                 "  public Map<String, String> strings() {",
                 "    return ImmutableMap.<String, String>of();",
@@ -158,8 +180,7 @@ public class MapBindingExpressionWithGuavaTest {
                 "",
                 "  @Override",
                 "  public Map<Integer, Provider<Integer>> providerInts() {",
-                "    return ImmutableMap.<Integer, Provider<Integer>>of(",
-                "        0, MapModule_ProvideIntFactory.create());",
+                "    return mapOfIntegerAndProviderOfIntegerProvider.get();",
                 "  }",
                 "",
                 "  @Override",
@@ -172,10 +193,7 @@ public class MapBindingExpressionWithGuavaTest {
                 "",
                 "  @Override",
                 "  public Map<Long, Provider<Long>> providerLongs() {",
-                "    return ImmutableMap.<Long, Provider<Long>>of(",
-                "      0L, MapModule_ProvideLong0Factory.create(),",
-                "      1L, MapModule_ProvideLong1Factory.create(),",
-                "      2L, MapModule_ProvideLong2Factory.create());",
+                "    return mapOfLongAndProviderOfLongProvider.get();",
                 "  }",
                 "",
                 "  @Override",
@@ -192,7 +210,25 @@ public class MapBindingExpressionWithGuavaTest {
                 "    }",
                 "  }",
                 "  private final class SubImpl implements Sub {",
-                "    private SubImpl() {}",
+                "    private Provider<Map<Long, Provider<Long>>>",
+                "        mapOfLongAndProviderOfLongProvider;",
+                "",
+                "    private SubImpl() {",
+                "      initialize();",
+                "    }",
+                "",
+                "    @SuppressWarnings(\"unchecked\")",
+                "    private void initialize() {",
+                "      this.mapOfLongAndProviderOfLongProvider =",
+                "          LongKeyMapFactory.<Long>builder(6)",
+                "              .put(0L, MapModule_ProvideLong0Factory.create())",
+                "              .put(1L, MapModule_ProvideLong1Factory.create())",
+                "              .put(2L, MapModule_ProvideLong2Factory.create())",
+                "              .put(3L, SubcomponentMapModule_ProvideLong3Factory.create())",
+                "              .put(4L, SubcomponentMapModule_ProvideLong4Factory.create())",
+                "              .put(5L, SubcomponentMapModule_ProvideLong5Factory.create())",
+                "              .buildProviderMapFactory();",
+                "    }",
                 "",
                 "    @Override",
                 "    public Map<Long, Long> longs() {",
@@ -208,14 +244,7 @@ public class MapBindingExpressionWithGuavaTest {
                 "",
                 "    @Override",
                 "    public Map<Long, Provider<Long>> providerLongs() {",
-                "      return ImmutableMap.<Long, Provider<Long>>builder()",
-                "          .put(0L, MapModule_ProvideLong0Factory.create())",
-                "          .put(1L, MapModule_ProvideLong1Factory.create())",
-                "          .put(2L, MapModule_ProvideLong2Factory.create())",
-                "          .put(3L, SubcomponentMapModule_ProvideLong3Factory.create())",
-                "          .put(4L, SubcomponentMapModule_ProvideLong4Factory.create())",
-                "          .put(5L, SubcomponentMapModule_ProvideLong5Factory.create())",
-                "          .build();",
+                "      return mapOfLongAndProviderOfLongProvider.get();",
                 "    }",
                 "  }",
                 "}");
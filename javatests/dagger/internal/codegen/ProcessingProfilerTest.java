@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static dagger.internal.codegen.Compilers.daggerCompiler;
+import static javax.tools.StandardLocation.SOURCE_OUTPUT;
+
+import com.google.common.base.Ticker;
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import javax.tools.JavaFileObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ProcessingProfilerTest {
+  private static final JavaFileObject COMPONENT =
+      JavaFileObjects.forSourceLines(
+          "test.TestComponent",
+          "package test;",
+          "",
+          "import dagger.Component;",
+          "import dagger.Module;",
+          "import dagger.Provides;",
+          "",
+          "@Component(modules = TestComponent.TestModule.class)",
+          "interface TestComponent {",
+          "  String string();",
+          "",
+          "  @Module",
+          "  class TestModule {",
+          "    @Provides static String string() { return \"\"; }",
+          "  }",
+          "}");
+
+  @Test
+  public void reportIsWrittenWhenEnabled() {
+    Compilation compilation =
+        daggerCompiler().withOptions("-Adagger.profiling=enabled").compile(COMPONENT);
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedFile(SOURCE_OUTPUT, "", ProcessingProfiler.REPORT_NAME)
+        .contentsAsUtf8String()
+        .contains("{\"name\":\"BindingGraph.Factory\",\"cat\":\"dagger\",\"ph\":\"X\"");
+    assertThat(compilation)
+        .generatedFile(SOURCE_OUTPUT, "", ProcessingProfiler.REPORT_NAME)
+        .contentsAsUtf8String()
+        .contains("\"keysResolved\":");
+  }
+
+  @Test
+  public void noReportByDefault() {
+    Compilation compilation = daggerCompiler().compile(COMPONENT);
+    assertThat(compilation).succeeded();
+    for (JavaFileObject file : compilation.generatedFiles()) {
+      assertThat(file.getName()).doesNotContain(ProcessingProfiler.REPORT_NAME);
+    }
+  }
+
+  @Test
+  public void nestedPhaseCountsTowardsItsTotalOnce() {
+    FakeTicker ticker = new FakeTicker();
+    ProcessingProfiler profiler = new ProcessingProfiler(true, ticker);
+    try (ProcessingProfiler.Phase outer = profiler.start("ModuleValidator")) {
+      ticker.nanos += 1_000;
+      try (ProcessingProfiler.Phase inner = profiler.start("ModuleValidator")) {
+        ticker.nanos += 2_000;
+      }
+    }
+    profiler.count("keysResolved", 3);
+    profiler.count("keysResolved", 4);
+
+    assertThat(profiler.toJson())
+        .isEqualTo(
+            "{\"traceEvents\":["
+                + "{\"name\":\"ModuleValidator\",\"cat\":\"dagger\",\"ph\":\"X\","
+                + "\"ts\":1,\"dur\":2,\"pid\":1,\"tid\":" + Thread.currentThread().getId() + "},"
+                + "{\"name\":\"ModuleValidator\",\"cat\":\"dagger\",\"ph\":\"X\","
+                + "\"ts\":0,\"dur\":3,\"pid\":1,\"tid\":" + Thread.currentThread().getId() + "}"
+                + "],\"displayTimeUnit\":\"ms\",\"otherData\":{"
+                + "\"phases\":{\"ModuleValidator\":{\"count\":1,\"totalMicros\":3}},"
+                + "\"counters\":{\"keysResolved\":7}}}");
+  }
+
+  @Test
+  public void disabled_recordsNothing() {
+    ProcessingProfiler profiler = new ProcessingProfiler(false, new FakeTicker());
+    profiler.start("ModuleValidator").close();
+    profiler.count("keysResolved", 1);
+
+    assertThat(profiler.toJson())
+        .isEqualTo(
+            "{\"traceEvents\":[],\"displayTimeUnit\":\"ms\","
+                + "\"otherData\":{\"phases\":{},\"counters\":{}}}");
+  }
+
+  private static final class FakeTicker extends Ticker {
+    long nanos;
+
+    @Override
+    public long read() {
+      return nanos;
+    }
+  }
+}
@@ -369,6 +369,9 @@ public class ProducerModuleFactoryGeneratorTest {
             "public final class TestModule_ProduceStringFactory",
             "    extends AbstractProducer<String>",
             "    implements AsyncFunction<Void, String>, Executor {",
+            "  private static final ProducerToken TOKEN =",
+            "        ProducerToken.create(TestModule_ProduceStringFactory.class);",
+            "",
             "  private final TestModule module;",
             "  private final Provider<Executor> executorProvider;",
             "  private final Provider<ProductionComponentMonitor> monitorProvider;",
@@ -377,9 +380,7 @@ public class ProducerModuleFactoryGeneratorTest {
             "      TestModule module,",
             "      Provider<Executor> executorProvider,",
             "      Provider<ProductionComponentMonitor> monitorProvider) {",
-            "    super(",
-            "        monitorProvider,",
-            "        ProducerToken.create(TestModule_ProduceStringFactory.class));",
+            "    super(monitorProvider, TOKEN);",
             "    this.module = module;",
             "    this.executorProvider = executorProvider;",
             "    this.monitorProvider = monitorProvider;",
@@ -451,6 +452,9 @@ public class ProducerModuleFactoryGeneratorTest {
             "public final class TestModule_ProduceStringFactory",
             "    extends AbstractProducer<String>",
             "    implements AsyncFunction<Void, String>, Executor {",
+            "  private static final ProducerToken TOKEN =",
+            "        ProducerToken.create(\"test.TestModule#produceString\");",
+            "",
             "  private final TestModule module;",
             "  private final Provider<Executor> executorProvider;",
             "  private final Provider<ProductionComponentMonitor> monitorProvider;",
@@ -459,9 +463,7 @@ public class ProducerModuleFactoryGeneratorTest {
             "      TestModule module,",
             "      Provider<Executor> executorProvider,",
             "      Provider<ProductionComponentMonitor> monitorProvider) {",
-            "    super(",
-            "        monitorProvider,",
-            "        ProducerToken.create(\"test.TestModule#produceString\"));",
+            "    super(monitorProvider, TOKEN);",
             "    this.module = module;",
             "    this.executorProvider = executorProvider;",
             "    this.monitorProvider = monitorProvider;",
@@ -497,6 +499,86 @@ public class ProducerModuleFactoryGeneratorTest {
         .generatesSources(factoryFile);
   }
 
+  @Test
+  public void directProducesMethod() {
+    JavaFileObject moduleFile =
+        JavaFileObjects.forSourceLines(
+            "test.TestModule",
+            "package test;",
+            "",
+            "import dagger.producers.ProducerModule;",
+            "import dagger.producers.Produces;",
+            "",
+            "@ProducerModule",
+            "final class TestModule {",
+            "  @Produces(direct = true) String produceString() {",
+            "    return \"\";",
+            "  }",
+            "}");
+    JavaFileObject factoryFile =
+        JavaFileObjects.forSourceLines(
+            "TestModule_ProduceStringFactory",
+            "package test;",
+            "",
+            "import com.google.common.util.concurrent.AsyncFunction;",
+            "import com.google.common.util.concurrent.Futures;",
+            "import com.google.common.util.concurrent.ListenableFuture;",
+            "import dagger.producers.internal.AbstractProducer;",
+            "import dagger.producers.internal.Producers;",
+            "import dagger.producers.monitoring.ProducerToken;",
+            "import dagger.producers.monitoring.ProductionComponentMonitor;",
+            "import java.util.concurrent.Executor;",
+            "import javax.annotation.Generated;",
+            "import javax.inject.Provider;",
+            "",
+            GENERATED_ANNOTATION,
+            "public final class TestModule_ProduceStringFactory",
+            "    extends AbstractProducer<String>",
+            "    implements AsyncFunction<Void, String>, Executor {",
+            "  private static final ProducerToken TOKEN =",
+            "        ProducerToken.create(TestModule_ProduceStringFactory.class);",
+            "",
+            "  private final TestModule module;",
+            "  private final Provider<ProductionComponentMonitor> monitorProvider;",
+            "",
+            "  public TestModule_ProduceStringFactory(",
+            "      TestModule module,",
+            "      Provider<ProductionComponentMonitor> monitorProvider) {",
+            "    super(monitorProvider, TOKEN);",
+            "    this.module = module;",
+            "    this.monitorProvider = monitorProvider;",
+            "  }",
+            "",
+            "  @Override protected ListenableFuture<String> compute() {",
+            "    return Producers.transformAsyncDirectly(",
+            "        Futures.<Void>immediateFuture(null), this, this);",
+            "  }",
+            "",
+            "  @Deprecated",
+            "  @Override public ListenableFuture<String> apply(Void ignoredVoidArg) {",
+            "    monitor.methodStarting();",
+            "    try {",
+            "      return Futures.<String>immediateFuture(",
+            "          TestModule_ProduceStringFactory.this.module.produceString());",
+            "    } finally {",
+            "      monitor.methodFinished();",
+            "    }",
+            "  }",
+            "",
+            "  @Deprecated",
+            "  @Override public void execute(Runnable runnable) {",
+            "    monitor.ready();",
+            "    runnable.run();",
+            "  }",
+            "}");
+    assertAbout(javaSource())
+        .that(moduleFile)
+        .processedWith(new ComponentProcessor())
+        .compilesWithoutError()
+        .and()
+        .generatesSources(factoryFile);
+  }
+
   @Test public void producesMethodMultipleQualifiers() {
     assertThatProductionModuleMethod(
             "@Produces @QualifierA @QualifierB abstract String produceString() { return null; }")
@@ -226,13 +226,11 @@ public class ProductionComponentProcessorTest {
                 "package test;",
                 "",
                 "import com.google.common.util.concurrent.ListenableFuture;",
-                "import dagger.internal.InstanceFactory;",
                 "import dagger.internal.MemoizedSentinel;",
                 "import dagger.internal.Preconditions;",
-                "import dagger.internal.SetFactory;",
                 "import dagger.producers.Producer;",
                 "import dagger.producers.internal.Producers;",
-                "import dagger.producers.monitoring.ProductionComponentMonitor;",
+                "import dagger.producers.monitoring.internal.Monitors;",
                 "import java.util.concurrent.Executor;",
                 "import javax.annotation.Generated;",
                 "import javax.inject.Provider;",
@@ -242,9 +240,7 @@ public class ProductionComponentProcessorTest {
                 "    implements TestClass.SimpleComponent {",
                 "  private volatile Object productionImplementationExecutor =",
                 "      new MemoizedSentinel();",
-                "  private volatile Object productionComponentMonitor = new MemoizedSentinel();",
                 "  private TestClass.BModule bModule;",
-                "  private Provider<TestClass.SimpleComponent> simpleComponentProvider;",
                 "  private Producer<TestClass.B> bProducer;",
                 "  private Producer<TestClass.A> aProducer;",
                 "",
@@ -285,33 +281,6 @@ public class ProductionComponentProcessorTest {
                 "    };",
                 "  }",
                 "",
-                "  private ProductionComponentMonitor getProductionComponentMonitor() {",
-                "    Object local = productionComponentMonitor;",
-                "    if (local instanceof MemoizedSentinel) {",
-                "      synchronized (local) {",
-                "        if (local == productionComponentMonitor) {",
-                "          productionComponentMonitor =",
-                "              TestClass_SimpleComponent_MonitoringModule_MonitorFactory",
-                "                  .proxyMonitor(",
-                "                      simpleComponentProvider,",
-                "                      SetFactory.<ProductionComponentMonitor.Factory>empty());",
-                "        }",
-                "        local = productionComponentMonitor;",
-                "      }",
-                "    }",
-                "    return (ProductionComponentMonitor) local;",
-                "  }",
-                "",
-                "  private Provider<ProductionComponentMonitor>",
-                "      getProductionComponentMonitorProvider() {",
-                "    return new Provider<ProductionComponentMonitor>() {",
-                "      @Override",
-                "      public ProductionComponentMonitor get() {",
-                "        return getProductionComponentMonitor();",
-                "      }",
-                "    };",
-                "  }",
-                "",
                 "  private TestClass.B getB() {",
                 "    return TestClass_BModule_BFactory.proxyB(bModule, new TestClass.C());",
                 "  }",
@@ -332,14 +301,12 @@ public class ProductionComponentProcessorTest {
                 "  @SuppressWarnings(\"unchecked\")",
                 "  private void initialize(final Builder builder) {",
                 "    this.bModule = builder.bModule;",
-                "    this.simpleComponentProvider =",
-                "        InstanceFactory.<TestClass.SimpleComponent>create(this);",
                 "    this.bProducer = Producers.producerFromProvider(getBProvider());",
                 "    this.aProducer =",
                 "        new TestClass_AModule_AFactory(",
                 "            builder.aModule,",
                 "            getProductionImplementationExecutorProvider(),",
-                "            getProductionComponentMonitorProvider(),",
+                "            Monitors.noOpProductionComponentMonitorProvider(),",
                 "            getBProducer());",
                 "  }",
                 "",
@@ -394,12 +361,10 @@ public class ProductionComponentProcessorTest {
                 "",
                 "import com.google.common.util.concurrent.ListenableFuture;",
                 "import dagger.internal.DoubleCheck;",
-                "import dagger.internal.InstanceFactory;",
                 "import dagger.internal.Preconditions;",
-                "import dagger.internal.SetFactory;",
                 "import dagger.producers.Producer;",
                 "import dagger.producers.internal.Producers;",
-                "import dagger.producers.monitoring.ProductionComponentMonitor;",
+                "import dagger.producers.monitoring.internal.Monitors;",
                 "import java.util.concurrent.Executor;",
                 "import javax.annotation.Generated;",
                 "import javax.inject.Provider;",
@@ -409,8 +374,6 @@ public class ProductionComponentProcessorTest {
                 "    implements TestClass.SimpleComponent {",
                 "  private Provider<Executor> executorProvider;",
                 "  private Provider<Executor> executorProvider2;",
-                "  private Provider<TestClass.SimpleComponent> simpleComponentProvider;",
-                "  private Provider<ProductionComponentMonitor> monitorProvider;",
                 "  private Provider<TestClass.B> bProvider;",
                 "  private Producer<TestClass.B> bProducer;",
                 "  private Producer<TestClass.A> aProducer;",
@@ -435,20 +398,13 @@ public class ProductionComponentProcessorTest {
                 "        DoubleCheck.provider(",
                 "            TestClass_SimpleComponent_ProductionExecutorModule_ExecutorFactory",
                 "                .create(executorProvider));",
-                "    this.simpleComponentProvider = ",
-                "        InstanceFactory.<TestClass.SimpleComponent>create(this);",
-                "    this.monitorProvider =",
-                "        DoubleCheck.provider(",
-                "            TestClass_SimpleComponent_MonitoringModule_MonitorFactory.create(",
-                "                simpleComponentProvider,",
-                "                SetFactory.<ProductionComponentMonitor.Factory>empty()));",
                 "    this.bProvider = TestClass_BModule_BFactory.create(",
                 "        builder.bModule, TestClass_C_Factory.create());",
                 "    this.bProducer = Producers.producerFromProvider(bProvider);",
                 "    this.aProducer = new TestClass_AModule_AFactory(",
                 "        builder.aModule,",
                 "        executorProvider2,",
-                "        monitorProvider,",
+                "        Monitors.noOpProductionComponentMonitorProvider(),",
                 "        bProducer);",
                 "  }",
                 "",
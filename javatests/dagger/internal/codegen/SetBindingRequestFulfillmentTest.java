@@ -17,6 +17,8 @@
 package dagger.internal.codegen;
 
 import static com.google.testing.compile.CompilationSubject.assertThat;
+import static dagger.internal.codegen.CompilerMode.DEFAULT_MODE;
+import static dagger.internal.codegen.CompilerMode.EXPERIMENTAL_ANDROID_MODE;
 import static dagger.internal.codegen.Compilers.CLASS_PATH_WITHOUT_GUAVA_OPTION;
 import static dagger.internal.codegen.Compilers.daggerCompiler;
 import static dagger.internal.codegen.GeneratedLines.GENERATED_ANNOTATION;
@@ -368,6 +370,178 @@ public class SetBindingRequestFulfillmentTest {
         .hasSourceEquivalentTo(generatedComponent);
   }
 
+  @Test
+  public void scopedContributions_memoizedSet() {
+    JavaFileObject setModuleFile =
+        JavaFileObjects.forSourceLines(
+            "test.SetModule",
+            "package test;",
+            "",
+            "import dagger.Module;",
+            "import dagger.Provides;",
+            "import dagger.multibindings.ElementsIntoSet;",
+            "import dagger.multibindings.IntoSet;",
+            "import java.util.Collections;",
+            "import java.util.Set;",
+            "import javax.inject.Singleton;",
+            "",
+            "@Module",
+            "abstract class SetModule {",
+            "  @Provides @IntoSet @Singleton static String string() { return \"\"; }",
+            "",
+            "  @Provides @ElementsIntoSet @Singleton",
+            "  static Set<String> moreStrings() {",
+            "    return Collections.singleton(\"more\");",
+            "  }",
+            "}");
+    JavaFileObject componentFile =
+        JavaFileObjects.forSourceLines(
+            "test.TestComponent",
+            "package test;",
+            "",
+            "import dagger.Component;",
+            "import java.util.Set;",
+            "import javax.inject.Provider;",
+            "import javax.inject.Singleton;",
+            "",
+            "@Singleton",
+            "@Component(modules = SetModule.class)",
+            "interface TestComponent {",
+            "  Set<String> strings();",
+            "  Provider<Set<String>> stringsProvider();",
+            "}");
+    JavaFileObject generatedComponent =
+        compilerMode
+            .javaFileBuilder("test.DaggerTestComponent")
+            .addLines("package test;", "")
+            .addLinesIn(DEFAULT_MODE, "import dagger.internal.DoubleCheck;")
+            .addLinesIn(EXPERIMENTAL_ANDROID_MODE, "import dagger.internal.MemoizedSentinel;")
+            .addLines(
+                "import dagger.internal.SetFactory;",
+                "import java.util.Set;",
+                "import javax.annotation.Generated;",
+                "import javax.inject.Provider;",
+                "",
+                GENERATED_ANNOTATION,
+                "public final class DaggerTestComponent implements TestComponent {")
+            .addLinesIn(
+                DEFAULT_MODE,
+                "  private Provider<String> stringProvider;",
+                "  private Provider<Set<String>> moreStringsProvider;")
+            .addLinesIn(
+                EXPERIMENTAL_ANDROID_MODE,
+                "  private volatile Object string = new MemoizedSentinel();",
+                "  private volatile Object setOfString = new MemoizedSentinel();")
+            .addLines(
+                "  private Provider<Set<String>> setOfStringProvider;",
+                "",
+                "  private DaggerTestComponent(Builder builder) {",
+                "    initialize(builder);",
+                "  }",
+                "",
+                "  public static Builder builder() {",
+                "    return new Builder();",
+                "  }",
+                "",
+                "  public static TestComponent create() {",
+                "    return new Builder().build();",
+                "  }",
+                "")
+            .addLinesIn(
+                EXPERIMENTAL_ANDROID_MODE,
+                "  private String getString() {",
+                "    Object local = string;",
+                "    if (local instanceof MemoizedSentinel) {",
+                "      synchronized (local) {",
+                "        if (local == string) {",
+                "          string = SetModule_StringFactory.proxyString();",
+                "        }",
+                "        local = string;",
+                "      }",
+                "    }",
+                "    return (String) local;",
+                "  }",
+                "",
+                "  private Provider<String> getStringProvider() {",
+                "    return new Provider<String>() {",
+                "      @Override",
+                "      public String get() {",
+                "        return getString();",
+                "      }",
+                "    };",
+                "  }",
+                "",
+                "  private Set<String> getSetOfString() {",
+                "    Object local = setOfString;",
+                "    if (local instanceof MemoizedSentinel) {",
+                "      synchronized (local) {",
+                "        if (local == setOfString) {",
+                "          setOfString = SetModule_MoreStringsFactory.proxyMoreStrings();",
+                "        }",
+                "        local = setOfString;",
+                "      }",
+                "    }",
+                "    return (Set<String>) local;",
+                "  }",
+                "",
+                "  private Provider<Set<String>> getSetOfStringProvider() {",
+                "    return new Provider<Set<String>>() {",
+                "      @Override",
+                "      public Set<String> get() {",
+                "        return getSetOfString();",
+                "      }",
+                "    };",
+                "  }",
+                "")
+            .addLines(
+                "  @SuppressWarnings(\"unchecked\")",
+                "  private void initialize(final Builder builder) {")
+            .addLinesIn(
+                DEFAULT_MODE,
+                "    this.stringProvider = DoubleCheck.provider(SetModule_StringFactory.create());",
+                "    this.moreStringsProvider =",
+                "        DoubleCheck.provider(SetModule_MoreStringsFactory.create());",
+                "    this.setOfStringProvider =",
+                "        SetFactory.<String>builder(1, 1)",
+                "            .addProvider(stringProvider)",
+                "            .addCollectionProvider(moreStringsProvider)",
+                "            .buildMemoized();")
+            .addLinesIn(
+                EXPERIMENTAL_ANDROID_MODE,
+                "    this.setOfStringProvider =",
+                "        SetFactory.<String>builder(1, 1)",
+                "            .addProvider(getStringProvider())",
+                "            .addCollectionProvider(getSetOfStringProvider())",
+                "            .buildMemoized();")
+            .addLines(
+                "  }",
+                "",
+                "  @Override",
+                "  public Set<String> strings() {",
+                "    return setOfStringProvider.get();",
+                "  }",
+                "",
+                "  @Override",
+                "  public Provider<Set<String>> stringsProvider() {",
+                "    return setOfStringProvider;",
+                "  }",
+                "",
+                "  public static final class Builder {",
+                "    private Builder() {}",
+                "",
+                "    public TestComponent build() {",
+                "      return new DaggerTestComponent(this);",
+                "    }",
+                "  }",
+                "}")
+            .build();
+    Compilation compilation = daggerCompilerWithoutGuava().compile(setModuleFile, componentFile);
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .hasSourceEquivalentTo(generatedComponent);
+  }
+
   private Compiler daggerCompilerWithoutGuava() {
     return daggerCompiler()
         .withOptions(compilerMode.javacopts().append(CLASS_PATH_WITHOUT_GUAVA_OPTION));
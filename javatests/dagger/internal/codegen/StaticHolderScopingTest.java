@@ -0,0 +1,188 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static dagger.internal.codegen.Compilers.daggerCompiler;
+
+import com.google.common.io.ByteStreams;
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import javax.tools.JavaFileObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class StaticHolderScopingTest {
+  private static final JavaFileObject EXECUTOR_MODULE =
+      JavaFileObjects.forSourceLines(
+          "test.ExecutorModule",
+          "package test;",
+          "",
+          "import com.google.common.util.concurrent.MoreExecutors;",
+          "import dagger.Module;",
+          "import dagger.Provides;",
+          "import dagger.producers.Production;",
+          "import java.util.concurrent.Executor;",
+          "",
+          "@Module",
+          "final class ExecutorModule {",
+          "  @Provides @Production static Executor executor() {",
+          "    return MoreExecutors.directExecutor();",
+          "  }",
+          "}");
+
+  @Test
+  public void creationThatThrowsOnce_failsOnEveryLaterRequest() throws Exception {
+    JavaFileObject thrower =
+        JavaFileObjects.forSourceLines(
+            "test.Thrower",
+            "package test;",
+            "",
+            "import javax.inject.Inject;",
+            "import javax.inject.Singleton;",
+            "",
+            "@Singleton",
+            "final class Thrower {",
+            "  private static int attempts;",
+            "",
+            "  @Inject Thrower() {",
+            "    if (attempts++ == 0) {",
+            "      throw new IllegalStateException(\"first attempt\");",
+            "    }",
+            "  }",
+            "}");
+    JavaFileObject component =
+        JavaFileObjects.forSourceLines(
+            "test.TestComponent",
+            "package test;",
+            "",
+            "import dagger.Component;",
+            "import javax.inject.Singleton;",
+            "",
+            "@Singleton",
+            "@Component",
+            "public interface TestComponent {",
+            "  Thrower thrower();",
+            "}");
+    Compilation compilation =
+        daggerCompiler()
+            .withOptions("-Adagger.staticHolderScoping=enabled")
+            .compile(thrower, component);
+    assertThat(compilation).succeeded();
+
+    ClassLoader classLoader = new CompilationClassLoader(compilation);
+    Object testComponent =
+        classLoader.loadClass("test.DaggerTestComponent").getMethod("create").invoke(null);
+    Method throwerMethod = classLoader.loadClass("test.TestComponent").getMethod("thrower");
+
+    assertThat(invocationFailure(throwerMethod, testComponent))
+        .isInstanceOf(ExceptionInInitializerError.class);
+    // Unlike a scoped provider, the holder doesn't create the instance again.
+    assertThat(invocationFailure(throwerMethod, testComponent))
+        .isInstanceOf(NoClassDefFoundError.class);
+  }
+
+  @Test
+  public void productionScope_usesScopedProvider() {
+    JavaFileObject module =
+        JavaFileObjects.forSourceLines(
+            "test.TestModule",
+            "package test;",
+            "",
+            "import dagger.Module;",
+            "import dagger.Provides;",
+            "import dagger.producers.ProductionScope;",
+            "",
+            "@Module",
+            "final class TestModule {",
+            "  @Provides",
+            "  @ProductionScope",
+            "  static Object perRequest() {",
+            "    return new Object();",
+            "  }",
+            "}");
+    JavaFileObject component =
+        JavaFileObjects.forSourceLines(
+            "test.TestComponent",
+            "package test;",
+            "",
+            "import com.google.common.util.concurrent.ListenableFuture;",
+            "import dagger.producers.ProductionComponent;",
+            "",
+            "@ProductionComponent(modules = {ExecutorModule.class, TestModule.class})",
+            "interface TestComponent {",
+            "  ListenableFuture<Object> perRequest();",
+            "}");
+    Compilation compilation =
+        daggerCompiler()
+            .withOptions("-Adagger.staticHolderScoping=enabled")
+            .compile(EXECUTOR_MODULE, module, component);
+    assertThat(compilation).succeeded();
+    // Each production component instance gets its own instance of a @ProductionScope binding.
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .contentsAsUtf8String()
+        .contains("DoubleCheck.provider(TestModule_PerRequestFactory.create())");
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .contentsAsUtf8String()
+        .doesNotContain("Holder");
+  }
+
+  private static Throwable invocationFailure(Method method, Object receiver) throws Exception {
+    try {
+      method.invoke(receiver);
+    } catch (InvocationTargetException e) {
+      return e.getCause();
+    }
+    throw new AssertionError(method + " should have thrown");
+  }
+
+  /** Loads the classes that a compilation generated. */
+  private static final class CompilationClassLoader extends ClassLoader {
+    private final Compilation compilation;
+
+    CompilationClassLoader(Compilation compilation) {
+      super(StaticHolderScopingTest.class.getClassLoader());
+      this.compilation = compilation;
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+      String path = "/" + name.replace('.', '/') + ".class";
+      for (JavaFileObject file : compilation.generatedFiles()) {
+        if (file.getKind().equals(JavaFileObject.Kind.CLASS)
+            && file.toUri().getPath().endsWith(path)) {
+          try (InputStream input = file.openInputStream()) {
+            byte[] bytes = ByteStreams.toByteArray(input);
+            return defineClass(name, bytes, 0, bytes.length);
+          } catch (IOException e) {
+            throw new ClassNotFoundException(name, e);
+          }
+        }
+      }
+      throw new ClassNotFoundException(name);
+    }
+  }
+}
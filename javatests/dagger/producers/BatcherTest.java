@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.producers;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.fail;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class BatcherTest {
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+  private final FakeBackend backend = new FakeBackend();
+
+  @After
+  public void tearDown() {
+    scheduler.shutdownNow();
+  }
+
+  @Test
+  public void fullBatchIsDispatchedImmediately() throws Exception {
+    Batcher<Integer, String> batcher = Batcher.create(backend, 3, 1, HOURS, scheduler);
+    ListenableFuture<String> one = batcher.get(1);
+    ListenableFuture<String> two = batcher.get(2);
+    ListenableFuture<String> oneAgain = batcher.get(1);
+    ListenableFuture<String> three = batcher.get(3);
+
+    assertThat(one.get(10, SECONDS)).isEqualTo("value 1");
+    assertThat(two.get(10, SECONDS)).isEqualTo("value 2");
+    assertThat(oneAgain.get(10, SECONDS)).isEqualTo("value 1");
+    assertThat(three.get(10, SECONDS)).isEqualTo("value 3");
+    assertThat(backend.batches).containsExactly(ImmutableSet.of(1, 2, 3));
+  }
+
+  @Test
+  public void partialBatchIsDispatchedAfterDelay() throws Exception {
+    Batcher<Integer, String> batcher = Batcher.create(backend, 100, 10, MILLISECONDS, scheduler);
+    ListenableFuture<String> one = batcher.get(1);
+    ListenableFuture<String> two = batcher.get(2);
+
+    assertThat(one.get(10, SECONDS)).isEqualTo("value 1");
+    assertThat(two.get(10, SECONDS)).isEqualTo("value 2");
+    assertThat(backend.batches).containsExactly(ImmutableSet.of(1, 2));
+  }
+
+  @Test
+  public void missingKeyFails() throws Exception {
+    Batcher<Integer, String> batcher = Batcher.create(backend, 2, 1, HOURS, scheduler);
+    ListenableFuture<String> one = batcher.get(1);
+    ListenableFuture<String> missing = batcher.get(FakeBackend.MISSING);
+
+    assertThat(one.get(10, SECONDS)).isEqualTo("value 1");
+    try {
+      missing.get(10, SECONDS);
+      fail();
+    } catch (ExecutionException expected) {
+      assertThat(expected.getCause()).isInstanceOf(NoSuchElementException.class);
+    }
+  }
+
+  @Test
+  public void batchFailureFailsEveryRequest() throws Exception {
+    final RuntimeException failure = new RuntimeException("monkey");
+    Batcher<Integer, String> batcher =
+        Batcher.create(
+            new AsyncFunction<ImmutableSet<Integer>, Map<Integer, String>>() {
+              @Override
+              public ListenableFuture<Map<Integer, String>> apply(ImmutableSet<Integer> keys) {
+                return Futures.immediateFailedFuture(failure);
+              }
+            },
+            2,
+            1,
+            HOURS,
+            scheduler);
+    for (ListenableFuture<String> request : ImmutableSet.of(batcher.get(1), batcher.get(2))) {
+      try {
+        request.get(10, SECONDS);
+        fail();
+      } catch (ExecutionException expected) {
+        assertThat(expected.getCause()).isSameAs(failure);
+      }
+    }
+  }
+
+  @Test
+  public void cancelledRequestsAreLeftOut() throws Exception {
+    Batcher<Integer, String> batcher = Batcher.create(backend, 3, 1, HOURS, scheduler);
+    ListenableFuture<String> one = batcher.get(1);
+    ListenableFuture<String> oneAgain = batcher.get(1);
+    ListenableFuture<String> two = batcher.get(2);
+    two.cancel(true);
+    ListenableFuture<String> three = batcher.get(3);
+
+    assertThat(one.get(10, SECONDS)).isEqualTo("value 1");
+    assertThat(three.get(10, SECONDS)).isEqualTo("value 3");
+    assertThat(oneAgain.isCancelled()).isFalse();
+    assertThat(backend.batches).containsExactly(ImmutableSet.of(1, 3));
+  }
+
+  /** A backend that looks up many keys at once, and records the keys of each lookup. */
+  private static final class FakeBackend
+      implements AsyncFunction<ImmutableSet<Integer>, Map<Integer, String>> {
+    static final int MISSING = -1;
+
+    final List<ImmutableSet<Integer>> batches = new CopyOnWriteArrayList<>();
+
+    @Override
+    public ListenableFuture<Map<Integer, String>> apply(ImmutableSet<Integer> keys) {
+      batches.add(keys);
+      ImmutableMap.Builder<Integer, String> values = ImmutableMap.builder();
+      for (int key : keys) {
+        if (key != MISSING) {
+          values.put(key, "value " + key);
+        }
+      }
+      return Futures.<Map<Integer, String>>immediateFuture(values.build());
+    }
+  }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.producers;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static org.junit.Assert.fail;
+
+import com.google.common.testing.FakeTicker;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class ProductionExecutorsTest {
+  @Test
+  public void threadPerTaskExecutor_runsBlockedTasksConcurrently() throws Exception {
+    final int tasks = 64;
+    final CountDownLatch started = new CountDownLatch(tasks);
+    final CountDownLatch finished = new CountDownLatch(tasks);
+    ExecutorService executor = ProductionExecutors.newThreadPerTaskExecutor();
+    try {
+      for (int i = 0; i < tasks; i++) {
+        executor.execute(
+            new Runnable() {
+              @Override
+              public void run() {
+                started.countDown();
+                try {
+                  // Blocks until every task has started, which needs a thread per task.
+                  if (started.await(10, TimeUnit.SECONDS)) {
+                    finished.countDown();
+                  }
+                } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+                }
+              }
+            });
+      }
+      assertThat(finished.await(10, TimeUnit.SECONDS)).isTrue();
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void withDeadline_rejectsTasksOnceDeadlinePasses() {
+    FakeTicker ticker = new FakeTicker();
+    Executor executor =
+        ProductionExecutors.withDeadline(directExecutor(), 10, TimeUnit.MILLISECONDS, ticker);
+    final int[] runs = {0};
+    Runnable task =
+        new Runnable() {
+          @Override
+          public void run() {
+            runs[0]++;
+          }
+        };
+    executor.execute(task);
+    ticker.advance(9, TimeUnit.MILLISECONDS);
+    executor.execute(task);
+    assertThat(runs[0]).isEqualTo(2);
+
+    ticker.advance(1, TimeUnit.MILLISECONDS);
+    try {
+      executor.execute(task);
+      fail();
+    } catch (RejectedExecutionException expected) {
+    }
+    assertThat(runs[0]).isEqualTo(2);
+  }
+}
@@ -23,6 +23,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
+import com.google.common.util.concurrent.AbstractFuture;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
@@ -30,6 +31,8 @@ import dagger.producers.Producer;
 import dagger.producers.monitoring.ProducerMonitor;
 import dagger.producers.monitoring.ProducerToken;
 import dagger.producers.monitoring.ProductionComponentMonitor;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ExecutionException;
 import javax.inject.Provider;
 import org.junit.Before;
@@ -125,6 +128,49 @@ public class AbstractProducerTest {
     verifyNoMoreInteractions(monitor);
   }
 
+  @Test
+  public void cancellingOneRequest_doesNotCancelOthers() throws Exception {
+    SettableFuture<Integer> delegateFuture = SettableFuture.create();
+    Producer<Integer> producer = new DelegateProducer<>(componentMonitorProvider, delegateFuture);
+
+    ListenableFuture<Integer> first = producer.get();
+    ListenableFuture<Integer> second = producer.get();
+    assertThat(first.cancel(true)).isTrue();
+    assertThat(delegateFuture.isCancelled()).isFalse();
+    assertThat(second.isDone()).isFalse();
+    delegateFuture.set(42);
+    assertThat(second.get()).isEqualTo(42);
+    assertThat(producer.get().get()).isEqualTo(42);
+  }
+
+  @Test
+  public void cancellingAllRequests_cancelsComputation() throws Exception {
+    CancellationRecordingFuture<Integer> delegateFuture = new CancellationRecordingFuture<>();
+    Producer<Integer> producer = new DelegateProducer<>(componentMonitorProvider, delegateFuture);
+
+    ListenableFuture<Integer> first = producer.get();
+    ListenableFuture<Integer> second = producer.get();
+    first.cancel(false);
+    second.cancel(true);
+    assertThat(delegateFuture.isCancelled()).isTrue();
+    assertThat(delegateFuture.interrupted).isTrue();
+    assertThat(producer.get().isCancelled()).isTrue();
+  }
+
+  @Test
+  public void requestWhileCancellingComputation_getsCancelledComputation() throws Exception {
+    CancellationRecordingFuture<Integer> delegateFuture = new CancellationRecordingFuture<>();
+    Producer<Integer> producer = new DelegateProducer<>(componentMonitorProvider, delegateFuture);
+    List<ListenableFuture<Integer>> requestsDuringCancellation = new ArrayList<>();
+    // Runs a request after the last one has been cancelled, but before the computation is.
+    delegateFuture.beforeCancel = () -> requestsDuringCancellation.add(producer.get());
+
+    producer.get().cancel(false);
+    assertThat(delegateFuture.isCancelled()).isTrue();
+    // A request that had been counted would have been cancelled under its requester.
+    assertThat(requestsDuringCancellation).containsExactly(delegateFuture);
+  }
+
   private ListenableFuture<?> anyListenableFuture() {
     return any(ListenableFuture.class);
   }
@@ -134,6 +180,23 @@ public class AbstractProducerTest {
     new DelegateProducer<>(null, Futures.immediateFuture(42));
   }
 
+  /** A future that records whether it was cancelled with interruption. */
+  private static final class CancellationRecordingFuture<T> extends AbstractFuture<T> {
+    Runnable beforeCancel = () -> {};
+    boolean interrupted;
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+      beforeCancel.run();
+      return super.cancel(mayInterruptIfRunning);
+    }
+
+    @Override
+    protected void interruptTask() {
+      interrupted = true;
+    }
+  }
+
   static final class DelegateProducer<T> extends AbstractProducer<T> {
     private final ListenableFuture<T> delegate;
 
@@ -21,11 +21,14 @@ import static com.google.common.truth.Truth.assertThat;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
 import dagger.producers.Produced;
 import dagger.producers.Producer;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -118,6 +121,28 @@ public class SetOfProducedProducerTest {
         .isInstanceOf(NullPointerException.class);
   }
 
+  @Test
+  public void cancelledDelegate() throws Exception {
+    final SettableFuture<Integer> delegate = SettableFuture.create();
+    Producer<Set<Produced<Integer>>> producer =
+        SetOfProducedProducer.<Integer>builder(1, 0)
+            .addProducer(
+                new Producer<Integer>() {
+                  @Override
+                  public ListenableFuture<Integer> get() {
+                    return delegate;
+                  }
+                })
+            .build();
+    ListenableFuture<Set<Produced<Integer>>> future = producer.get();
+    delegate.cancel(false);
+    assertThat(future.isCancelled()).isFalse();
+    Results<Integer> results = Results.create(future.get());
+    assertThat(results.successes).isEmpty();
+    assertThat(Iterables.getOnlyElement(results.failures).getCause())
+        .isInstanceOf(CancellationException.class);
+  }
+
   static final class Results<T> {
     final ImmutableSet<T> successes;
     final ImmutableSet<ExecutionException> failures;
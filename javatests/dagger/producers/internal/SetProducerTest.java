@@ -21,6 +21,7 @@ import static org.junit.Assert.fail;
 
 import com.google.common.collect.ImmutableSet;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
 import dagger.producers.Producer;
 import java.util.Collections;
 import java.util.Set;
@@ -90,4 +91,57 @@ public class SetProducerTest {
       assertThat(e.getCause()).isInstanceOf(NullPointerException.class);
     }
   }
+
+  @Test
+  public void failsBeforeOtherDelegatesComplete() throws Exception {
+    SettableFuture<Integer> pending = SettableFuture.create();
+    RuntimeException cause = new RuntimeException("monkey");
+    Producer<Set<Integer>> producer =
+        SetProducer.<Integer>builder(2, 0)
+            .addProducer(producerOf(pending))
+            .addProducer(Producers.<Integer>immediateFailedProducer(cause))
+            .build();
+    ListenableFuture<Set<Integer>> future = producer.get();
+    assertThat(future.isDone()).isTrue();
+    try {
+      future.get();
+      fail();
+    } catch (ExecutionException e) {
+      assertThat(e.getCause()).isSameAs(cause);
+    }
+  }
+
+  @Test
+  public void completesWhenLastDelegateCompletes() throws Exception {
+    SettableFuture<Integer> first = SettableFuture.create();
+    SettableFuture<Set<Integer>> second = SettableFuture.create();
+    Producer<Set<Integer>> producer =
+        SetProducer.<Integer>builder(1, 1)
+            .addProducer(producerOf(first))
+            .addCollectionProducer(producerOf(second))
+            .build();
+    ListenableFuture<Set<Integer>> future = producer.get();
+    second.set(ImmutableSet.of(2, 3));
+    assertThat(future.isDone()).isFalse();
+    first.set(1);
+    assertThat(future.get()).containsExactly(1, 2, 3).inOrder();
+  }
+
+  @Test
+  public void cancellationPropagatesToDelegates() throws Exception {
+    SettableFuture<Integer> delegate = SettableFuture.create();
+    Producer<Set<Integer>> producer =
+        SetProducer.<Integer>builder(1, 0).addProducer(producerOf(delegate)).build();
+    producer.get().cancel(true);
+    assertThat(delegate.isCancelled()).isTrue();
+  }
+
+  private static <T> Producer<T> producerOf(final ListenableFuture<T> future) {
+    return new Producer<T>() {
+      @Override
+      public ListenableFuture<T> get() {
+        return future;
+      }
+    };
+  }
 }
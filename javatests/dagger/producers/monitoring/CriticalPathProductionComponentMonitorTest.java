@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.producers.monitoring;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import com.google.common.testing.FakeTicker;
+import com.google.common.util.concurrent.SettableFuture;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class CriticalPathProductionComponentMonitorTest {
+  private static final ProducerToken A = ProducerToken.create("a");
+  private static final ProducerToken B = ProducerToken.create("b");
+  private static final ProducerToken C = ProducerToken.create("c");
+
+  private FakeTicker ticker;
+  private CriticalPathProductionComponentMonitor.Factory monitorFactory;
+  private Object component;
+
+  @Before
+  public void setUp() {
+    ticker = new FakeTicker();
+    monitorFactory = new CriticalPathProductionComponentMonitor.Factory(ticker);
+    component = new Object();
+  }
+
+  /** Runs a that depends on b and c, where c takes longer than b. */
+  private void runGraph() {
+    ProductionComponentMonitor monitor = monitorFactory.create(component);
+    SettableFuture<Object> futureA = SettableFuture.create();
+    SettableFuture<Object> futureB = SettableFuture.create();
+    SettableFuture<Object> futureC = SettableFuture.create();
+
+    ProducerMonitor a = monitor.producerMonitorFor(A);
+    a.requested();
+    ProducerMonitor b = monitor.producerMonitorFor(B);
+    b.requested();
+    b.addCallbackTo(futureB);
+    ProducerMonitor c = monitor.producerMonitorFor(C);
+    c.requested();
+    c.addCallbackTo(futureC);
+    a.addCallbackTo(futureA);
+
+    ticker.advance(1);
+    b.ready();
+    c.ready();
+    ticker.advance(2);
+    b.methodStarting();
+    ticker.advance(10);
+    b.methodFinished();
+    futureB.set("b");
+    c.methodStarting();
+    ticker.advance(30);
+    c.methodFinished();
+    futureC.set("c");
+    a.ready();
+    a.methodStarting();
+    ticker.advance(5);
+    a.methodFinished();
+    futureA.set("a");
+  }
+
+  @Test
+  public void criticalPath() {
+    runGraph();
+    CriticalPathReport report = monitorFactory.reportFor(component);
+
+    assertThat(tokens(report.nodes())).containsExactly(A, B, C).inOrder();
+    assertThat(tokens(report.criticalPath())).containsExactly(C, A).inOrder();
+
+    CriticalPathReport.Node a = report.nodes().get(0);
+    assertThat(a.inputs()).containsExactly(B, C).inOrder();
+    assertThat(a.predecessor()).isEqualTo(C);
+    assertThat(a.inputWaitNanos()).isEqualTo(43L);
+    assertThat(a.slackNanos()).isEqualTo(0L);
+
+    CriticalPathReport.Node b = report.nodes().get(1);
+    assertThat(b.predecessor()).isNull();
+    assertThat(b.inputWaitNanos()).isEqualTo(1L);
+    assertThat(b.queueingNanos()).isEqualTo(2L);
+    assertThat(b.methodNanos()).isEqualTo(10L);
+    assertThat(b.slackNanos()).isEqualTo(30L);
+    assertThat(b.isOnCriticalPath()).isFalse();
+
+    CriticalPathReport.Node c = report.nodes().get(2);
+    assertThat(c.queueingNanos()).isEqualTo(12L);
+    assertThat(c.methodNanos()).isEqualTo(30L);
+    assertThat(c.slackNanos()).isEqualTo(0L);
+  }
+
+  @Test
+  public void skippedProducer() {
+    ProductionComponentMonitor monitor = monitorFactory.create(component);
+    SettableFuture<Object> futureA = SettableFuture.create();
+    SettableFuture<Object> futureB = SettableFuture.create();
+    ProducerMonitor a = monitor.producerMonitorFor(A);
+    a.requested();
+    ProducerMonitor b = monitor.producerMonitorFor(B);
+    b.requested();
+    b.addCallbackTo(futureB);
+    a.addCallbackTo(futureA);
+
+    ticker.advance(7);
+    b.ready();
+    b.methodStarting();
+    b.methodFinished();
+    futureB.setException(new RuntimeException("monkey"));
+    a.ready();
+    futureA.setException(new RuntimeException("monkey"));
+
+    CriticalPathReport report = monitorFactory.reportFor(component);
+    CriticalPathReport.Node skipped = report.nodes().get(0);
+    assertThat(skipped.succeeded()).isFalse();
+    assertThat(skipped.predecessor()).isEqualTo(B);
+    assertThat(skipped.startedNanos()).isEqualTo(CriticalPathReport.UNKNOWN);
+    assertThat(skipped.methodNanos()).isEqualTo(CriticalPathReport.UNKNOWN);
+    assertThat(tokens(report.criticalPath())).containsExactly(B, A).inOrder();
+    assertThat(report.toChromeTraceJson())
+        .contains("{\"name\":\"a\",\"cat\":\"critical\",\"ph\":\"i\",\"s\":\"p\",\"ts\":0.007,");
+  }
+
+  @Test
+  public void chromeTraceJson() {
+    runGraph();
+    String json = monitorFactory.reportFor(component).toChromeTraceJson();
+
+    assertThat(json).startsWith("{\"traceEvents\":[{\"name\":\"a\",\"cat\":\"critical\"");
+    assertThat(json)
+        .contains("{\"name\":\"b\",\"cat\":\"producer\",\"ph\":\"X\",\"ts\":0.003,\"dur\":0.010,");
+    assertThat(json)
+        .contains(
+            "\"args\":{\"succeeded\":true,\"predecessor\":\"c\",\"inputWaitNanos\":43,"
+                + "\"queueingNanos\":0,\"slackNanos\":0}}");
+    assertThat(json).endsWith("}}]}");
+  }
+
+  @Test
+  public void reportFor_unknownComponent() {
+    try {
+      monitorFactory.reportFor(new Object());
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+
+  private static List<ProducerToken> tokens(List<CriticalPathReport.Node> nodes) {
+    List<ProducerToken> tokens = new ArrayList<>();
+    for (CriticalPathReport.Node node : nodes) {
+      tokens.add(node.token());
+    }
+    return tokens;
+  }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.producers.monitoring;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class LatencyHistogramsTest {
+  private static final ProducerToken TOKEN = ProducerToken.create("producer");
+
+  private final LatencyHistograms histograms = new LatencyHistograms();
+  private final ProducerTimingRecorder recorder =
+      histograms.create(new Object()).producerTimingRecorderFor(TOKEN);
+
+  @Test
+  public void percentiles() {
+    for (long millis = 1; millis <= 1000; millis++) {
+      recorder.recordSuccess(millis * 1000000);
+    }
+    LatencyHistograms.Snapshot snapshot = histograms.snapshot().get(TOKEN);
+    assertThat(snapshot.count()).isEqualTo(1000L);
+    assertThat(snapshot.meanNanos()).isEqualTo(500500000L);
+    assertThat(snapshot.maxNanos()).isEqualTo(1000000000L);
+    assertThat((double) snapshot.percentileNanos(50)).isWithin(0.03 * 500e6).of(500e6);
+    assertThat((double) snapshot.percentileNanos(99)).isWithin(0.03 * 990e6).of(990e6);
+    assertThat((double) snapshot.percentileNanos(99.9)).isWithin(0.03 * 999e6).of(999e6);
+    assertThat(snapshot.percentileNanos(100)).isEqualTo(1000000000L);
+  }
+
+  @Test
+  public void smallLatenciesAreExact() {
+    for (long nanos = 0; nanos < 64; nanos++) {
+      recorder.recordSuccess(nanos);
+    }
+    LatencyHistograms.Snapshot snapshot = histograms.snapshot().get(TOKEN);
+    assertThat(snapshot.percentileNanos(0)).isEqualTo(0L);
+    assertThat(snapshot.percentileNanos(50)).isEqualTo(31L);
+    assertThat(snapshot.percentileNanos(100)).isEqualTo(63L);
+  }
+
+  @Test
+  public void outcomes() {
+    recorder.recordSuccess(10);
+    recorder.recordFailure(new RuntimeException(), 20);
+    recorder.recordFailure(new RuntimeException(), 30);
+    recorder.recordSkip(new RuntimeException());
+    LatencyHistograms.Snapshot snapshot = histograms.snapshot().get(TOKEN);
+    assertThat(snapshot.successes()).isEqualTo(1L);
+    assertThat(snapshot.failures()).isEqualTo(2L);
+    assertThat(snapshot.skips()).isEqualTo(1L);
+    assertThat(snapshot.count()).isEqualTo(3L);
+    assertThat(snapshot.meanNanos()).isEqualTo(20L);
+  }
+
+  @Test
+  public void snapshotAndReset() {
+    recorder.recordSuccess(10);
+    assertThat(histograms.snapshotAndReset().get(TOKEN).count()).isEqualTo(1L);
+    LatencyHistograms.Snapshot snapshot = histograms.snapshot().get(TOKEN);
+    assertThat(snapshot.count()).isEqualTo(0L);
+    assertThat(snapshot.maxNanos()).isEqualTo(0L);
+    assertThat(snapshot.percentileNanos(99)).isEqualTo(0L);
+  }
+
+  @Test
+  public void sharedAcrossComponents() {
+    histograms.create(new Object()).producerTimingRecorderFor(TOKEN).recordSuccess(10);
+    histograms
+        .create(new Object())
+        .producerTimingRecorderFor(ProducerToken.create("producer"))
+        .recordSuccess(10);
+    assertThat(histograms.snapshot().get(TOKEN).count()).isEqualTo(2L);
+  }
+
+  @Test
+  public void concurrentRecording() throws Exception {
+    final int threads = 8;
+    final int recordsPerThread = 10000;
+    final CountDownLatch start = new CountDownLatch(1);
+    List<Thread> recordingThreads = new ArrayList<>();
+    for (int i = 0; i < threads; i++) {
+      Thread thread =
+          new Thread() {
+            @Override
+            public void run() {
+              try {
+                start.await();
+              } catch (InterruptedException e) {
+                throw new AssertionError(e);
+              }
+              for (int j = 0; j < recordsPerThread; j++) {
+                recorder.recordSuccess(j);
+              }
+            }
+          };
+      thread.start();
+      recordingThreads.add(thread);
+    }
+    start.countDown();
+    long count = 0;
+    for (Thread thread : recordingThreads) {
+      count += histograms.snapshotAndReset().get(TOKEN).count();
+      thread.join();
+    }
+    count += histograms.snapshotAndReset().get(TOKEN).count();
+    assertThat(count).isEqualTo((long) threads * recordsPerThread);
+  }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2017 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.producers.monitoring;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import com.google.common.util.concurrent.SettableFuture;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class SamplingProductionComponentMonitorTest {
+  private static final ProducerToken A = ProducerToken.create("a");
+  private static final ProducerToken B = ProducerToken.create("b");
+
+  private final RecordingFactory delegate = new RecordingFactory();
+
+  @Test
+  public void sampled_usesDelegateMonitor() {
+    ProductionComponentMonitor monitor =
+        new SamplingProductionComponentMonitor.Factory(delegate, 1).create(new Object());
+    assertThat(delegate.monitors).containsExactly(monitor);
+  }
+
+  @Test
+  public void unsampled_successDoesNotCallDelegate() {
+    ProductionComponentMonitor monitor =
+        new SamplingProductionComponentMonitor.Factory(delegate, 0).create(new Object());
+    ProducerMonitor producerMonitor = monitor.producerMonitorFor(A);
+    SettableFuture<Object> future = SettableFuture.create();
+    producerMonitor.requested();
+    producerMonitor.addCallbackTo(future);
+    producerMonitor.ready();
+    producerMonitor.methodStarting();
+    producerMonitor.methodFinished();
+    future.set("a");
+    assertThat(delegate.monitors).isEmpty();
+  }
+
+  @Test
+  public void unsampled_failureIsReported() {
+    Object component = new Object();
+    ProductionComponentMonitor monitor =
+        new SamplingProductionComponentMonitor.Factory(delegate, 0).create(component);
+    SettableFuture<Object> futureA = SettableFuture.create();
+    SettableFuture<Object> futureB = SettableFuture.create();
+    monitor.producerMonitorFor(A).addCallbackTo(futureA);
+    monitor.producerMonitorFor(B).addCallbackTo(futureB);
+
+    RuntimeException failure = new RuntimeException("monkey");
+    futureB.setException(failure);
+    futureA.setException(failure);
+
+    assertThat(delegate.components).containsExactly(component);
+    RecordingMonitor delegateMonitor = delegate.monitors.get(0);
+    assertThat(delegateMonitor.events).containsExactly("b failed", "a failed").inOrder();
+    assertThat(delegateMonitor.failures).containsExactly(failure, failure);
+  }
+
+  @Test
+  public void unsampled_producersRequestedAfterFailureAreMonitored() {
+    ProductionComponentMonitor monitor =
+        new SamplingProductionComponentMonitor.Factory(delegate, 0).create(new Object());
+    SettableFuture<Object> futureA = SettableFuture.create();
+    monitor.producerMonitorFor(A).addCallbackTo(futureA);
+    futureA.cancel(false);
+
+    ProducerMonitor producerMonitor = monitor.producerMonitorFor(B);
+    producerMonitor.requested();
+    producerMonitor.addCallbackTo(SettableFuture.create());
+    assertThat(delegate.monitors.get(0).events).containsExactly("a failed", "b requested");
+  }
+
+  @Test
+  public void invalidSamplingRate() {
+    try {
+      new SamplingProductionComponentMonitor.Factory(delegate, 1.5);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+
+  private static final class RecordingFactory extends ProductionComponentMonitor.Factory {
+    final List<Object> components = new ArrayList<>();
+    final List<RecordingMonitor> monitors = new ArrayList<>();
+
+    @Override
+    public ProductionComponentMonitor create(Object component) {
+      RecordingMonitor monitor = new RecordingMonitor();
+      components.add(component);
+      monitors.add(monitor);
+      return monitor;
+    }
+  }
+
+  private static final class RecordingMonitor extends ProductionComponentMonitor {
+    final List<String> events = new ArrayList<>();
+    final List<Throwable> failures = new ArrayList<>();
+
+    @Override
+    public ProducerMonitor producerMonitorFor(final ProducerToken token) {
+      return new ProducerMonitor() {
+        @Override
+        public void requested() {
+          events.add(token + " requested");
+        }
+
+        @Override
+        public void failed(Throwable t) {
+          events.add(token + " failed");
+          failures.add(t);
+        }
+      };
+    }
+  }
+}
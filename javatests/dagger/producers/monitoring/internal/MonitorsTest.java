@@ -20,13 +20,17 @@ import static com.google.common.truth.Truth.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import dagger.producers.monitoring.ProducerMonitor;
 import dagger.producers.monitoring.ProducerToken;
 import dagger.producers.monitoring.ProductionComponentMonitor;
+import java.util.Set;
+import javax.inject.Provider;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -462,6 +466,68 @@ public final class MonitorsTest {
     verifyNoMoreInteractions(mockProducerMonitorA, mockProducerMonitorB, mockProducerMonitorC);
   }
 
+  @Test
+  public void createMonitorForComponent_noFactories() {
+    Provider<Object> componentProvider =
+        new Provider<Object>() {
+          @Override
+          public Object get() {
+            throw new AssertionError("the component isn't needed without monitors");
+          }
+        };
+    Set<ProductionComponentMonitor.Factory> noFactories = ImmutableSet.of();
+    assertThat(Monitors.createMonitorForComponent(componentProvider, providerOf(noFactories)))
+        .isSameAs(ProductionComponentMonitor.noOp());
+  }
+
+  @Test
+  public void createMonitorForComponent_eachComponentGetsItsOwnMonitor() {
+    Object componentA = new Object();
+    Object componentB = new Object();
+    when(mockProductionComponentMonitorFactory.create(componentA))
+        .thenReturn(mockProductionComponentMonitorA);
+    when(mockProductionComponentMonitorFactory.create(componentB))
+        .thenReturn(mockProductionComponentMonitorB);
+    when(mockProductionComponentMonitorA.producerMonitorFor(any(ProducerToken.class)))
+        .thenReturn(mockProducerMonitorA);
+    when(mockProductionComponentMonitorB.producerMonitorFor(any(ProducerToken.class)))
+        .thenReturn(mockProducerMonitorB);
+    when(mockProductionComponentMonitorFactoryC.create(componentA))
+        .thenReturn(mockProductionComponentMonitorC);
+    when(mockProductionComponentMonitorC.producerMonitorFor(any(ProducerToken.class)))
+        .thenReturn(mockProducerMonitorC);
+
+    Set<ProductionComponentMonitor.Factory> factorySet =
+        ImmutableSet.of(mockProductionComponentMonitorFactory);
+    Set<ProductionComponentMonitor.Factory> otherFactorySet =
+        ImmutableSet.of(mockProductionComponentMonitorFactoryC);
+    Provider<Set<ProductionComponentMonitor.Factory>> factories = providerOf(factorySet);
+    Provider<Set<ProductionComponentMonitor.Factory>> otherFactories = providerOf(otherFactorySet);
+    ProducerToken token = ProducerToken.create(Object.class);
+    Monitors.createMonitorForComponent(providerOf(componentA), factories)
+        .producerMonitorFor(token)
+        .requested();
+    Monitors.createMonitorForComponent(providerOf(componentB), factories)
+        .producerMonitorFor(token)
+        .requested();
+    Monitors.createMonitorForComponent(providerOf(componentA), otherFactories)
+        .producerMonitorFor(token)
+        .requested();
+
+    verify(mockProducerMonitorA).requested();
+    verify(mockProducerMonitorB).requested();
+    verify(mockProducerMonitorC).requested();
+  }
+
+  private static <T> Provider<T> providerOf(final T instance) {
+    return new Provider<T>() {
+      @Override
+      public T get() {
+        return instance;
+      }
+    };
+  }
+
   private void setUpNormalSingleMonitor() {
     when(mockProductionComponentMonitorFactory.create(any(Object.class)))
         .thenReturn(mockProductionComponentMonitor);